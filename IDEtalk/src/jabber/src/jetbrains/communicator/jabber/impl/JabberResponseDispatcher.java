@@ -0,0 +1,135 @@
+// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package jetbrains.communicator.jabber.impl;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import jetbrains.communicator.core.transport.XmlMessage;
+import org.jdom.Element;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlates incoming response packets with the requests sent before them.
+ * A response carries the packet id of its request, so a request which is never answered doesn't affect the others.
+ * No thread is blocked while waiting: pending requests are matched in the packet listener, handled on the response executor
+ * and expired by a shared scheduler.
+ */
+class JabberResponseDispatcher {
+  private static final Logger LOG = Logger.getInstance(JabberResponseDispatcher.class);
+
+  private final Map<String, PendingResponse> myPending = new HashMap<>();
+  private final ScheduledExecutorService myScheduler;
+  private final Executor myResponseExecutor;
+  private final long myTimeout;
+
+  /**
+   * @param responseExecutor runs {@link XmlMessage#processResponse}, so that slow handlers don't hold up packet delivery
+   */
+  JabberResponseDispatcher(@NotNull Executor responseExecutor, long timeoutMillis) {
+    this(AppExecutorUtil.getAppScheduledExecutorService(), responseExecutor, timeoutMillis);
+  }
+
+  JabberResponseDispatcher(@NotNull ScheduledExecutorService scheduler, @NotNull Executor responseExecutor, long timeoutMillis) {
+    myScheduler = scheduler;
+    myResponseExecutor = responseExecutor;
+    myTimeout = timeoutMillis;
+  }
+
+  /**
+   * Registers a request which expects a response with the packet id of the request.
+   * Must be called before the request packet is sent, so a quick response cannot be missed.
+   */
+  CompletableFuture<Element> expectResponse(@NotNull String packetId, @NotNull XmlMessage xmlMessage) {
+    final PendingResponse pending = new PendingResponse(packetId, xmlMessage);
+    synchronized (myPending) {
+      PendingResponse old = myPending.put(packetId, pending);
+      if (old != null) {
+        LOG.warn("Duplicate packet id " + packetId);
+        old.cancelTimeout();
+        old.myFuture.cancel(false);
+      }
+    }
+    pending.myTimeoutTask = myScheduler.schedule(() -> expire(pending), myTimeout, TimeUnit.MILLISECONDS);
+    return pending.myFuture;
+  }
+
+  /**
+   * @return true if the response was delivered to a pending request
+   */
+  boolean dispatchResponse(String packetId, @NotNull Element response) {
+    if (packetId == null) return false;
+
+    PendingResponse pending;
+    synchronized (myPending) {
+      pending = myPending.remove(packetId);
+    }
+    if (pending == null) return false;
+
+    pending.cancelTimeout();
+    myResponseExecutor.execute(() -> {
+      try {
+        pending.myXmlMessage.processResponse(response);
+      }
+      catch (Throwable e) {
+        LOG.error(e.getMessage(), e);
+      }
+      pending.myFuture.complete(response);
+    });
+    return true;
+  }
+
+  /** Drops all pending requests, e.g. after disconnect */
+  void cancelAll() {
+    List<PendingResponse> all;
+    synchronized (myPending) {
+      all = new ArrayList<>(myPending.values());
+      myPending.clear();
+    }
+    for (PendingResponse pending : all) {
+      pending.cancelTimeout();
+      pending.myFuture.cancel(false);
+    }
+  }
+
+  int getPendingCount() {
+    synchronized (myPending) {
+      return myPending.size();
+    }
+  }
+
+  private void expire(PendingResponse pending) {
+    synchronized (myPending) {
+      if (!myPending.remove(pending.myPacketId, pending)) return;
+    }
+    LOG.debug("No response to packet " + pending.myPacketId + " for " + pending.myXmlMessage.getTagName());
+    pending.myFuture.cancel(false);
+  }
+
+  private static class PendingResponse {
+    private final String myPacketId;
+    private final XmlMessage myXmlMessage;
+    private final CompletableFuture<Element> myFuture = new CompletableFuture<>();
+    private volatile ScheduledFuture<?> myTimeoutTask;
+
+    PendingResponse(String packetId, XmlMessage xmlMessage) {
+      myPacketId = packetId;
+      myXmlMessage = xmlMessage;
+    }
+
+    void cancelTimeout() {
+      ScheduledFuture<?> task = myTimeoutTask;
+      if (task != null) {
+        task.cancel(false);
+      }
+    }
+  }
+}
@@ -24,7 +24,6 @@ import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.Nullable;
 import org.jivesoftware.smack.*;
 import org.jivesoftware.smack.filter.PacketTypeFilter;
-import org.jivesoftware.smack.filter.ThreadFilter;
 import org.jivesoftware.smack.packet.Message;
 import org.jivesoftware.smack.packet.Packet;
 import org.jivesoftware.smack.packet.PacketExtension;
@@ -70,6 +69,7 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
   private final Map<User, UserPresence> myUser2Presence = new HashMap<>();
   private final Set<String> myIDEtalkUsers = new HashSet<>();
   private final Map<String, String> myUser2Thread = Collections.synchronizedMap(new HashMap<>());
+  private final JabberResponseDispatcher myResponseDispatcher;
 
   @NonNls
   private static final String RESPONSE = "response";
@@ -93,6 +93,7 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
     myUserFinder = userFinder;
     myIdeFacade = messageDispatcher.getIdeFacade();
     myIgnoreList = new IgnoreList(myIdeFacade);
+    myResponseDispatcher = new JabberResponseDispatcher(myIdeFacade::runOnPooledThread, RESPONSE_TIMEOUT);
 
     myFacade.addConnectionListener(this);
     getBroadcaster().addListener(myUserModelListener);
@@ -188,32 +189,15 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
   }
 
   @Override
-  public synchronized void sendXmlMessage(User user, final XmlMessage xmlMessage) {
+  public void sendXmlMessage(User user, final XmlMessage xmlMessage) {
     if (!myUI.connectAndLogin(null)) {
       return;
     }
 
-    final String threadId = getThreadId(user);
-    final PacketCollector packetCollector = myFacade.getConnection().createPacketCollector(new ThreadFilter(threadId));
-    doSendMessage(xmlMessage, user, threadId);
-
-    if (xmlMessage.needsResponse()) {
-      final Runnable responseWaiterRunnable = () -> {
-        try {
-          processResponse(xmlMessage, packetCollector);
-        }
-        finally {
-          packetCollector.cancel();
-        }
-      };
-      myIdeFacade.runOnPooledThread(responseWaiterRunnable);
-    }
-    else {
-      packetCollector.cancel();
-    }
+    doSendMessage(xmlMessage, user, getThreadId(user));
   }
 
-  String getThreadId(User user) {
+  synchronized String getThreadId(User user) {
     String id = myUser2Thread.get(user.getName());
     if (id == null) {
       id = myThreadIdPrefix + myCurrentThreadId ++;
@@ -247,28 +231,6 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
     return myPresenceMode == null || myPresenceMode != presenceMode;
   }
 
-  private static void processResponse(XmlMessage xmlMessage, PacketCollector collector) {
-    boolean gotResponse = false;
-
-    while (!gotResponse) {
-
-      Message response = (Message) collector.nextResult(RESPONSE_TIMEOUT);
-      if (response == null) break;
-
-      final Collection<PacketExtension> extensions = response.getExtensions();
-      for (PacketExtension o : extensions) {
-        if (o instanceof JDOMExtension) {
-          JDOMExtension extension = (JDOMExtension) o;
-          if (RESPONSE.equals(extension.getElement().getName())) {
-            xmlMessage.processResponse(extension.getElement());
-            gotResponse = true;
-            break;
-          }
-        }
-      }
-    }
-  }
-
   private void doSendMessage(XmlMessage xmlMessage, User user, String threadId) {
     Element element = new Element(xmlMessage.getTagName(), xmlMessage.getTagNamespace());
     xmlMessage.fillRequest(element);
@@ -276,6 +238,10 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
     Message message = createBaseMessage(user, element.getText());
     message.setThread(threadId);
     message.addExtension(new JDOMExtension(element));
+    if (xmlMessage.needsResponse()) {
+      // the response is sent with the packet id of the request
+      myResponseDispatcher.expectResponse(message.getPacketID(), xmlMessage);
+    }
     myFacade.getConnection().sendPacket(message);
   }
 
@@ -339,6 +305,7 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
     myIDEtalkUsers.clear();
     myUser2Presence.clear();
     myUser2Thread.clear();
+    myResponseDispatcher.cancelAll();
 
     if (onError && reconnectEnabledAndNotStarted()) {
       LOG.warn(getMsg("jabber.server.was.disconnected", myReconnectTimeout / 1000));
@@ -352,6 +319,7 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
 
   @Override
   public void dispose() {
+    myResponseDispatcher.cancelAll();
     getBroadcaster().removeListener(myUserModelListener);
     myFacade.removeConnectionListener(this);
   }
@@ -473,6 +441,10 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
     return roster;
   }
 
+  JabberResponseDispatcher getResponseDispatcher() {
+    return myResponseDispatcher;
+  }
+
   public JabberFacade getFacade() {
     return myFacade;
   }
@@ -641,10 +613,6 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
         return;
       }
 
-      if (myIgnoreList.isIgnored(packet.getFrom())) {
-        return;
-      }
-
       Element element = null;
       for (PacketExtension o : message.getExtensions()) {
         if (o instanceof JDOMExtension) {
@@ -652,7 +620,17 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
         }
       }
 
-      if (element != null && !RESPONSE.equals(element.getName())) {
+      // responses answer our own requests, so they are delivered even from ignored users
+      if (element != null && RESPONSE.equals(element.getName())) {
+        myResponseDispatcher.dispatchResponse(message.getPacketID(), element);
+        return;
+      }
+
+      if (myIgnoreList.isIgnored(packet.getFrom())) {
+        return;
+      }
+
+      if (element != null) {
         processAndSendResponse(element, message);
       }
       else if (element == null && message.getBody() != null) {
@@ -673,6 +651,7 @@ public class JabberTransport implements Transport, ConnectionListener, Disposabl
         Message responseMessage = new Message(getFrom(message));
         responseMessage.addExtension(new JDOMExtension(response));
         responseMessage.setThread(message.getThread());
+        responseMessage.setPacketID(message.getPacketID());
         myFacade.getConnection().sendPacket(responseMessage);
       }
     }
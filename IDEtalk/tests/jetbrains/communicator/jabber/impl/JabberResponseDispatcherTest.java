@@ -0,0 +1,160 @@
+// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package jetbrains.communicator.jabber.impl;
+
+import jetbrains.communicator.core.transport.Transport;
+import jetbrains.communicator.p2p.MockXmlMessage;
+import junit.framework.TestCase;
+import org.jdom.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class JabberResponseDispatcherTest extends TestCase {
+  private ScheduledExecutorService myScheduler;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myScheduler = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      myScheduler.shutdownNow();
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testResponsesAreMatchedByPacketId() {
+    JabberResponseDispatcher dispatcher = new JabberResponseDispatcher(myScheduler, Runnable::run, 10000);
+    final List<String> log = new ArrayList<>();
+
+    CompletableFuture<Element> unanswered = dispatcher.expectResponse("p1", new LoggingMessage("unanswered", log));
+    CompletableFuture<Element> second = dispatcher.expectResponse("p2", new LoggingMessage("second", log));
+    CompletableFuture<Element> third = dispatcher.expectResponse("p3", new LoggingMessage("third", log));
+
+    assertTrue(dispatcher.dispatchResponse("p3", response("r3")));
+    assertTrue(dispatcher.dispatchResponse("p2", response("r2")));
+    assertFalse(dispatcher.dispatchResponse("p2", response("again")));
+
+    assertEquals("r2", second.getNow(null).getText());
+    assertEquals("r3", third.getNow(null).getText());
+    assertFalse(unanswered.isDone());
+    assertEquals("[third:r3, second:r2]", log.toString());
+    assertEquals(1, dispatcher.getPendingCount());
+  }
+
+  public void testUnexpectedResponseIsIgnored() {
+    JabberResponseDispatcher dispatcher = new JabberResponseDispatcher(myScheduler, Runnable::run, 10000);
+    assertFalse(dispatcher.dispatchResponse("unknown", response("r")));
+    assertFalse(dispatcher.dispatchResponse(null, response("r")));
+  }
+
+  public void testTimeout() throws Exception {
+    JabberResponseDispatcher dispatcher = new JabberResponseDispatcher(myScheduler, Runnable::run, 50);
+    CompletableFuture<Element> future = dispatcher.expectResponse("p1", new MockXmlMessage());
+
+    myScheduler.submit(() -> {}).get();
+    long start = System.currentTimeMillis();
+    while (!future.isDone() && System.currentTimeMillis() - start < 5000) {
+      Thread.sleep(10);
+    }
+
+    assertTrue(future.isCancelled());
+    assertEquals(0, dispatcher.getPendingCount());
+    assertFalse("Late response should be dropped", dispatcher.dispatchResponse("p1", response("late")));
+  }
+
+  public void testCancelAll() {
+    JabberResponseDispatcher dispatcher = new JabberResponseDispatcher(myScheduler, Runnable::run, 10000);
+    CompletableFuture<Element> future = dispatcher.expectResponse("p1", new MockXmlMessage());
+    dispatcher.cancelAll();
+    assertTrue(future.isCancelled());
+    assertEquals(0, dispatcher.getPendingCount());
+  }
+
+  public void testResponseProcessedOnResponseExecutor() throws Exception {
+    ExecutorService responseExecutor = Executors.newSingleThreadExecutor();
+    try {
+      JabberResponseDispatcher dispatcher = new JabberResponseDispatcher(myScheduler, responseExecutor, 10000);
+      final Thread listenerThread = Thread.currentThread();
+      final CountDownLatch release = new CountDownLatch(1);
+      final List<Thread> handlerThreads = new ArrayList<>();
+      CompletableFuture<Element> future = dispatcher.expectResponse("p1", new MockXmlMessage() {
+        @Override
+        public void processResponse(Element responseElement) {
+          handlerThreads.add(Thread.currentThread());
+          try {
+            release.await(10, TimeUnit.SECONDS);
+          }
+          catch (InterruptedException ignored) {
+          }
+        }
+      });
+
+      // a slow handler must not block the packet listener
+      assertTrue(dispatcher.dispatchResponse("p1", response("r1")));
+      assertFalse(future.isDone());
+      release.countDown();
+
+      assertEquals("r1", future.get(10, TimeUnit.SECONDS).getText());
+      assertEquals(1, handlerThreads.size());
+      assertNotSame(listenerThread, handlerThreads.get(0));
+    }
+    finally {
+      responseExecutor.shutdownNow();
+    }
+  }
+
+  public void testPipelinedRequests() throws Exception {
+    JabberResponseDispatcher dispatcher = new JabberResponseDispatcher(myScheduler, Runnable::run, 60000);
+    final int threads = 10;
+    final int perThread = 100;
+
+    List<CompletableFuture<Element>> futures = new ArrayList<>();
+    for (int i = 0; i < perThread; i++) {
+      for (int t = 0; t < threads; t++) {
+        futures.add(dispatcher.expectResponse("packet" + t + "-" + i, new MockXmlMessage()));
+      }
+    }
+    for (int i = 0; i < perThread; i++) {
+      for (int t = 0; t < threads; t++) {
+        assertTrue(dispatcher.dispatchResponse("packet" + t + "-" + i, response(String.valueOf(i))));
+      }
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+    assertEquals(0, dispatcher.getPendingCount());
+    assertEquals(String.valueOf(perThread - 1), futures.get(futures.size() - 1).get().getText());
+  }
+
+  private static Element response(String text) {
+    Element element = new Element("response", Transport.NAMESPACE);
+    element.setText(text);
+    return element;
+  }
+
+  private static class LoggingMessage extends MockXmlMessage {
+    private final String myName;
+    private final List<String> myLog;
+
+    LoggingMessage(String name, List<String> log) {
+      myName = name;
+      myLog = log;
+    }
+
+    @Override
+    public void processResponse(Element responseElement) {
+      myLog.add(myName + ":" + responseElement.getText());
+    }
+  }
+}
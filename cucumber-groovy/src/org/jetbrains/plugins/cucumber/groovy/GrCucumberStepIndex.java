@@ -8,6 +8,7 @@ import com.intellij.psi.impl.source.tree.RecursiveLighterASTNodeWalkingVisitor;
 import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.plugins.cucumber.CucumberStepIndex;
 import org.jetbrains.plugins.groovy.GroovyFileType;
@@ -17,7 +18,7 @@ import java.util.List;
 
 import static org.jetbrains.plugins.groovy.lang.psi.GroovyElementTypes.*;
 
-public class GrCucumberStepIndex extends CucumberStepIndex {
+public class GrCucumberStepIndex extends CucumberStepIndex<Integer> {
   public static final ID<Boolean, List<Integer>> INDEX_ID = ID.create("groovy.cucumber.step");
   private static final String CUCUMBER_GROOVY_PACKAGE = "cucumber.api.groovy.";
   private static final String CUCUMBER_GROOVY_1_0_PACKAGE = "cucumber.runtime.groovy.";
@@ -45,8 +46,14 @@ public class GrCucumberStepIndex extends CucumberStepIndex {
     return new DefaultFileTypeSpecificInputFilter(GroovyFileType.GROOVY_FILE_TYPE);
   }
 
+  @NotNull
+  @Override
+  public DataExternalizer<List<Integer>> getValueExternalizer() {
+    return OFFSETS_EXTERNALIZER;
+  }
+
   @Override
-  protected List<Integer> getStepDefinitionOffsets(@NotNull LighterAST lighterAst, @NotNull CharSequence text) {
+  protected List<Integer> getStepDefinitions(@NotNull LighterAST lighterAst, @NotNull CharSequence text) {
     List<Integer> result = new ArrayList<>();
 
     RecursiveLighterASTNodeWalkingVisitor visitor = new RecursiveLighterASTNodeWalkingVisitor(lighterAst) {
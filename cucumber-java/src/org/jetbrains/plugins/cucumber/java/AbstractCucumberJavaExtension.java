@@ -1,6 +1,7 @@
 // Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.plugins.cucumber.java;
 
+import com.intellij.lang.Language;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.roots.ProjectRootManager;
@@ -9,6 +10,7 @@ import com.intellij.psi.PsiClassOwner;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.plugins.cucumber.psi.GherkinFile;
 import org.jetbrains.plugins.cucumber.steps.AbstractCucumberExtension;
@@ -40,6 +42,17 @@ public abstract class AbstractCucumberJavaExtension extends AbstractCucumberExte
     return false;
   }
 
+  /**
+   * Steps are loaded from any {@link PsiClassOwner}: Java sources and Kotlin ones, when Kotlin is installed.
+   */
+  @NotNull
+  @Override
+  public Collection<Language> getStepDefinitionLanguages() {
+    List<Language> languages = new ArrayList<>(super.getStepDefinitionLanguages());
+    ContainerUtil.addIfNotNull(languages, Language.findLanguageByID("kotlin"));
+    return languages;
+  }
+
   @Override
   public Collection<? extends PsiFile> getStepDefinitionContainers(@NotNull GherkinFile featureFile) {
     final Module module = ModuleUtilCore.findModuleForPsiElement(featureFile);
@@ -59,13 +59,22 @@ public class CucumberJava8Extension extends AbstractCucumberJavaExtension {
                                  (file, value) -> {
                                    ProgressManager.checkCanceled();
 
-                                   PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
-                                   if (psiFile == null) {
-                                     return true;
-                                   }
+                                   PsiFile psiFile = null;
+                                   for (CucumberJava8StepIndex.StepDefinitionEntry entry : value) {
+                                     String pattern = entry.getPattern();
+                                     if (pattern != null) {
+                                       // matched by the indexed pattern, PSI is loaded only if the definition is used
+                                       result.add(new Java8StepDefinition(project, file, entry.getOffset(), pattern));
+                                       continue;
+                                     }
 
-                                   for (Integer offset : value) {
-                                     PsiElement element = psiFile.findElementAt(offset + 1);
+                                     if (psiFile == null) {
+                                       psiFile = PsiManager.getInstance(project).findFile(file);
+                                       if (psiFile == null) {
+                                         return true;
+                                       }
+                                     }
+                                     PsiElement element = psiFile.findElementAt(entry.getOffset() + 1);
                                      final PsiMethodCallExpression methodCallExpression =
                                        PsiTreeUtil.getParentOfType(element, PsiMethodCallExpression.class);
                                      if (methodCallExpression != null) {
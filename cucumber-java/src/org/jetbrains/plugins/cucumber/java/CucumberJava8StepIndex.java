@@ -4,6 +4,8 @@ package org.jetbrains.plugins.cucumber.java;
 import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.lang.LighterAST;
 import com.intellij.lang.LighterASTNode;
+import com.intellij.openapi.util.io.DataInputOutputUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.impl.source.JavaFileElementType;
 import com.intellij.psi.impl.source.JavaLightTreeUtil;
@@ -12,29 +14,36 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
 import com.intellij.util.indexing.FileBasedIndex;
 import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.cucumber.CucumberStepIndex;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import static com.intellij.psi.impl.source.tree.JavaElementType.*;
 
-public class CucumberJava8StepIndex extends CucumberStepIndex {
-  public static final ID<Boolean, List<Integer>> INDEX_ID = ID.create("java.cucumber.java8.step");
+public class CucumberJava8StepIndex extends CucumberStepIndex<CucumberJava8StepIndex.StepDefinitionEntry> {
+  public static final ID<Boolean, List<StepDefinitionEntry>> INDEX_ID = ID.create("java.cucumber.java8.step");
   private static final String JAVA_8_PACKAGE = "cucumber.api.java8.";
   private static final String JAVA_8_CUCUMBER_4_5_PACKAGE = "io.cucumber.java8.";
   private static final String[] PACKAGES_TO_SCAN = new String[]{JAVA_8_CUCUMBER_4_5_PACKAGE, JAVA_8_PACKAGE};
 
   @NotNull
   @Override
-  public ID<Boolean, List<Integer>> getName() {
+  public ID<Boolean, List<StepDefinitionEntry>> getName() {
     return INDEX_ID;
   }
 
   @Override
   public int getVersion() {
-    return 1;
+    return 2;
   }
 
   @Override
@@ -42,6 +51,12 @@ public class CucumberJava8StepIndex extends CucumberStepIndex {
     return true;
   }
 
+  @NotNull
+  @Override
+  public DataExternalizer<List<StepDefinitionEntry>> getValueExternalizer() {
+    return ENTRIES_EXTERNALIZER;
+  }
+
   @Override
   protected String[] getPackagesToScan() {
     return PACKAGES_TO_SCAN;
@@ -60,8 +75,8 @@ public class CucumberJava8StepIndex extends CucumberStepIndex {
   }
 
   @Override
-  protected List<Integer> getStepDefinitionOffsets(@NotNull LighterAST lighterAst, @NotNull CharSequence text) {
-    List<Integer> result = new ArrayList<>();
+  protected List<StepDefinitionEntry> getStepDefinitions(@NotNull LighterAST lighterAst, @NotNull CharSequence text) {
+    List<StepDefinitionEntry> result = new ArrayList<>();
     
     RecursiveLighterASTNodeWalkingVisitor visitor = new RecursiveLighterASTNodeWalkingVisitor(lighterAst) {
       @Override
@@ -86,7 +101,7 @@ public class CucumberJava8StepIndex extends CucumberStepIndex {
                   }
                   IElementType type = stepDefImplementationArgument.getTokenType();
                   if (type == METHOD_REF_EXPRESSION || type == LOCAL_VARIABLE || type == LAMBDA_EXPRESSION) {
-                    result.add(expressionParameter.getStartOffset());
+                    result.add(new StepDefinitionEntry(expressionParameter.getStartOffset(), getPattern(expressionParameter, text)));
                   }
                 }
               }
@@ -100,4 +115,72 @@ public class CucumberJava8StepIndex extends CucumberStepIndex {
     
     return result;
   }
+
+  /**
+   * Returns the value of a plain string literal, other expressions have to be evaluated with PSI.
+   */
+  @Nullable
+  private static String getPattern(@NotNull LighterASTNode expression, @NotNull CharSequence text) {
+    if (expression.getTokenType() != LITERAL_EXPRESSION || expression.getTextLength() < 2) return null;
+    String literal = text.subSequence(expression.getStartOffset(), expression.getEndOffset()).toString();
+    if (literal.startsWith("\"\"\"") || !literal.endsWith("\"")) return null;
+    return StringUtil.unescapeStringCharacters(literal.substring(1, literal.length() - 1));
+  }
+
+  /**
+   * A step definition call: the offset of its pattern argument and, if the argument is a string literal, the pattern itself.
+   */
+  public static final class StepDefinitionEntry {
+    private final int myOffset;
+    @Nullable private final String myPattern;
+
+    public StepDefinitionEntry(int offset, @Nullable String pattern) {
+      myOffset = offset;
+      myPattern = pattern;
+    }
+
+    public int getOffset() {
+      return myOffset;
+    }
+
+    @Nullable
+    public String getPattern() {
+      return myPattern;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      StepDefinitionEntry entry = (StepDefinitionEntry)o;
+      return myOffset == entry.myOffset && Objects.equals(myPattern, entry.myPattern);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * myOffset + Objects.hashCode(myPattern);
+    }
+  }
+
+  private static final DataExternalizer<List<StepDefinitionEntry>> ENTRIES_EXTERNALIZER = new DataExternalizer<List<StepDefinitionEntry>>() {
+    @Override
+    public void save(@NotNull DataOutput out, List<StepDefinitionEntry> value) throws IOException {
+      DataInputOutputUtilRt.writeSeq(out, value, entry -> {
+        DataInputOutputUtilRt.writeINT(out, entry.myOffset);
+        out.writeBoolean(entry.myPattern != null);
+        if (entry.myPattern != null) {
+          IOUtil.writeUTF(out, entry.myPattern);
+        }
+      });
+    }
+
+    @Override
+    public List<StepDefinitionEntry> read(@NotNull DataInput in) throws IOException {
+      return DataInputOutputUtilRt.readSeq(in, () -> {
+        int offset = DataInputOutputUtilRt.readINT(in);
+        String pattern = in.readBoolean() ? IOUtil.readUTF(in) : null;
+        return new StepDefinitionEntry(offset, pattern);
+      });
+    }
+  };
 }
@@ -25,6 +25,9 @@ public abstract class AbstractJavaStepDefinition extends AbstractStepDefinition
     super(element);
   }
 
+  protected AbstractJavaStepDefinition() {
+  }
+
   @Nullable
   @Override
   public String getCucumberRegex() {
@@ -36,9 +39,16 @@ public abstract class AbstractJavaStepDefinition extends AbstractStepDefinition
     if (element == null) {
       return null;
     }
-    final Module module = ModuleUtilCore.findModuleForPsiElement(element);
+    return getCucumberRegex(definitionText, ModuleUtilCore.findModuleForPsiElement(element));
+  }
+
+  /**
+   * Converts the definition text to a regexp, if it's a Cucumber Expression supported by the Cucumber version of the module.
+   */
+  @NotNull
+  protected static String getCucumberRegex(@NotNull String definitionText, @Nullable Module module) {
     if (module != null) {
-      if (!CucumberJavaVersionUtil.isCucumber3OrMore(element)) {
+      if (!CucumberJavaVersionUtil.isCucumber3OrMore(module)) {
         return definitionText;
       }
     }
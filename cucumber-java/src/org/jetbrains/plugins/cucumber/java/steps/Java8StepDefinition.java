@@ -1,12 +1,62 @@
 package org.jetbrains.plugins.cucumber.java.steps;
 
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class Java8StepDefinition extends AbstractJavaStepDefinition {
+  private final Project myProject;
+  private final VirtualFile myFile;
+  private final int myOffset;
+  private final String myPattern;
+
   public Java8StepDefinition(@NotNull PsiElement element) {
     super(element);
+    myProject = null;
+    myFile = null;
+    myOffset = -1;
+    myPattern = null;
+  }
+
+  /**
+   * Creates a definition from the index data, its method call is looked up only when the element is requested.
+   *
+   * @param offset  offset of the pattern argument in the file
+   * @param pattern value of the pattern argument
+   */
+  public Java8StepDefinition(@NotNull Project project, @NotNull VirtualFile file, int offset, @NotNull String pattern) {
+    myProject = project;
+    myFile = file;
+    myOffset = offset;
+    myPattern = pattern;
+  }
+
+  @Nullable
+  @Override
+  public String getCucumberRegex() {
+    if (myPattern == null) {
+      return super.getCucumberRegex();
+    }
+    return getCucumberRegex(myPattern, ModuleUtilCore.findModuleForFile(myFile, myProject));
+  }
+
+  @Override
+  public String getExpression() {
+    return myPattern != null ? myPattern : super.getExpression();
+  }
+
+  @Nullable
+  @Override
+  protected PsiElement findElement() {
+    if (myFile == null || !myFile.isValid()) {
+      return null;
+    }
+    PsiFile psiFile = PsiManager.getInstance(myProject).findFile(myFile);
+    return psiFile != null ? PsiTreeUtil.getParentOfType(psiFile.findElementAt(myOffset + 1), PsiMethodCallExpression.class) : null;
   }
 
   @Nullable
@@ -30,4 +80,19 @@ public class Java8StepDefinition extends AbstractJavaStepDefinition {
     }
     return null;
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (myFile == null) return super.equals(o);
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    Java8StepDefinition that = (Java8StepDefinition)o;
+    return myFile.equals(that.myFile) && myOffset == that.myOffset;
+  }
+
+  @Override
+  public int hashCode() {
+    return myFile == null ? super.hashCode() : 31 * myFile.hashCode() + myOffset;
+  }
 }
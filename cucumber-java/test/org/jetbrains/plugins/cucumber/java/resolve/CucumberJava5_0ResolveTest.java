@@ -26,6 +26,23 @@ public class CucumberJava5_0ResolveTest extends BaseCucumberJavaResolveTest {
     checkReference("second <caret>regex", "my_double_definition");
   }
 
+  public void testResolveAmongManyJava8GlueFiles() {
+    for (int i = 0; i < 50; i++) {
+      myFixture.addFileToProject("glue/Steps" + i + ".java", "package glue;\n" +
+                                                              "import io.cucumber.java8.En;\n" +
+                                                              "public class Steps" + i + " implements En {\n" +
+                                                              "  public Steps" + i + "() {\n" +
+                                                              "    Given(\"java8 step " + i + " with \\\"quotes\\\"\", () -> {});\n" +
+                                                              "  }\n" +
+                                                              "}\n");
+    }
+    myFixture.configureByText("test.feature", "Feature: many\n" +
+                                              "  Scenario: one\n" +
+                                              "    Given java8 step 34 with \"quotes\"\n");
+
+    checkReference("java8 step<caret> 34", "Given");
+  }
+
   @Override
   protected LightProjectDescriptor getProjectDescriptor() {
     return CucumberJavaTestUtil.createCucumber5ProjectDescriptor();
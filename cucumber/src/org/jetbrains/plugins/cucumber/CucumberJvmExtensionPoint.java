@@ -1,6 +1,9 @@
 package org.jetbrains.plugins.cucumber;
 
+import com.intellij.lang.Language;
 import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.fileTypes.LanguageFileType;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
@@ -13,6 +16,7 @@ import org.jetbrains.plugins.cucumber.psi.impl.GherkinStepImpl;
 import org.jetbrains.plugins.cucumber.steps.AbstractStepDefinition;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public interface CucumberJvmExtensionPoint {
@@ -49,6 +53,8 @@ public interface CucumberJvmExtensionPoint {
 
   /**
    * Provides all possible step definitions available from current feature file.
+   * Definitions may only depend on the module and the resolve scope of the feature file: the result is shared by all feature files
+   * having the same resolve scope.
    * @param featureFile
    * @param module
    * @return
@@ -69,6 +75,18 @@ public interface CucumberJvmExtensionPoint {
 
   Collection<? extends PsiFile> getStepDefinitionContainers(@NotNull GherkinFile file);
   
+  /**
+   * Languages of the code step definitions are loaded from: loaded definitions are dropped when code in these languages changes.
+   * By default, the language of {@link #getStepFileType()}.
+   */
+  @NotNull
+  default Collection<Language> getStepDefinitionLanguages() {
+    FileType fileType = getStepFileType().getFileType();
+    return fileType instanceof LanguageFileType
+           ? Collections.singletonList(((LanguageFileType)fileType).getLanguage())
+           : Collections.emptyList();
+  }
+
   default boolean isGherkin6Supported(@NotNull Module module) {
     return false;
   }
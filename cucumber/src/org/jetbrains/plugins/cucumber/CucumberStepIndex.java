@@ -19,7 +19,12 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.util.*;
 
-public abstract class CucumberStepIndex extends FileBasedIndexExtension<Boolean, List<Integer>> {
+/**
+ * Indexes step definition calls found in files importing one of {@link #getPackagesToScan()} packages.
+ *
+ * @param <V> information stored per step definition, e.g. its offset
+ */
+public abstract class CucumberStepIndex<V> extends FileBasedIndexExtension<Boolean, List<V>> {
   private static final List<String> STEP_KEYWORDS = Arrays.asList("Әмма", "Нәтиҗәдә", "Вә", "Әйтик", "Һәм", "Ләкин", "Әгәр",  "Und",
                                                                   "Angenommen", "Gegeben seien",  "Dann", "Aber", "Wenn", "Gegeben sei",
                                                                   "यदि", "तदा", "अगर", "और", "कदा", "परन्तु", "चूंकि", "जब", "किन्तु", "तथा", "पर", 
@@ -83,7 +88,7 @@ public abstract class CucumberStepIndex extends FileBasedIndexExtension<Boolean,
   
   @NotNull
   @Override
-  public DataIndexer<Boolean, List<Integer>, FileContent> getIndexer() {
+  public DataIndexer<Boolean, List<V>, FileContent> getIndexer() {
     return inputData -> {
       CharSequence text = inputData.getContentAsText();
       if (!hasCucumberImport(text)) {
@@ -91,8 +96,8 @@ public abstract class CucumberStepIndex extends FileBasedIndexExtension<Boolean,
       }
 
       LighterAST lighterAst = ((PsiDependentFileContent)inputData).getLighterAST();
-      List<Integer> result = getStepDefinitionOffsets(lighterAst, text);
-      Map<Boolean, List<Integer>> resultMap = new HashMap<>();
+      List<V> result = getStepDefinitions(lighterAst, text);
+      Map<Boolean, List<V>> resultMap = new HashMap<>();
       resultMap.put(true, result);
       return resultMap;
     };
@@ -104,12 +109,6 @@ public abstract class CucumberStepIndex extends FileBasedIndexExtension<Boolean,
     return BooleanDataDescriptor.INSTANCE;
   }
 
-  @NotNull
-  @Override
-  public DataExternalizer<List<Integer>> getValueExternalizer() {
-    return DATA_EXTERNALIZER;
-  }
-
   @Override
   public boolean dependsOnFileContent() {
     return true;
@@ -145,9 +144,9 @@ public abstract class CucumberStepIndex extends FileBasedIndexExtension<Boolean,
     return element.getTextLength() > 0;
   }
 
-  protected abstract List<Integer> getStepDefinitionOffsets(@NotNull LighterAST lighterAst, @NotNull CharSequence text);
+  protected abstract List<V> getStepDefinitions(@NotNull LighterAST lighterAst, @NotNull CharSequence text);
 
-  private static final DataExternalizer<List<Integer>> DATA_EXTERNALIZER = new DataExternalizer<List<Integer>>() {
+  protected static final DataExternalizer<List<Integer>> OFFSETS_EXTERNALIZER = new DataExternalizer<List<Integer>>() {
     @Override
     public void save(@NotNull DataOutput out, List<Integer> value) throws IOException {
       DataInputOutputUtilRt.writeSeq(out, value, descriptor -> {
@@ -4,6 +4,7 @@ package org.jetbrains.plugins.cucumber;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
@@ -14,12 +15,14 @@ import com.intellij.psi.PsiReference;
 import com.intellij.psi.search.*;
 import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.util.Processor;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.cucumber.psi.GherkinStep;
 import org.jetbrains.plugins.cucumber.steps.reference.CucumberStepReference;
 import org.jetbrains.plugins.cucumber.steps.search.CucumberStepSearchUtil;
+import org.jetbrains.plugins.cucumber.steps.search.GherkinStepIndex;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -61,6 +64,11 @@ public class CucumberUtil {
   private static final Pattern ESCAPE_PATTERN = Pattern.compile("([\\\\^\\[$.|?*+\\]])");
   private static final Pattern OPTIONAL_PATTERN = Pattern.compile("(\\\\\\\\)?\\(([^)]+)\\)");
 
+  /**
+   * Step definitions are recreated on every load, so the expressions they are created from are compiled once and shared.
+   */
+  private static final Map<String, CompiledCucumberExpression> ourCompiledExpressions = ContainerUtil.createConcurrentSoftValueMap();
+
   public static final Map<String, String> STANDARD_PARAMETER_TYPES;
 
   static {
@@ -91,7 +99,20 @@ public class CucumberUtil {
                                                        @NotNull final String regexp,
                                                        @NotNull final Processor<? super PsiReference> consumer,
                                                        @NotNull final SearchScope effectiveSearchScope) {
-    return findPossibleGherkinElementUsages(stepDefinitionElement, regexp,
+    return findGherkinReferencesToElement(stepDefinitionElement, regexp, null, consumer, effectiveSearchScope);
+  }
+
+  /**
+   * Same as {@link #findGherkinReferencesToElement(PsiElement, String, Processor, SearchScope)}, but only looks into files having
+   * a step accepted by {@code stepCondition}. The condition gets step texts from {@link GherkinStepIndex}, so it's checked without
+   * loading the files.
+   */
+  public static boolean findGherkinReferencesToElement(@NotNull final PsiElement stepDefinitionElement,
+                                                       @NotNull final String regexp,
+                                                       @Nullable final Condition<? super String> stepCondition,
+                                                       @NotNull final Processor<? super PsiReference> consumer,
+                                                       @NotNull final SearchScope effectiveSearchScope) {
+    return findPossibleGherkinElementUsages(stepDefinitionElement, regexp, stepCondition,
                                             new MyReferenceCheckingProcessor(stepDefinitionElement, consumer),
                                             effectiveSearchScope);
   }
@@ -112,16 +133,25 @@ public class CucumberUtil {
                                                          @NotNull final String regexp,
                                                          @NotNull final TextOccurenceProcessor processor,
                                                          @NotNull final SearchScope effectiveSearchScope) {
+    return findPossibleGherkinElementUsages(stepDefinitionElement, regexp, null, processor, effectiveSearchScope);
+  }
+
+  private static boolean findPossibleGherkinElementUsages(@NotNull final PsiElement stepDefinitionElement,
+                                                          @NotNull final String regexp,
+                                                          @Nullable final Condition<? super String> stepCondition,
+                                                          @NotNull final TextOccurenceProcessor processor,
+                                                          @NotNull final SearchScope effectiveSearchScope) {
     final String word = getTheBiggestWordToSearchByIndex(regexp);
     if (StringUtil.isEmptyOrSpaces(word)) {
       return true;
     }
 
-    final SearchScope searchScope = ReadAction.compute(() -> CucumberStepSearchUtil.restrictScopeToGherkinFiles(effectiveSearchScope));
-
+    final Project project = stepDefinitionElement.getProject();
+    final SearchScope searchScope = ReadAction.compute(() -> CucumberStepSearchUtil.restrictScopeToStepsMatching(
+      project, regexp, stepCondition, CucumberStepSearchUtil.restrictScopeToGherkinFiles(effectiveSearchScope)));
 
     final short context = (short)(UsageSearchContext.IN_STRINGS | UsageSearchContext.IN_CODE);
-    final PsiSearchHelper instance = PsiSearchHelper.getInstance(stepDefinitionElement.getProject());
+    final PsiSearchHelper instance = PsiSearchHelper.getInstance(project);
     return instance.processElementsWithWord(processor, searchScope, word, context, true);
   }
 
@@ -134,7 +164,9 @@ public class CucumberUtil {
       return;
     }
 
-    final SearchScope searchScope = CucumberStepSearchUtil.restrictScopeToGherkinFiles(params.getEffectiveSearchScope());
+    final Project project = stepDefinitionElement.getProject();
+    final SearchScope searchScope = ReadAction.compute(() -> CucumberStepSearchUtil.restrictScopeToStepsMatching(
+      project, regexp, null, CucumberStepSearchUtil.restrictScopeToGherkinFiles(params.getEffectiveSearchScope())));
     final short searchContext = (short)(UsageSearchContext.IN_STRINGS | UsageSearchContext.IN_CODE);
 
     params.getOptimizer().searchWord(word, searchScope, searchContext, true, stepDefinitionElement, processor);
@@ -175,6 +207,70 @@ public class CucumberUtil {
     return result;
   }
 
+  /**
+   * Returns a word (lower-cased) that any step matching the given regexp contains as a whole word, i.e. separated by whitespace
+   * or the start or end of the step, or {@code null} if there's no such word.
+   * Only words outside of groups and character classes are considered, so a regexp with top-level alternatives has none.
+   *
+   * @see #getTheBiggestWordToSearchByIndex(String)
+   */
+  @Nullable
+  public static String getRequiredWord(@NotNull String regexp) {
+    // mask everything which may not match literally, then reuse the word search: it only takes words bounded by whitespace
+    StringBuilder skeleton = new StringBuilder(regexp.length() + 2);
+    int start = 0;
+    int end = regexp.length();
+    if (regexp.startsWith(PREFIX_CHAR)) {
+      start += PREFIX_CHAR.length();
+    }
+    else {
+      skeleton.append('#');
+    }
+    boolean anchoredEnd = end > start && regexp.endsWith(SUFFIX_CHAR) && (end < 2 || regexp.charAt(end - 2) != '\\');
+    if (anchoredEnd) {
+      end -= SUFFIX_CHAR.length();
+    }
+
+    int depth = 0;
+    boolean inClass = false;
+    for (int i = start; i < end; i++) {
+      char c = regexp.charAt(i);
+      if (c == '\\') {
+        i++;
+        skeleton.append('#');
+      }
+      else if (inClass) {
+        inClass = c != ']';
+        skeleton.append('#');
+      }
+      else if (c == '[') {
+        inClass = true;
+        skeleton.append('#');
+      }
+      else if (c == '(' || c == ')' || depth > 0) {
+        if (c == '(') depth++;
+        if (c == ')') depth--;
+        skeleton.append('#');
+      }
+      else if (c == '|') {
+        return null;
+      }
+      else if (Character.isWhitespace(c) && i + 1 < end && "?*{".indexOf(regexp.charAt(i + 1)) >= 0) {
+        // an optional separator does not bound a word
+        skeleton.append('#');
+      }
+      else {
+        skeleton.append(c);
+      }
+    }
+    if (!anchoredEnd) {
+      skeleton.append('#');
+    }
+
+    String word = getTheBiggestWordToSearchByIndex(skeleton.toString());
+    return word.isEmpty() ? null : StringUtil.toLowerCase(word);
+  }
+
   public static String prepareStepRegexp(String stepName) {
     String result = stepName;
     for (String[] rule : ARR) {
@@ -243,33 +339,55 @@ public class CucumberUtil {
   @NotNull
   public static String buildRegexpFromCucumberExpression(@NotNull String cucumberExpression,
                                                          @NotNull ParameterTypeManager parameterTypeManager) {
-    cucumberExpression = escapeCucumberExpression(cucumberExpression);
-    cucumberExpression = replaceNotNecessaryTextTemplateByRegexp(cucumberExpression);
-    cucumberExpression = processExpressionOrOperator(cucumberExpression);
-    String escapedCucumberExpression = cucumberExpression;
-
-    List<Pair<TextRange, String>> parameterTypeValues = new ArrayList<>();
-    processParameterTypesInCucumberExpression(escapedCucumberExpression, range -> {
-      String parameterTypeName = escapedCucumberExpression.substring(range.getStartOffset() + 1, range.getEndOffset() - 1);
-      String parameterTypeValue = parameterTypeManager.getParameterTypeValue(parameterTypeName);
-      parameterTypeValues.add(Pair.create(range, parameterTypeValue));
-      return true;
-    });
+    CompiledCucumberExpression compiled = ourCompiledExpressions.get(cucumberExpression);
+    if (compiled == null) {
+      compiled = new CompiledCucumberExpression(cucumberExpression);
+      ourCompiledExpressions.put(cucumberExpression, compiled);
+    }
+    return compiled.toRegexp(parameterTypeManager);
+  }
 
-    StringBuilder result = new StringBuilder(escapedCucumberExpression);
-    Collections.reverse(parameterTypeValues);
-    for (Pair<TextRange, String> rangeAndValue : parameterTypeValues) {
-      String value = rangeAndValue.getSecond();
-      if (value == null) {
-        return escapedCucumberExpression;
+  /**
+   * Cucumber Expression with escaping, optional text and alternatives already converted to a regexp,
+   * but with Parameter Types not yet substituted - so it doesn't depend on Parameter Type values and can be shared.
+   */
+  private static final class CompiledCucumberExpression {
+    private final String myEscapedExpression;
+    private final List<TextRange> myParameterTypeRanges = new ArrayList<>();
+    private final List<String> myParameterTypeNames = new ArrayList<>();
+
+    private CompiledCucumberExpression(@NotNull String cucumberExpression) {
+      cucumberExpression = escapeCucumberExpression(cucumberExpression);
+      cucumberExpression = replaceNotNecessaryTextTemplateByRegexp(cucumberExpression);
+      cucumberExpression = processExpressionOrOperator(cucumberExpression);
+      String escapedCucumberExpression = cucumberExpression;
+      myEscapedExpression = escapedCucumberExpression;
+
+      processParameterTypesInCucumberExpression(escapedCucumberExpression, range -> {
+        myParameterTypeRanges.add(range);
+        myParameterTypeNames.add(escapedCucumberExpression.substring(range.getStartOffset() + 1, range.getEndOffset() - 1));
+        return true;
+      });
+    }
+
+    @NotNull
+    private String toRegexp(@NotNull ParameterTypeManager parameterTypeManager) {
+      StringBuilder result = new StringBuilder(myEscapedExpression.length() + 16);
+      result.append('^');
+      int offset = 0;
+      for (int i = 0; i < myParameterTypeRanges.size(); i++) {
+        String value = parameterTypeManager.getParameterTypeValue(myParameterTypeNames.get(i));
+        if (value == null) {
+          return myEscapedExpression;
+        }
+        TextRange range = myParameterTypeRanges.get(i);
+        result.append(myEscapedExpression, offset, range.getStartOffset()).append('(').append(value).append(')');
+        offset = range.getEndOffset();
       }
-      int startOffset = rangeAndValue.first.getStartOffset();
-      int endOffset = rangeAndValue.first.getEndOffset();
-      result.replace(startOffset, endOffset, "(" + value + ")");
+      result.append(myEscapedExpression, offset, myEscapedExpression.length());
+      result.append('$');
+      return result.toString();
     }
-    result.insert(0, '^');
-    result.append('$');
-    return result.toString();
   }
 
   /**
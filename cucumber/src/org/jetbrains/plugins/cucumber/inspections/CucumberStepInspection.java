@@ -1,5 +1,6 @@
 package org.jetbrains.plugins.cucumber.inspections;
 
+import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
@@ -11,6 +12,7 @@ import org.jetbrains.plugins.cucumber.psi.GherkinStep;
 import org.jetbrains.plugins.cucumber.psi.GherkinStepsHolder;
 import org.jetbrains.plugins.cucumber.steps.AbstractStepDefinition;
 import org.jetbrains.plugins.cucumber.steps.CucumberStepHelper;
+import org.jetbrains.plugins.cucumber.steps.CucumberStepResolver;
 import org.jetbrains.plugins.cucumber.steps.reference.CucumberStepReference;
 
 /**
@@ -28,6 +30,14 @@ public class CucumberStepInspection extends GherkinInspection {
     return "CucumberUndefinedStep";
   }
 
+  @Override
+  public void inspectionStarted(@NotNull LocalInspectionToolSession session, boolean isOnTheFly) {
+    if (!isOnTheFly) {
+      // batch inspection goes over all feature files: match the steps of the module at once, the visitors then find them resolved
+      CucumberStepResolver.resolveModuleSteps(session.getFile());
+    }
+  }
+
   @NotNull
   @Override
   public PsiElementVisitor buildVisitor(@NotNull final ProblemsHolder holder, final boolean isOnTheFly) {
@@ -8,6 +8,7 @@ import com.intellij.psi.SmartPointerManager;
 import com.intellij.psi.SmartPsiElementPointer;
 import com.intellij.psi.search.SearchScope;
 import com.intellij.util.CommonProcessors.CollectProcessor;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -18,6 +19,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -31,28 +33,42 @@ public abstract class AbstractStepDefinition {
 
   private static final String CUCUMBER_END_SUFFIX = "\\z";
   private static final int TIME_TO_CHECK_STEP_BY_REGEXP_MILLIS = 300;
+  private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
 
-  private final SmartPsiElementPointer<PsiElement> myElementPointer;
+  /**
+   * Definitions are recreated on every load, so patterns are compiled once per text and flags and shared between them.
+   */
+  private static final Map<String, Pattern> ourPatterns = ContainerUtil.createConcurrentSoftValueMap();
 
-  private volatile String myRegexText;
+  private volatile SmartPsiElementPointer<PsiElement> myElementPointer;
 
-  private volatile Pattern myRegex;
+  private volatile CompiledRegex myCompiledRegex;
 
   public AbstractStepDefinition(@NotNull final PsiElement element) {
     myElementPointer = SmartPointerManager.getInstance(element.getProject()).createSmartPsiElementPointer(element);
   }
 
+  /**
+   * Creates a definition which finds its element only when it's requested, see {@link #findElement()}.
+   * Such definitions must be matched without the element and have to define {@link #equals(Object)} and {@link #hashCode()}.
+   */
+  protected AbstractStepDefinition() {
+  }
+
   public abstract List<String> getVariableNames();
 
   public boolean matches(@NotNull String stepName) {
-    final Pattern pattern = getPattern();
-    if (pattern == null) {
+    final CompiledRegex compiledRegex = getCompiledRegex();
+    if (compiledRegex == null) {
       return false;
     }
+    if (compiledRegex.myLiteral != null) {
+      return compiledRegex.matchesLiteral(stepName);
+    }
 
     CharSequence stepChars = StringUtil.newBombedCharSequence(stepName, TIME_TO_CHECK_STEP_BY_REGEXP_MILLIS);
     try {
-      return pattern.matcher(stepChars).find();
+      return compiledRegex.myPattern.matcher(stepChars).find();
     }
     catch (ProcessCanceledException ignore) {
       return false;
@@ -61,7 +77,24 @@ public abstract class AbstractStepDefinition {
 
   @Nullable
   public PsiElement getElement() {
-    return myElementPointer.getElement();
+    SmartPsiElementPointer<PsiElement> pointer = myElementPointer;
+    if (pointer == null) {
+      PsiElement element = findElement();
+      if (element == null) {
+        return null;
+      }
+      pointer = SmartPointerManager.getInstance(element.getProject()).createSmartPsiElementPointer(element);
+      myElementPointer = pointer;
+    }
+    return pointer.getElement();
+  }
+
+  /**
+   * Finds the element of a definition created without it.
+   */
+  @Nullable
+  protected PsiElement findElement() {
+    return null;
   }
 
   /**
@@ -69,10 +102,17 @@ public abstract class AbstractStepDefinition {
    */
   @Nullable
   public Pattern getPattern() {
+    final CompiledRegex compiledRegex = getCompiledRegex();
+    return compiledRegex != null ? compiledRegex.myPattern : null;
+  }
+
+  @Nullable
+  private CompiledRegex getCompiledRegex() {
     try {
       final String cucumberRegex = getCucumberRegex();
       if (cucumberRegex == null) return null;
-      if (myRegexText == null || !cucumberRegex.equals(myRegexText)) {
+      CompiledRegex compiledRegex = myCompiledRegex;
+      if (compiledRegex == null || !cucumberRegex.equals(compiledRegex.myRegexText)) {
         final StringBuilder patternText = new StringBuilder(ESCAPE_PATTERN.matcher(cucumberRegex).replaceAll("(.*)"));
         if (patternText.toString().startsWith(CUCUMBER_START_PREFIX)) {
           patternText.replace(0, CUCUMBER_START_PREFIX.length(), "^");
@@ -82,16 +122,80 @@ public abstract class AbstractStepDefinition {
           patternText.replace(patternText.length() - CUCUMBER_END_SUFFIX.length(), patternText.length(), "$");
         }
 
-        myRegex = Pattern.compile(patternText.toString(), isCaseSensitive() ? 0 : Pattern.CASE_INSENSITIVE);
-        myRegexText = cucumberRegex;
+        final int flags = isCaseSensitive() ? 0 : Pattern.CASE_INSENSITIVE;
+        compiledRegex = new CompiledRegex(cucumberRegex, getPattern(patternText.toString(), flags), flags == 0 ? patternText.toString() : null);
+        myCompiledRegex = compiledRegex;
       }
-      return myRegex;
+      return compiledRegex;
     }
     catch (final PatternSyntaxException ignored) {
       return null; // Bad regex?
     }
   }
 
+  @NotNull
+  private static Pattern getPattern(@NotNull String patternText, int flags) {
+    final String key = flags + ":" + patternText;
+    Pattern pattern = ourPatterns.get(key);
+    if (pattern == null) {
+      pattern = Pattern.compile(patternText, flags);
+      ourPatterns.put(key, pattern);
+    }
+    return pattern;
+  }
+
+  /**
+   * Regex text of a definition together with its compiled pattern, published at once so that matching never mixes two versions.
+   */
+  private static final class CompiledRegex {
+    private final String myRegexText;
+    private final Pattern myPattern;
+    /**
+     * Text of a pattern without regexp syntax apart from {@code ^} and {@code $} anchors - these are matched without regexps.
+     */
+    private final String myLiteral;
+    private final boolean myStartAnchored;
+    private final boolean myEndAnchored;
+
+    private CompiledRegex(@NotNull String regexText, @NotNull Pattern pattern, @Nullable String caseSensitivePatternText) {
+      myRegexText = regexText;
+      myPattern = pattern;
+
+      String literal = caseSensitivePatternText;
+      boolean startAnchored = false;
+      boolean endAnchored = false;
+      if (literal != null && literal.startsWith("^")) {
+        literal = literal.substring(1);
+        startAnchored = true;
+      }
+      if (literal != null && literal.endsWith("$")) {
+        literal = literal.substring(0, literal.length() - 1);
+        endAnchored = true;
+      }
+      if (literal != null) {
+        for (int i = 0; i < literal.length(); i++) {
+          if (REGEX_META_CHARS.indexOf(literal.charAt(i)) >= 0) {
+            literal = null;
+            break;
+          }
+        }
+      }
+      myLiteral = literal;
+      myStartAnchored = startAnchored;
+      myEndAnchored = endAnchored;
+    }
+
+    /**
+     * Same result as {@code find()} of the pattern for single-line step names.
+     */
+    private boolean matchesLiteral(@NotNull String stepName) {
+      if (myStartAnchored && myEndAnchored) return stepName.equals(myLiteral);
+      if (myStartAnchored) return stepName.startsWith(myLiteral);
+      if (myEndAnchored) return stepName.endsWith(myLiteral);
+      return stepName.contains(myLiteral);
+    }
+  }
+
   @Nullable
   public String getCucumberRegex() {
     return getExpression();
@@ -164,7 +268,7 @@ public abstract class AbstractStepDefinition {
     }
 
     final CollectProcessor<PsiReference> consumer = new CollectProcessor<>();
-    CucumberUtil.findGherkinReferencesToElement(element, regex, consumer, searchScope);
+    CucumberUtil.findGherkinReferencesToElement(element, regex, this::matches, consumer, searchScope);
 
     // We use hash to get rid of duplicates
     final Collection<GherkinStep> results = new HashSet<>(consumer.getResults().size());
@@ -1,13 +1,19 @@
 // Copyright 2000-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.plugins.cucumber.steps;
 
+import com.intellij.lang.Language;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.cucumber.BDDFrameworkType;
@@ -18,6 +24,7 @@ import org.jetbrains.plugins.cucumber.psi.GherkinFile;
 import org.jetbrains.plugins.cucumber.psi.GherkinStep;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -75,10 +82,10 @@ public class CucumberStepHelper {
 
     Map<Class<? extends AbstractStepDefinition>, AbstractStepDefinition> definitionsByClass =
       new HashMap<>();
-    List<AbstractStepDefinition> allSteps = loadStepsFor(featureFile, module);
+    List<AbstractStepDefinition> matchingDefinitions = getStepDefinitionRegistry(featureFile, module).getMatchingDefinitions(substitutedName);
 
-    for (AbstractStepDefinition stepDefinition : allSteps) {
-      if (stepDefinition != null && stepDefinition.matches(substitutedName) && stepDefinition.supportsStep(step)) {
+    for (AbstractStepDefinition stepDefinition : matchingDefinitions) {
+      if (stepDefinition.supportsStep(step)) {
         final Pattern currentLongestPattern = getPatternByDefinition(definitionsByClass.get(stepDefinition.getClass()));
         final Pattern newPattern = getPatternByDefinition(stepDefinition);
         final int newPatternLength = ((newPattern != null) ? newPattern.pattern().length() : -1);
@@ -104,25 +111,65 @@ public class CucumberStepHelper {
     return definition.getPattern();
   }
 
-  // ToDo: use binary search here
   public static List<AbstractStepDefinition> findStepDefinitionsByPattern(@NotNull final String pattern, @NotNull final Module module) {
-    final List<AbstractStepDefinition> allSteps = loadStepsFor(null, module);
-    final List<AbstractStepDefinition> result = new ArrayList<>();
-    for (AbstractStepDefinition stepDefinition : allSteps) {
-      final String elementText = stepDefinition.getCucumberRegex();
-      if (elementText != null && elementText.equals(pattern)) {
-        result.add(stepDefinition);
-      }
-    }
-    return result;
+    return getStepDefinitionRegistry(null, module).findDefinitionsByRegex(pattern);
   }
 
   public static List<AbstractStepDefinition> getAllStepDefinitions(@NotNull final PsiFile featureFile) {
     final Module module = ModuleUtilCore.findModuleForPsiElement(featureFile);
     if (module == null) return Collections.emptyList();
-    return loadStepsFor(featureFile, module);
+    return getStepDefinitionRegistry(featureFile, module).getDefinitions();
   }
 
+  /**
+   * Returns step definitions available from the feature file (or the whole module, if the file is not given).
+   * Definitions are loaded once per change of code in the step definition languages or of the project roots, and indexed for matching steps;
+   * editing feature files keeps them.
+   * Feature files of the module with the same resolve scope share the registry, so common steps are matched once for all of them.
+   */
+  @NotNull
+  public static StepDefinitionRegistry getStepDefinitionRegistry(@Nullable final PsiFile featureFile, @NotNull final Module module) {
+    if (featureFile != null) {
+      return CachedValuesManager.getCachedValue(featureFile, () -> CachedValueProvider.Result.create(
+        getSharedStepDefinitionRegistry(featureFile, module), getStepDefinitionDependencies(module.getProject())));
+    }
+    return CachedValuesManager.getManager(module.getProject()).getCachedValue(module, () -> CachedValueProvider.Result.create(
+      new StepDefinitionRegistry(loadStepsFor(null, module)), getStepDefinitionDependencies(module.getProject())));
+  }
+
+  @NotNull
+  private static StepDefinitionRegistry getSharedStepDefinitionRegistry(@NotNull final PsiFile featureFile, @NotNull final Module module) {
+    Map<GlobalSearchScope, StepDefinitionRegistry> registries = CachedValuesManager.getManager(module.getProject()).getCachedValue(
+      module, () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), getStepDefinitionDependencies(module.getProject())));
+    GlobalSearchScope resolveScope = featureFile.getResolveScope();
+    StepDefinitionRegistry registry = registries.get(resolveScope);
+    if (registry == null) {
+      registry = new StepDefinitionRegistry(loadStepsFor(featureFile, module));
+      StepDefinitionRegistry existing = registries.putIfAbsent(resolveScope, registry);
+      if (existing != null) {
+        registry = existing;
+      }
+    }
+    return registry;
+  }
+
+  /**
+   * Whole-language trackers rather than out-of-code-block ones: steps may be defined inside method bodies, e.g. Java 8 lambdas.
+   */
+  @NotNull
+  private static Object[] getStepDefinitionDependencies(@NotNull Project project) {
+    PsiModificationTracker tracker = PsiModificationTracker.SERVICE.getInstance(project);
+    Set<Language> languages = new LinkedHashSet<>();
+    for (CucumberJvmExtensionPoint extension : getCucumberExtensions()) {
+      languages.addAll(extension.getStepDefinitionLanguages());
+    }
+    List<Object> dependencies = new ArrayList<>(languages.size() + 1);
+    for (Language language : languages) {
+      dependencies.add(tracker.forLanguage(language));
+    }
+    dependencies.add(ProjectRootManager.getInstance(project));
+    return dependencies.toArray();
+  }
 
   private static List<AbstractStepDefinition> loadStepsFor(@Nullable final PsiFile featureFile, @NotNull final Module module) {
     ArrayList<AbstractStepDefinition> result = new ArrayList<>();
@@ -0,0 +1,101 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.plugins.cucumber.steps;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.cucumber.CucumberJvmExtensionPoint;
+import org.jetbrains.plugins.cucumber.psi.GherkinFile;
+import org.jetbrains.plugins.cucumber.psi.GherkinFileType;
+import org.jetbrains.plugins.cucumber.psi.GherkinStep;
+
+import java.util.*;
+
+/**
+ * Resolves the steps of many feature files at once.
+ * The registries of the files are taken once, so all steps are matched against the same definitions; each distinct step text is
+ * matched once per {@link StepDefinitionRegistry}, and the texts are matched in parallel.
+ * The results are kept by the registries, so references and inspections resolving these steps afterwards get them for free.
+ */
+public final class CucumberStepResolver {
+  private static final Logger LOG = Logger.getInstance(CucumberStepResolver.class);
+
+  private CucumberStepResolver() {
+  }
+
+  /**
+   * Resolves the steps of all feature files of the module of the given one, unless they were resolved against its definitions already.
+   * Used by the batch inspection pass, which goes over all feature files anyway. Must be called in a read action.
+   */
+  public static void resolveModuleSteps(@NotNull PsiFile featureFile) {
+    Module module = ModuleUtilCore.findModuleForPsiElement(featureFile);
+    if (module == null || !CucumberStepHelper.getStepDefinitionRegistry(featureFile, module).markBatchResolved()) {
+      return;
+    }
+
+    PsiManager psiManager = PsiManager.getInstance(module.getProject());
+    Collection<VirtualFile> files = FileTypeIndex.getFiles(GherkinFileType.INSTANCE, GlobalSearchScope.moduleScope(module));
+    resolveSteps(ContainerUtil.mapNotNull(files, psiManager::findFile));
+  }
+
+  /**
+   * Must be called in a read action.
+   *
+   * @return the number of distinct step texts matched against step definitions
+   */
+  public static int resolveSteps(@NotNull Collection<? extends PsiFile> featureFiles) {
+    List<CucumberJvmExtensionPoint> extensions = CucumberStepHelper.getCucumberExtensions();
+    if (extensions.isEmpty()) {
+      return 0;
+    }
+
+    long start = System.currentTimeMillis();
+    Map<StepDefinitionRegistry, Set<String>> stepNamesByRegistry = new IdentityHashMap<>();
+    for (PsiFile featureFile : featureFiles) {
+      if (!(featureFile instanceof GherkinFile)) continue;
+      Module module = ModuleUtilCore.findModuleForPsiElement(featureFile);
+      if (module == null) continue;
+
+      StepDefinitionRegistry registry = CucumberStepHelper.getStepDefinitionRegistry(featureFile, module);
+      Set<String> stepNames = stepNamesByRegistry.computeIfAbsent(registry, r -> new HashSet<>());
+      for (GherkinStep step : PsiTreeUtil.findChildrenOfType(featureFile, GherkinStep.class)) {
+        for (CucumberJvmExtensionPoint extension : extensions) {
+          String stepName = extension.getStepName(step);
+          if (stepName != null && !registry.isResolved(stepName)) {
+            stepNames.add(stepName);
+          }
+        }
+      }
+    }
+
+    List<Pair<StepDefinitionRegistry, String>> steps = new ArrayList<>();
+    for (Map.Entry<StepDefinitionRegistry, Set<String>> entry : stepNamesByRegistry.entrySet()) {
+      entry.getKey().markBatchResolved();
+      for (String stepName : entry.getValue()) {
+        steps.add(Pair.create(entry.getKey(), stepName));
+      }
+    }
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(steps, ProgressManager.getInstance().getProgressIndicator(), step -> {
+      step.first.resolve(step.second);
+      return true;
+    });
+
+    if (LOG.isDebugEnabled()) {
+      long time = System.currentTimeMillis() - start;
+      LOG.debug("Resolved " + steps.size() + " distinct steps of " + featureFiles.size() + " feature files in " + time + " ms (" +
+                steps.size() * 1000L / Math.max(time, 1) + " steps/s)");
+    }
+    return steps.size();
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.plugins.cucumber.steps;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.SLRUMap;
+import gnu.trove.TIntArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.cucumber.CucumberUtil;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Step definitions available to a feature file, indexed to match steps without trying every definition.
+ * <p>
+ * Definitions are bucketed by a word any matching step must contain (see {@link CucumberUtil#getRequiredWord(String)}),
+ * so only definitions keyed by one of the step words, and those without such a word, are checked with their regexps.
+ * Registries are thread-safe.
+ *
+ * @see CucumberStepHelper#getStepDefinitionRegistry
+ */
+public final class StepDefinitionRegistry {
+  private static final int MATCHING_DEFINITIONS_CACHE_SIZE = 1024;
+
+  private final List<AbstractStepDefinition> myDefinitions;
+  private final Map<String, TIntArrayList> myDefinitionsByWord = new HashMap<>();
+  private final TIntArrayList myDefinitionsWithoutWord = new TIntArrayList();
+  private final Map<String, List<AbstractStepDefinition>> myDefinitionsByRegex = new HashMap<>();
+  /**
+   * Recently matched step names, guarded by itself.
+   */
+  private final SLRUMap<String, List<AbstractStepDefinition>> myMatchingDefinitions =
+    new SLRUMap<>(MATCHING_DEFINITIONS_CACHE_SIZE, MATCHING_DEFINITIONS_CACHE_SIZE);
+  /**
+   * Step names matched by {@link CucumberStepResolver}; kept for the lifetime of the registry, i.e. until the definitions change.
+   */
+  private final Map<String, List<AbstractStepDefinition>> myResolvedSteps = new ConcurrentHashMap<>();
+  private final AtomicBoolean myBatchResolved = new AtomicBoolean();
+
+  public StepDefinitionRegistry(@NotNull List<AbstractStepDefinition> definitions) {
+    myDefinitions = Collections.unmodifiableList(definitions);
+    for (int i = 0; i < definitions.size(); i++) {
+      AbstractStepDefinition definition = definitions.get(i);
+      String regex = definition != null ? definition.getCucumberRegex() : null;
+      if (regex == null) continue;
+
+      myDefinitionsByRegex.computeIfAbsent(regex, r -> new ArrayList<>(1)).add(definition);
+      String word = CucumberUtil.getRequiredWord(regex);
+      if (word != null) {
+        myDefinitionsByWord.computeIfAbsent(word, w -> new TIntArrayList(1)).add(i);
+      }
+      else {
+        myDefinitionsWithoutWord.add(i);
+      }
+    }
+  }
+
+  @NotNull
+  public List<AbstractStepDefinition> getDefinitions() {
+    return myDefinitions;
+  }
+
+  @NotNull
+  public List<AbstractStepDefinition> findDefinitionsByRegex(@NotNull String regex) {
+    return ContainerUtil.notNullize(myDefinitionsByRegex.get(regex));
+  }
+
+  /**
+   * Returns definitions which may match any of the given step names, in their original order.
+   * The result is a superset of the matching definitions, use {@link AbstractStepDefinition#matches(String)} to check them.
+   */
+  @NotNull
+  public List<AbstractStepDefinition> getCandidates(@NotNull Collection<String> stepNames) {
+    BitSet candidates = new BitSet(myDefinitions.size());
+    addAll(candidates, myDefinitionsWithoutWord);
+    for (String stepName : stepNames) {
+      int start = 0;
+      for (int i = 0; i <= stepName.length(); i++) {
+        if (i == stepName.length() || Character.isWhitespace(stepName.charAt(i))) {
+          if (i > start) {
+            TIntArrayList definitions = myDefinitionsByWord.get(StringUtil.toLowerCase(stepName.substring(start, i)));
+            if (definitions != null) {
+              addAll(candidates, definitions);
+            }
+          }
+          start = i + 1;
+        }
+      }
+    }
+
+    List<AbstractStepDefinition> result = new ArrayList<>(candidates.cardinality());
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      result.add(myDefinitions.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Returns definitions matching the step name, in their original order.
+   * Results of recently matched step names are kept: a registry is shared by feature files, and the same step texts repeat across them.
+   * Step names matched by {@link CucumberStepResolver} are answered from its results.
+   */
+  @NotNull
+  public List<AbstractStepDefinition> getMatchingDefinitions(@NotNull String stepName) {
+    List<AbstractStepDefinition> result = myResolvedSteps.get(stepName);
+    if (result != null) {
+      return result;
+    }
+    synchronized (myMatchingDefinitions) {
+      result = myMatchingDefinitions.get(stepName);
+    }
+    if (result == null) {
+      // matched outside of the lock; concurrent requests for the same step name just match it twice
+      result = ContainerUtil.filter(getCandidates(Collections.singletonList(stepName)), definition -> definition.matches(stepName));
+      synchronized (myMatchingDefinitions) {
+        myMatchingDefinitions.put(stepName, result);
+      }
+    }
+    return result;
+  }
+
+  boolean isResolved(@NotNull String stepName) {
+    return myResolvedSteps.containsKey(stepName);
+  }
+
+  void resolve(@NotNull String stepName) {
+    if (!myResolvedSteps.containsKey(stepName)) {
+      myResolvedSteps.put(stepName, ContainerUtil.filter(getCandidates(Collections.singletonList(stepName)),
+                                                         definition -> definition.matches(stepName)));
+    }
+  }
+
+  /**
+   * @return true for the first call only: the feature files using this registry have been batch resolved
+   */
+  boolean markBatchResolved() {
+    return myBatchResolved.compareAndSet(false, true);
+  }
+
+  private static void addAll(BitSet set, TIntArrayList indices) {
+    for (int i = 0; i < indices.size(); i++) {
+      set.set(indices.getQuick(i));
+    }
+  }
+}
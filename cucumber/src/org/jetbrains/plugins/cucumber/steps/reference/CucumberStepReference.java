@@ -7,9 +7,6 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.resolve.ResolveCache;
-import com.intellij.psi.util.CachedValueProvider;
-import com.intellij.psi.util.CachedValuesManager;
-import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.IncorrectOperationException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -17,11 +14,9 @@ import org.jetbrains.plugins.cucumber.CucumberJvmExtensionPoint;
 import org.jetbrains.plugins.cucumber.psi.impl.GherkinStepImpl;
 import org.jetbrains.plugins.cucumber.steps.AbstractStepDefinition;
 import org.jetbrains.plugins.cucumber.steps.CucumberStepHelper;
+import org.jetbrains.plugins.cucumber.steps.StepDefinitionRegistry;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -107,24 +102,18 @@ public class CucumberStepReference implements PsiPolyVariantReference {
       return ResolveResult.EMPTY_ARRAY;
     }
 
-    PsiFile featureFile = myStep.getContainingFile();
-    List<AbstractStepDefinition> stepDefinitions = CachedValuesManager.getCachedValue(featureFile, () -> {
-      List<AbstractStepDefinition> allStepDefinition = new ArrayList<>();
-      for (CucumberJvmExtensionPoint e : frameworks) {
-        allStepDefinition.addAll(e.loadStepsFor(featureFile, module));
-      }
-      return CachedValueProvider.Result.create(allStepDefinition, PsiModificationTracker.MODIFICATION_COUNT);
-    });
-    
+    StepDefinitionRegistry registry = CucumberStepHelper.getStepDefinitionRegistry(myStep.getContainingFile(), module);
+    Set<AbstractStepDefinition> matchingDefinitions = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (String stepVariant : stepVariants) {
+      matchingDefinitions.addAll(registry.getMatchingDefinitions(stepVariant));
+    }
+
     List<PsiElement> resolvedElements = new ArrayList<>();
-    for (final AbstractStepDefinition stepDefinition : stepDefinitions) {
-      if (stepDefinition.supportsStep(myStep)) {
-        for (String stepVariant : stepVariants) {
-          PsiElement element = stepDefinition.getElement();
-          if (stepDefinition.matches(stepVariant) && element != null && !resolvedElements.contains(element)) {
-            resolvedElements.add(element);
-            break;
-          }
+    for (final AbstractStepDefinition stepDefinition : registry.getCandidates(stepVariants)) {
+      if (matchingDefinitions.contains(stepDefinition) && stepDefinition.supportsStep(myStep)) {
+        PsiElement element = stepDefinition.getElement();
+        if (element != null && !resolvedElements.contains(element)) {
+          resolvedElements.add(element);
         }
       }
     }
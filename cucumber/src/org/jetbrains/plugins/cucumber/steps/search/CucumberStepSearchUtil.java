@@ -1,10 +1,18 @@
 package org.jetbrains.plugins.cucumber.steps.search;
 
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Conditions;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.SearchScope;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.cucumber.CucumberUtil;
 import org.jetbrains.plugins.cucumber.psi.GherkinFileType;
 
+import java.util.Set;
+
 public class CucumberStepSearchUtil {
   @NotNull
   public static SearchScope restrictScopeToGherkinFiles(@NotNull final SearchScope originalScope) {
@@ -14,4 +22,23 @@ public class CucumberStepSearchUtil {
 
     return originalScope;
   }
+
+  /**
+   * Restricts the scope to files having steps which may match the regexp, according to {@link GherkinStepIndex}.
+   * Steps must contain the word required by the regexp and, if a condition is given, be accepted by it.
+   */
+  @NotNull
+  public static SearchScope restrictScopeToStepsMatching(@NotNull Project project,
+                                                         @NotNull String regexp,
+                                                         @Nullable Condition<? super String> stepCondition,
+                                                         @NotNull SearchScope originalScope) {
+    String word = CucumberUtil.getRequiredWord(regexp);
+    if (word == null || !(originalScope instanceof GlobalSearchScope)) {
+      return originalScope;
+    }
+
+    Condition<? super String> condition = stepCondition != null ? stepCondition : Conditions.alwaysTrue();
+    Set<VirtualFile> files = GherkinStepIndex.getFilesWithSteps(project, word, condition, (GlobalSearchScope)originalScope);
+    return files.isEmpty() ? GlobalSearchScope.EMPTY_SCOPE : GlobalSearchScope.filesScope(project, files).intersectWith(originalScope);
+  }
 }
@@ -0,0 +1,123 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.plugins.cucumber.steps.search;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.io.externalizer.StringCollectionExternalizer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.plugins.cucumber.CucumberUtil;
+import org.jetbrains.plugins.cucumber.psi.GherkinFileType;
+import org.jetbrains.plugins.cucumber.psi.GherkinStep;
+
+import java.util.*;
+
+/**
+ * Maps each lower-cased word of a step to the texts of steps in the file containing it.
+ * Texts are taken after Scenario Outline substitution (see {@link GherkinStep#getSubstitutedName()}), i.e. as steps are resolved,
+ * so step definitions can be checked against them without loading the feature files.
+ *
+ * @see CucumberUtil#getRequiredWord(String)
+ */
+public class GherkinStepIndex extends FileBasedIndexExtension<String, List<String>> {
+  public static final ID<String, List<String>> NAME = ID.create("cucumber.gherkinStepIndex");
+
+  @NotNull
+  @Override
+  public ID<String, List<String>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<String>, FileContent> getIndexer() {
+    return inputData -> {
+      Map<String, List<String>> result = new HashMap<>();
+      for (GherkinStep step : PsiTreeUtil.findChildrenOfType(inputData.getPsiFile(), GherkinStep.class)) {
+        String stepText = step.getSubstitutedName();
+        if (stepText == null) continue;
+        for (String word : getWords(stepText)) {
+          List<String> stepTexts = result.computeIfAbsent(word, w -> new ArrayList<>(1));
+          if (!stepTexts.contains(stepText)) {
+            stepTexts.add(stepText);
+          }
+        }
+      }
+      return result;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<String>> getValueExternalizer() {
+    return StringCollectionExternalizer.STRING_LIST_EXTERNALIZER;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(GherkinFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Returns files in scope which have a step containing the given word and accepted by the condition.
+   *
+   * @param word          lower-cased word, as returned by {@link CucumberUtil#getRequiredWord(String)}
+   * @param stepCondition checks the substituted text of a step
+   */
+  @NotNull
+  public static Set<VirtualFile> getFilesWithSteps(@NotNull Project project,
+                                                   @NotNull String word,
+                                                   @NotNull Condition<? super String> stepCondition,
+                                                   @NotNull GlobalSearchScope scope) {
+    Set<VirtualFile> result = new HashSet<>();
+    FileBasedIndex.getInstance().processValues(NAME, word, null, (file, stepTexts) -> {
+      for (String stepText : stepTexts) {
+        if (stepCondition.value(stepText)) {
+          result.add(file);
+          break;
+        }
+      }
+      return true;
+    }, scope);
+    return result;
+  }
+
+  @NotNull
+  private static Set<String> getWords(@NotNull String stepText) {
+    Set<String> result = new HashSet<>();
+    int start = 0;
+    for (int i = 0; i <= stepText.length(); i++) {
+      if (i == stepText.length() || Character.isWhitespace(stepText.charAt(i))) {
+        if (i > start) {
+          result.add(StringUtil.toLowerCase(stepText.substring(start, i)));
+        }
+        start = i + 1;
+      }
+    }
+    return result;
+  }
+}
@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import static org.jetbrains.plugins.cucumber.CucumberUtil.*;
 import static org.junit.Assert.*;
@@ -33,6 +34,33 @@ public class CucumberUtilTest {
                  buildRegexpFromCucumberExpression("provided {string}", MapParameterTypeManager.DEFAULT));
   }
 
+  @Test
+  public void testCompiledCucumberExpressionDoesNotKeepParameterTypes() {
+    Map<String, String> custom = new HashMap<>(STANDARD_PARAMETER_TYPES);
+    custom.put("color", "red|blue");
+    MapParameterTypeManager customTypes = new MapParameterTypeManager(custom);
+
+    assertEquals("I have {color} cucumbers", buildRegexpFromCucumberExpression("I have {color} cucumbers", MapParameterTypeManager.DEFAULT));
+    assertEquals("^I have (red|blue) cucumbers$", buildRegexpFromCucumberExpression("I have {color} cucumbers", customTypes));
+    assertEquals("^I have (-?\\d+) (red|blue) cucumber(?:s)?$", buildRegexpFromCucumberExpression("I have {int} {color} cucumber(s)", customTypes));
+  }
+
+  @Test
+  public void testCompiledCucumberExpressionsMatchSteps() {
+    String[][] expressionsAndSteps = {
+      {"I have {int} cucumber(s) in my belly", "I have 1 cucumber in my belly"},
+      {"the user {string} logs in", "the user \"admin\" logs in"},
+      {"I select red/blue/green as color", "I select blue as color"},
+      {"I press the {string} button/link on the {word} page", "I press the 'OK' link on the main page"}
+    };
+    for (int round = 0; round < 2; round++) {
+      for (String[] expressionAndStep : expressionsAndSteps) {
+        String regexp = buildRegexpFromCucumberExpression(expressionAndStep[0], MapParameterTypeManager.DEFAULT);
+        assertTrue(regexp, Pattern.compile(regexp).matcher(expressionAndStep[1]).matches());
+      }
+    }
+  }
+
   @Test
   public void testReplaceNotNecessaryTextTemplateByRegexp() {
     String actual = replaceNotNecessaryTextTemplateByRegexp("I have {short}  cucumber(s) in my belly");
@@ -51,6 +79,21 @@ public class CucumberUtilTest {
     assertEquals("have", actual);
   }
 
+  @Test
+  public void testGetRequiredWord() {
+    assertEquals("cukes", getRequiredWord("^I have (\\d+) cukes in my belly$"));
+    assertEquals("cucumbers", getRequiredWord("^(-?\\d+) cucumbers$"));
+    assertEquals("have", getRequiredWord("I have cukes"));
+    assertEquals("value", getRequiredWord("^value is \\$$"));
+    assertEquals("done", getRequiredWord("^[a-z]+ Done$"));
+    assertNull(getRequiredWord("^foo ?bar$"));
+    assertNull(getRequiredWord("^(foo bar baz)$"));
+    assertNull(getRequiredWord("^I have cukes|I own apples$"));
+    assertNull(getRequiredWord("cukes"));
+    assertNull(getRequiredWord("$"));
+    assertNull(getRequiredWord("^$"));
+  }
+
   @Test
   public void testIsCucumberExpression() {
     assertTrue(isCucumberExpression("def {int}"));
@@ -0,0 +1,19 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.plugins.cucumber.steps;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+public class AbstractStepDefinitionTest extends BasePlatformTestCase {
+  public void testLiteralMatchesLikeRegex() {
+    PsiElement element = myFixture.configureByText("steps.txt", "steps");
+    String[] regexes = {"^I have cukes$", "^I have cukes", "I have cukes$", "I have cukes", "^I have (\\d+) cukes$"};
+    String[] steps = {"I have cukes", "I have cukes in my belly", "Now I have cukes", "Now I have cukes today", "I have 5 cukes", "I have"};
+    for (String regex : regexes) {
+      StepDefinitionRegistryTest.StepDefinition definition = new StepDefinitionRegistryTest.StepDefinition(element, regex);
+      for (String step : steps) {
+        assertEquals(regex + " / " + step, definition.getPattern().matcher(step).find(), definition.matches(step));
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.plugins.cucumber.steps;
+
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.module.Module;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.plugins.cucumber.BDDFrameworkType;
+import org.jetbrains.plugins.cucumber.CucumberJvmExtensionPoint;
+import org.jetbrains.plugins.cucumber.StepDefinitionCreator;
+import org.jetbrains.plugins.cucumber.psi.GherkinFile;
+import org.jetbrains.plugins.cucumber.psi.GherkinStep;
+
+import java.util.*;
+
+public class CucumberStepHelperTest extends BasePlatformTestCase {
+  private final List<AbstractStepDefinition> myDefinitions = new ArrayList<>();
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    CucumberJvmExtensionPoint.EP_NAME.getPoint().registerExtension(new TestExtension(), myFixture.getTestRootDisposable());
+  }
+
+  public void testSharedRegistry() {
+    PsiElement element = myFixture.addFileToProject("steps.txt", "steps");
+    myDefinitions.add(new StepDefinitionRegistryTest.StepDefinition(element, "^I have (\\d+) cukes$"));
+    PsiFile first = myFixture.addFileToProject("first.feature", "Feature: first\n" +
+                                                                "  Scenario: eating\n" +
+                                                                "    Given I have 5 cukes\n" +
+                                                                "    And I have 6 cukes\n");
+    PsiFile second = myFixture.addFileToProject("second.feature", "Feature: second\n" +
+                                                                  "  Scenario: eating\n" +
+                                                                  "    Given I have 5 cukes\n" +
+                                                                  "    And I have no cukes\n");
+
+    Module module = getModule();
+    assertSame(CucumberStepHelper.getStepDefinitionRegistry(first, module), CucumberStepHelper.getStepDefinitionRegistry(second, module));
+    for (GherkinStep step : PsiTreeUtil.findChildrenOfType(second, GherkinStep.class)) {
+      assertEquals(step.getName(), step.getName().contains("no") ? 0 : 1, CucumberStepHelper.findStepDefinitions(second, step).size());
+    }
+  }
+
+  public void testResolveSteps() {
+    PsiElement element = myFixture.addFileToProject("steps.txt", "steps");
+    myDefinitions.add(new StepDefinitionRegistryTest.StepDefinition(element, "^I have (\\d+) cukes$"));
+    PsiFile first = myFixture.addFileToProject("first.feature", "Feature: first\n" +
+                                                                "  Scenario: eating\n" +
+                                                                "    Given I have 5 cukes\n" +
+                                                                "    And I have 6 cukes\n");
+    PsiFile second = myFixture.addFileToProject("second.feature", "Feature: second\n" +
+                                                                  "  Scenario: eating\n" +
+                                                                  "    Given I have 5 cukes\n" +
+                                                                  "    And I have no cukes\n");
+
+    assertEquals(3, CucumberStepResolver.resolveSteps(Arrays.asList(first, second)));
+    assertEquals(0, CucumberStepResolver.resolveSteps(Collections.singletonList(second)));
+    for (GherkinStep step : PsiTreeUtil.findChildrenOfType(second, GherkinStep.class)) {
+      assertEquals(step.getName(), step.getName().contains("no") ? 0 : 1, CucumberStepHelper.findStepDefinitions(second, step).size());
+    }
+  }
+
+  public void testResolveModuleSteps() {
+    PsiElement element = myFixture.addFileToProject("steps.txt", "steps");
+    myDefinitions.add(new StepDefinitionRegistryTest.StepDefinition(element, "^I have (\\d+) cukes$"));
+    PsiFile first = myFixture.addFileToProject("first.feature", "Feature: first\n" +
+                                                                "  Scenario: eating\n" +
+                                                                "    Given I have 5 cukes\n");
+    PsiFile second = myFixture.addFileToProject("features/second.feature", "Feature: second\n" +
+                                                                           "  Scenario: eating\n" +
+                                                                           "    Given I have 6 cukes\n");
+
+    CucumberStepResolver.resolveModuleSteps(first);
+    // the steps of the other feature file of the module are matched already
+    assertEquals(0, CucumberStepResolver.resolveSteps(Collections.singletonList(second)));
+    GherkinStep step = PsiTreeUtil.findChildOfType(second, GherkinStep.class);
+    assertNotNull(step);
+    assertEquals(1, CucumberStepHelper.findStepDefinitions(second, step).size());
+  }
+
+  private class TestExtension extends AbstractCucumberExtension {
+    @Override
+    public boolean isStepLikeFile(@NotNull PsiElement child, @NotNull PsiElement parent) {
+      return false;
+    }
+
+    @Override
+    public boolean isWritableStepLikeFile(@NotNull PsiElement child, @NotNull PsiElement parent) {
+      return false;
+    }
+
+    @NotNull
+    @Override
+    public BDDFrameworkType getStepFileType() {
+      return new BDDFrameworkType(PlainTextFileType.INSTANCE);
+    }
+
+    @NotNull
+    @Override
+    public StepDefinitionCreator getStepDefinitionCreator() {
+      return new StepDefinitionCreator() {
+        @NotNull
+        @Override
+        public PsiFile createStepDefinitionContainer(@NotNull PsiDirectory dir, @NotNull String name) {
+          throw new UnsupportedOperationException();
+        }
+
+        @NotNull
+        @Override
+        public String getDefaultStepDefinitionFolderPath(@NotNull GherkinStep step) {
+          return "";
+        }
+
+        @NotNull
+        @Override
+        public String getStepDefinitionFilePath(@NotNull PsiFile file) {
+          return file.getName();
+        }
+
+        @NotNull
+        @Override
+        public String getDefaultStepFileName(@NotNull GherkinStep step) {
+          return "steps";
+        }
+      };
+    }
+
+    @Override
+    public List<AbstractStepDefinition> loadStepsFor(@Nullable PsiFile featureFile, @NotNull Module module) {
+      return new ArrayList<>(myDefinitions);
+    }
+
+    @Override
+    public Collection<? extends PsiFile> getStepDefinitionContainers(@NotNull GherkinFile file) {
+      return Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.plugins.cucumber.steps;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class StepDefinitionRegistryTest extends BasePlatformTestCase {
+  public void testCandidates() {
+    PsiElement element = myFixture.configureByText("steps.txt", "steps");
+    AbstractStepDefinition cukes = new StepDefinition(element, "^I have (\\d+) cukes in my belly$");
+    AbstractStepDefinition apples = new StepDefinition(element, "^I have (\\d+) apples$");
+    AbstractStepDefinition any = new StepDefinition(element, "^(.*) happens$|^nothing$");
+    StepDefinitionRegistry registry = new StepDefinitionRegistry(Arrays.asList(cukes, apples, any));
+
+    assertCandidates(registry.getCandidates(Collections.singletonList("I have 5 cukes in my belly")), cukes, any);
+    assertCandidates(registry.getCandidates(Collections.singletonList("I have 5 Apples")), apples, any);
+    assertCandidates(registry.getCandidates(Arrays.asList("I have 5 cukes in my belly", "I have 5 apples")), cukes, apples, any);
+    assertCandidates(registry.findDefinitionsByRegex("^I have (\\d+) apples$"), apples);
+  }
+
+  // definitions of one element are equal, so compare them by identity
+  private static void assertCandidates(List<AbstractStepDefinition> actual, AbstractStepDefinition... expected) {
+    assertEquals(expected.length, actual.size());
+    for (int i = 0; i < expected.length; i++) {
+      assertSame(expected[i], actual.get(i));
+    }
+  }
+
+  public void testMatchingManySteps() {
+    PsiElement element = myFixture.configureByText("steps.txt", "steps");
+    int definitionCount = 500;
+    List<AbstractStepDefinition> definitions = new ArrayList<>(definitionCount);
+    for (int i = 0; i < definitionCount; i++) {
+      definitions.add(new StepDefinition(element, "^the user" + i + " has (\\d+) items in cart" + (i % 50) + "$"));
+    }
+    StepDefinitionRegistry registry = new StepDefinitionRegistry(definitions);
+
+    for (int i = 0; i < 100; i++) {
+      int user = i * 13 % definitionCount;
+      String step = "the user" + user + " has 3 items in cart" + user % 50;
+      List<AbstractStepDefinition> candidates = registry.getCandidates(Collections.singletonList(step));
+      assertTrue(candidates.size() < definitionCount / 10);
+      assertEquals(Collections.singletonList(definitions.get(user)), ContainerUtil.filter(candidates, definition -> definition.matches(step)));
+    }
+  }
+
+  static class StepDefinition extends AbstractStepDefinition {
+    private final String myRegex;
+
+    StepDefinition(@NotNull PsiElement element, @NotNull String regex) {
+      super(element);
+      myRegex = regex;
+    }
+
+    @Override
+    public List<String> getVariableNames() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String getCucumberRegex() {
+      return myRegex;
+    }
+
+    @Override
+    protected String getCucumberRegexFromElement(PsiElement element) {
+      return myRegex;
+    }
+  }
+}
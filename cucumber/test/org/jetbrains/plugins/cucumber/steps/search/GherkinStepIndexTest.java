@@ -0,0 +1,62 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.plugins.cucumber.steps.search;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class GherkinStepIndexTest extends BasePlatformTestCase {
+  public void testStepTexts() {
+    PsiFile cukes = myFixture.addFileToProject("cukes.feature", "Feature: Cukes\n" +
+                                                                "  Scenario: eating\n" +
+                                                                "    Given I have 5 cukes in my belly\n");
+    PsiFile outline = myFixture.addFileToProject("outline.feature", "Feature: Outline\n" +
+                                                                    "  Scenario Outline: eating\n" +
+                                                                    "    Given I have <count> Apples\n" +
+                                                                    "    Examples:\n" +
+                                                                    "      | count |\n" +
+                                                                    "      | 12    |\n");
+    myFixture.addFileToProject("comment.feature", "# I have 5 apples\n" +
+                                                  "Feature: Comments\n");
+
+    assertFiles(getFiles("cukes", "^I have (\\d+) cukes in my belly$"), cukes);
+    assertFiles(getFiles("apples", "^I have 12 apples$"), outline);
+    assertFiles(getFiles("apples", "^I have <count> apples$"));
+    assertFiles(getFiles("have", ".*"), cukes, outline);
+    assertFiles(getFiles("pears", ".*"));
+  }
+
+  public void testManyFeatureFiles() {
+    List<PsiFile> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      StringBuilder text = new StringBuilder("Feature: feature " + i + "\n  Scenario: scenario\n");
+      for (int j = 0; j < 10; j++) {
+        text.append("    Given the user has ").append((i + j) % 100).append(" items in cart").append(j).append('\n');
+      }
+      PsiFile file = myFixture.addFileToProject("features/f" + i + ".feature", text.toString());
+      if (i >= 33 && i <= 42) {
+        expected.add(file);
+      }
+    }
+
+    assertFiles(getFiles("items", "^the user has 42 items in (\\w+)$"), expected.toArray(PsiFile.EMPTY_ARRAY));
+  }
+
+  private Set<VirtualFile> getFiles(String word, String regexp) {
+    Pattern pattern = Pattern.compile(regexp, Pattern.CASE_INSENSITIVE);
+    return GherkinStepIndex.getFilesWithSteps(getProject(), word, s -> pattern.matcher(s).find(), GlobalSearchScope.projectScope(getProject()));
+  }
+
+  private static void assertFiles(Set<VirtualFile> actual, PsiFile... expected) {
+    assertEquals(expected.length, actual.size());
+    for (PsiFile file : expected) {
+      assertTrue(file.getName(), actual.contains(file.getVirtualFile()));
+    }
+  }
+}
@@ -22,7 +22,6 @@ import com.thoughtworks.gauge.exception.GaugeNotFoundException;
 import com.thoughtworks.gauge.module.lib.GaugeLibHelper;
 import com.thoughtworks.gauge.module.lib.LibHelper;
 import com.thoughtworks.gauge.module.lib.LibHelperFactory;
-import com.thoughtworks.gauge.reference.ReferenceCache;
 import com.thoughtworks.gauge.settings.GaugeSettingsModel;
 import com.thoughtworks.gauge.util.GaugeUtil;
 import com.thoughtworks.gauge.util.SocketUtils;
@@ -44,7 +43,6 @@ public final class GaugeBootstrapService implements Disposable {
 
   private final Map<Module, GaugeCli> gaugeProjectHandle = new ConcurrentHashMap<>();
   private final Map<String, HashSet<Module>> linkedModulesMap = new ConcurrentHashMap<>();
-  private final Map<Module, ReferenceCache> moduleReferenceCaches = new ConcurrentHashMap<>();
 
   private final Project myProject;
   private final MergingUpdateQueue myUpdateQueue = new MergingUpdateQueue("GAUGE_BOOTSTRAP", 5000, true, null, this);
@@ -197,15 +195,6 @@ public final class GaugeBootstrapService implements Disposable {
     return moduleDependent ? null : getGaugeCli();
   }
 
-  public ReferenceCache getReferenceCache(Module module) {
-    ReferenceCache referenceCache = moduleReferenceCaches.get(module);
-    if (referenceCache == null) {
-      referenceCache = new ReferenceCache();
-      moduleReferenceCaches.put(module, referenceCache);
-    }
-    return referenceCache;
-  }
-
   public Set<Module> getSubModules(Module module) {
     String value = getProjectGroupValue(module);
 
@@ -245,7 +234,6 @@ public final class GaugeBootstrapService implements Disposable {
     modulesQueue.remove(module);
     String value = getProjectGroupValue(module);
     linkedModulesMap.remove(value);
-    moduleReferenceCaches.remove(module);
     GaugeCli service = gaugeProjectHandle.get(module);
 
     if (service != null && service.getGaugeProcess().isAlive()) {
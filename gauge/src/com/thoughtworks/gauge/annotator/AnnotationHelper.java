@@ -18,7 +18,10 @@ package com.thoughtworks.gauge.annotator;
 
 import com.intellij.openapi.module.Module;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.containers.ContainerUtil;
 import com.thoughtworks.gauge.StepValue;
 import com.thoughtworks.gauge.helper.ModuleHelper;
@@ -27,6 +30,7 @@ import com.thoughtworks.gauge.language.psi.SpecStep;
 import com.thoughtworks.gauge.util.StepUtil;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 final class AnnotationHelper {
@@ -44,6 +48,18 @@ final class AnnotationHelper {
     return helper.isGaugeModule(element);
   }
 
+  /**
+   * Fetches step values of the whole file once per its modification, instead of one request per highlighted step.
+   * The requests are made outside of the cached value and are canceled with the highlighting pass.
+   */
+  void prefetchStepValues(PsiFile file) {
+    AtomicBoolean prefetched = CachedValuesManager.getCachedValue(file, () -> CachedValueProvider.Result.create(new AtomicBoolean(), file));
+    if (prefetched.get()) return;
+
+    SpecPsiImplUtil.prefetchStepValues(file);
+    prefetched.set(true);
+  }
+
   Module getModule(SpecStep step) {
     return helper.getModule(step);
   }
@@ -36,6 +36,9 @@ final class StepAnnotator implements Annotator {
   @Override
   public void annotate(@NotNull final PsiElement element, @NotNull AnnotationHolder holder) {
     if (!helper.isGaugeModule(element)) return;
+    if (element instanceof SpecStep || element instanceof ConceptStep) {
+      helper.prefetchStepValues(element.getContainingFile());
+    }
     if (element instanceof SpecStep) {
       createWarning(element, holder, (SpecStep)element);
     }
@@ -24,12 +24,14 @@ import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.codeInsight.template.TemplateBuilder;
 import com.intellij.codeInsight.template.TemplateBuilderFactory;
+import com.intellij.ide.highlighter.JavaFileType;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiMethod;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import com.thoughtworks.gauge.GaugeBootstrapService;
@@ -38,6 +40,7 @@ import com.thoughtworks.gauge.connection.GaugeConnection;
 import com.thoughtworks.gauge.core.GaugeCli;
 import com.thoughtworks.gauge.language.psi.ConceptArg;
 import com.thoughtworks.gauge.language.psi.SpecArg;
+import com.thoughtworks.gauge.stub.StepImplementationIndex;
 import com.thoughtworks.gauge.util.GaugeUtil;
 import com.thoughtworks.gauge.util.StepUtil;
 import org.apache.commons.lang.StringUtils;
@@ -160,7 +163,15 @@ public final class StepCompletionProvider extends CompletionProvider<CompletionP
   @NotNull
   private static Map<String, Type> getImplementedSteps(Module module) {
     Map<String, Type> steps = new HashMap<>();
-    Collection<PsiMethod> methods = StepUtil.getStepMethods(module);
+    GlobalSearchScope scope = StepUtil.getStepMethodsScope(module);
+    StepImplementationIndex.processAllImplementations(scope, JavaFileType.INSTANCE, (key, implementation) -> {
+      if (!key.equals(StepImplementationIndex.NON_LITERAL_KEY)) {
+        steps.put(key, new Type(implementation.getText(), STEP));
+      }
+      return true;
+    });
+    Collection<PsiMethod> methods = StepUtil.getNonIndexedStepMethods(module);
+    StepUtil.prefetchStepValues(module, methods);
     for (PsiMethod m : methods) {
       for (String s : getGaugeStepAnnotationValues(m)) {
         steps.put(getStepValueFor(module, m, s, false).getStepText(), new Type(s, STEP));
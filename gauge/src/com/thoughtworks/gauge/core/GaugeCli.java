@@ -21,16 +21,25 @@ import com.thoughtworks.gauge.connection.GaugeConnection;
 public final class GaugeCli {
   private final Process gaugeProcess;
   private final GaugeConnection gaugeConnection;
+  private final StepValueCache stepValueCache;
 
   public GaugeCli(Process gaugeProcess, GaugeConnection gaugeConnection) {
     this.gaugeProcess = gaugeProcess;
     this.gaugeConnection = gaugeConnection;
+    this.stepValueCache = gaugeConnection != null ? new StepValueCache(gaugeConnection) : null;
   }
 
   public GaugeConnection getGaugeConnection() {
     return gaugeConnection;
   }
 
+  /**
+   * @return step values of this Gauge process, or null if there's no connection to it
+   */
+  public StepValueCache getStepValueCache() {
+    return stepValueCache;
+  }
+
   public Process getGaugeProcess() {
     return gaugeProcess;
   }
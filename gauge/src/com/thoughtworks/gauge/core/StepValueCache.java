@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.core;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.Pair;
+import com.thoughtworks.gauge.StepValue;
+import com.thoughtworks.gauge.connection.GaugeConnection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Step values computed by a Gauge process, see {@link GaugeConnection#getStepValue(String, boolean)}.
+ * <p>
+ * The cache belongs to a connection, so it's dropped together with the Gauge process it talks to.
+ * It keeps the most recently used values only. Requests to the process are serialized, as they share one socket,
+ * and {@link #prefetch(Collection)} sends all missing steps of a file or a module in a row instead of one by one from each caller.
+ * Waiting for the socket and prefetching check for cancellation, so they don't hold up a canceled highlighting pass.
+ */
+public final class StepValueCache {
+  private static final int MAX_SIZE = 10000;
+  private static final long CANCELLATION_CHECK_MILLIS = 20;
+  private static final String INLINE_TABLE_SUFFIX = " <table>";
+
+  private final GaugeConnection connection;
+  private final ReentrantLock connectionLock = new ReentrantLock();
+  private final Map<String, StepValue> values = Collections.synchronizedMap(new LinkedHashMap<String, StepValue>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, StepValue> eldest) {
+      return size() > MAX_SIZE;
+    }
+  });
+
+  public StepValueCache(@NotNull GaugeConnection connection) {
+    this.connection = connection;
+  }
+
+  @Nullable
+  public StepValue getStepValue(@NotNull String stepText, boolean hasInlineTable) {
+    String key = getKey(stepText, hasInlineTable);
+    StepValue value = getCached(key);
+    if (value != null) return value;
+
+    lockConnection();
+    try {
+      value = getCached(key);
+      if (value == null) {
+        value = fetch(key, stepText, hasInlineTable);
+      }
+    }
+    finally {
+      connectionLock.unlock();
+    }
+    return value;
+  }
+
+  /**
+   * Fetches values of the given steps (step text and whether it has an inline table) which aren't cached yet.
+   */
+  public void prefetch(@NotNull Collection<Pair<String, Boolean>> steps) {
+    Map<String, Pair<String, Boolean>> missing = new LinkedHashMap<>();
+    for (Pair<String, Boolean> step : steps) {
+      String key = getKey(step.first, step.second);
+      if (getCached(key) == null) {
+        missing.put(key, step);
+      }
+    }
+    if (missing.isEmpty()) return;
+
+    lockConnection();
+    try {
+      for (Map.Entry<String, Pair<String, Boolean>> entry : missing.entrySet()) {
+        ProgressManager.checkCanceled();
+        if (getCached(entry.getKey()) == null) {
+          fetch(entry.getKey(), entry.getValue().first, entry.getValue().second);
+        }
+      }
+    }
+    finally {
+      connectionLock.unlock();
+    }
+  }
+
+  private void lockConnection() {
+    try {
+      while (!connectionLock.tryLock(CANCELLATION_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+        ProgressManager.checkCanceled();
+      }
+    }
+    catch (InterruptedException e) {
+      throw new ProcessCanceledException(e);
+    }
+  }
+
+  private StepValue fetch(String key, String stepText, boolean hasInlineTable) {
+    StepValue value = connection.getStepValue(stepText, hasInlineTable);
+    if (value != null) {
+      values.put(key, value);
+    }
+    return value;
+  }
+
+  @Nullable
+  private StepValue getCached(String key) {
+    StepValue value = values.get(key);
+    // empty values are answers of a process which isn't ready yet, these are asked again
+    return value == null || value.getStepText().isEmpty() ? null : value;
+  }
+
+  private static String getKey(String stepText, boolean hasInlineTable) {
+    return hasInlineTable ? stepText + INLINE_TABLE_SUFFIX : stepText;
+  }
+}
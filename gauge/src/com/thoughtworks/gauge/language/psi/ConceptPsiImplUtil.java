@@ -42,9 +42,12 @@ public final class ConceptPsiImplUtil {
   }
 
   public static StepValue getStepValue(ConceptConceptImpl conceptConcept) {
+    return getStepValueFor(conceptConcept, getConceptHeadingText(conceptConcept), false);
+  }
+
+  public static String getConceptHeadingText(ConceptConceptImpl conceptConcept) {
     String conceptHeadingText = conceptConcept.getConceptHeading().getText();
     conceptHeadingText = conceptHeadingText.trim().split("\n")[0];
-    String text = conceptHeadingText.trim().replaceFirst("#", "");
-    return getStepValueFor(conceptConcept, text, false);
+    return conceptHeadingText.trim().replaceFirst("#", "");
   }
 }
@@ -19,18 +19,23 @@ package com.thoughtworks.gauge.language.psi;
 import com.intellij.lang.ASTNode;
 import com.intellij.navigation.ItemPresentation;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.Pair;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
 import com.thoughtworks.gauge.GaugeBootstrapService;
 import com.thoughtworks.gauge.StepValue;
-import com.thoughtworks.gauge.connection.GaugeConnection;
 import com.thoughtworks.gauge.core.GaugeCli;
+import com.thoughtworks.gauge.core.StepValueCache;
 import com.thoughtworks.gauge.language.psi.impl.SpecStepImpl;
 import com.thoughtworks.gauge.util.GaugeUtil;
-import com.thoughtworks.gauge.util.StepUtil;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 public final class SpecPsiImplUtil {
 
@@ -38,13 +43,15 @@ public final class SpecPsiImplUtil {
   }
 
   public static StepValue getStepValue(SpecStep element) {
-    ASTNode step = element.getNode();
+    SpecTable inlineTable = element.getInlineTable();
+    return getStepValueFor(element, getStepText(element.getNode()), inlineTable != null);
+  }
+
+  public static String getStepText(ASTNode step) {
     String stepText = step.getText().trim();
     int newLineIndex = stepText.indexOf("\n");
     int endIndex = newLineIndex == -1 ? stepText.length() : newLineIndex;
-    SpecTable inlineTable = element.getInlineTable();
-    stepText = stepText.substring(1, endIndex).trim();
-    return getStepValueFor(element, stepText, inlineTable != null);
+    return stepText.substring(1, endIndex).trim();
   }
 
   public static StepValue getStepValueFor(PsiElement element, String stepText, Boolean hasInlineTable) {
@@ -58,14 +65,50 @@ public final class SpecPsiImplUtil {
     if (gaugeCli == null) {
       return getDefaultStepValue(element);
     }
-    GaugeConnection apiConnection = gaugeCli.getGaugeConnection();
-    if (apiConnection == null) {
+    StepValueCache stepValueCache = gaugeCli.getStepValueCache();
+    if (stepValueCache == null) {
       return getDefaultStepValue(element);
     }
-    StepValue value = StepUtil.getStepValue(apiConnection, stepText, hasInlineTable);
+    StepValue value = stepValueCache.getStepValue(stepText, hasInlineTable);
     return value == null ? getDefaultStepValue(element) : value;
   }
 
+  /**
+   * Fetches step values of all steps in the file at once, so these don't have to be requested one by one while highlighting.
+   */
+  public static void prefetchStepValues(PsiFile file) {
+    Module module = GaugeUtil.moduleForPsiElement(file);
+    StepValueCache stepValueCache = getStepValueCache(module);
+    if (stepValueCache == null) return;
+
+    List<Pair<String, Boolean>> steps = new ArrayList<>();
+    for (SpecStep step : PsiTreeUtil.findChildrenOfType(file, SpecStep.class)) {
+      steps.add(Pair.create(getStepText(step.getNode()), step.getInlineTable() != null));
+    }
+    // concept steps are highlighted as spec steps, see StepAnnotator
+    for (ConceptStep step : PsiTreeUtil.findChildrenOfType(file, ConceptStep.class)) {
+      steps.add(Pair.create(getStepText(step.getNode()), step.getTable() != null));
+    }
+    stepValueCache.prefetch(steps);
+  }
+
+  /**
+   * Fetches step values of the given texts, e.g. values of step annotations in a module.
+   */
+  public static void prefetchStepValues(Module module, Collection<String> stepTexts) {
+    StepValueCache stepValueCache = getStepValueCache(module);
+    if (stepValueCache == null) return;
+
+    stepValueCache.prefetch(ContainerUtil.map(stepTexts, text -> Pair.create(text, false)));
+  }
+
+  @Nullable
+  private static StepValueCache getStepValueCache(@Nullable Module module) {
+    if (module == null) return null;
+    GaugeCli gaugeCli = GaugeBootstrapService.getInstance(module.getProject()).getGaugeCli(module, false);
+    return gaugeCli != null ? gaugeCli.getStepValueCache() : null;
+  }
+
   private static StepValue getDefaultStepValue(PsiElement element) {
     return new StepValue(element.getText(), element.getText(), new ArrayList<>());
   }
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.stub;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.PairProcessor;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import com.thoughtworks.gauge.Step;
+import com.thoughtworks.gauge.language.ConceptFileType;
+import com.thoughtworks.gauge.language.psi.ConceptPsiImplUtil;
+import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Maps step texts with parameters replaced by {@code {}} to the {@code @Step} methods and concepts implementing them,
+ * so steps are resolved without asking the Gauge process for step values, see {@link #getStepKey(String, boolean)}.
+ * <p>
+ * Step methods are recognized by the imports of the annotation, as references can't be resolved while indexing,
+ * so the annotation should be checked again when the method is loaded.
+ * Methods with annotation values other than string literals are stored under {@link #NON_LITERAL_KEY}.
+ */
+public final class StepImplementationIndex extends FileBasedIndexExtension<String, List<StepImplementationIndex.Implementation>> {
+  @NonNls
+  public static final ID<String, List<Implementation>> NAME = ID.create("GaugeStepImplementationIndex");
+  public static final String NON_LITERAL_KEY = "";
+
+  private static final String STEP_ANNOTATION = "Step";
+  private static final String STEP_ANNOTATION_FQN = Step.class.getCanonicalName();
+  private static final String STEP_ANNOTATION_PACKAGE = StringUtil.getPackageName(STEP_ANNOTATION_FQN);
+  private static final String PARAMETER = "{}";
+
+  @NotNull
+  @Override
+  public ID<String, List<Implementation>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<Implementation>, FileContent> getIndexer() {
+    return fileContent -> {
+      Map<String, List<Implementation>> result = new HashMap<>();
+      if (fileContent.getFileType() instanceof ConceptFileType) {
+        indexConcepts(fileContent.getPsiFile(), result);
+      }
+      else if (StringUtil.contains(fileContent.getContentAsText(), STEP_ANNOTATION_PACKAGE)) {
+        // the annotation is either imported or used by its qualified name
+        indexStepMethods(fileContent.getPsiFile(), result);
+      }
+      return result;
+    };
+  }
+
+  private static void indexConcepts(PsiFile file, Map<String, List<Implementation>> result) {
+    for (PsiElement element : file.getChildren()) {
+      if (element instanceof ConceptConceptImpl) {
+        String text = ConceptPsiImplUtil.getConceptHeadingText((ConceptConceptImpl)element);
+        add(result, getStepKey(text, false), new Implementation(element.getTextOffset(), text));
+      }
+    }
+  }
+
+  private static void indexStepMethods(PsiFile file, Map<String, List<Implementation>> result) {
+    if (!(file instanceof PsiJavaFile)) return;
+    for (PsiAnnotation annotation : PsiTreeUtil.findChildrenOfType(file, PsiAnnotation.class)) {
+      if (!isStepAnnotation((PsiJavaFile)file, annotation.getNameReferenceElement())) continue;
+      PsiMethod method = PsiTreeUtil.getParentOfType(annotation, PsiMethod.class);
+      if (method == null) continue;
+
+      List<String> texts = getLiteralValues(annotation.findDeclaredAttributeValue("value"));
+      if (texts == null) {
+        add(result, NON_LITERAL_KEY, new Implementation(method.getTextOffset(), ""));
+        continue;
+      }
+      for (String text : texts) {
+        add(result, getStepKey(text, false), new Implementation(method.getTextOffset(), text));
+      }
+    }
+  }
+
+  private static boolean isStepAnnotation(PsiJavaFile file, @Nullable PsiJavaCodeReferenceElement reference) {
+    if (reference == null || !STEP_ANNOTATION.equals(reference.getReferenceName())) return false;
+    if (reference.isQualified()) {
+      return STEP_ANNOTATION_FQN.equals(StringUtil.replace(reference.getText(), " ", ""));
+    }
+    PsiImportList importList = file.getImportList();
+    return importList != null &&
+           (importList.findSingleClassImportStatement(STEP_ANNOTATION_FQN) != null ||
+            importList.findOnDemandImportStatement(STEP_ANNOTATION_PACKAGE) != null);
+  }
+
+  @Nullable
+  private static List<String> getLiteralValues(@Nullable PsiAnnotationMemberValue value) {
+    if (value instanceof PsiArrayInitializerMemberValue) {
+      List<String> values = new ArrayList<>();
+      for (PsiAnnotationMemberValue initializer : ((PsiArrayInitializerMemberValue)value).getInitializers()) {
+        List<String> initializerValues = getLiteralValues(initializer);
+        if (initializerValues == null) return null;
+        values.addAll(initializerValues);
+      }
+      return values;
+    }
+    if (value instanceof PsiLiteralExpression && ((PsiLiteralExpression)value).getValue() instanceof String) {
+      return Collections.singletonList((String)((PsiLiteralExpression)value).getValue());
+    }
+    return null;
+  }
+
+  private static void add(Map<String, List<Implementation>> result, String key, Implementation implementation) {
+    result.computeIfAbsent(key, k -> new ArrayList<>(1)).add(implementation);
+  }
+
+  /**
+   * Returns the step text as Gauge reports it for a step value, i.e. with static ({@code "value"}) and dynamic ({@code <name>})
+   * parameters replaced by {@code {}}, and an inline table as the last parameter.
+   */
+  @NotNull
+  public static String getStepKey(@NotNull String stepText, boolean hasInlineTable) {
+    StringBuilder key = new StringBuilder(stepText.length());
+    int i = 0;
+    while (i < stepText.length()) {
+      int end = getParameterEnd(stepText, i);
+      if (end != -1) {
+        key.append(PARAMETER);
+        i = end + 1;
+      }
+      else {
+        key.append(stepText.charAt(i++));
+      }
+    }
+    if (hasInlineTable) {
+      key.append(' ').append(PARAMETER);
+    }
+    return key.toString().trim();
+  }
+
+  private static int getParameterEnd(String stepText, int start) {
+    char c = stepText.charAt(start);
+    if (c == '<') {
+      return stepText.indexOf('>', start + 1);
+    }
+    if (c == '"') {
+      for (int i = start + 1; i < stepText.length(); i++) {
+        if (stepText.charAt(i) == '\\') {
+          i++;
+        }
+        else if (stepText.charAt(i) == '"') {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the implementations of the step key found in files of the given type in the scope, grouped by file.
+   *
+   * @param fileType {@link JavaFileType} for step methods, {@link ConceptFileType} for concepts
+   */
+  @NotNull
+  public static Map<VirtualFile, List<Implementation>> getImplementations(@NotNull String key,
+                                                                          @NotNull GlobalSearchScope scope,
+                                                                          @NotNull FileType fileType) {
+    Map<VirtualFile, List<Implementation>> result = new LinkedHashMap<>();
+    FileBasedIndex.getInstance().processValues(NAME, key, null, (file, implementations) -> {
+      result.computeIfAbsent(file, f -> new ArrayList<>()).addAll(implementations);
+      return true;
+    }, GlobalSearchScope.getScopeRestrictedByFileTypes(scope, fileType));
+    return result;
+  }
+
+  /**
+   * Processes all implementations found in files of the given type in the scope with their keys.
+   * Only keys present in the scope are looked up.
+   */
+  public static boolean processAllImplementations(@NotNull GlobalSearchScope scope,
+                                                  @NotNull FileType fileType,
+                                                  @NotNull PairProcessor<? super String, ? super Implementation> processor) {
+    GlobalSearchScope fileTypeScope = GlobalSearchScope.getScopeRestrictedByFileTypes(scope, fileType);
+    FileBasedIndex index = FileBasedIndex.getInstance();
+    // the index can't be queried while its keys are processed
+    List<String> keys = new ArrayList<>();
+    index.processAllKeys(NAME, key -> keys.add(key), fileTypeScope, null);
+    for (String key : keys) {
+      boolean proceed = index.processValues(NAME, key, null, (file, implementations) -> {
+        for (Implementation implementation : implementations) {
+          if (!processor.process(key, implementation)) return false;
+        }
+        return true;
+      }, fileTypeScope);
+      if (!proceed) return false;
+    }
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<Implementation>> getValueExternalizer() {
+    return new DataExternalizer<List<Implementation>>() {
+      @Override
+      public void save(@NotNull DataOutput out, List<Implementation> implementations) throws IOException {
+        DataInputOutputUtil.writeINT(out, implementations.size());
+        for (Implementation implementation : implementations) {
+          DataInputOutputUtil.writeINT(out, implementation.getOffset());
+          IOUtil.writeUTF(out, implementation.getText());
+        }
+      }
+
+      @Override
+      public List<Implementation> read(@NotNull DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+        List<Implementation> implementations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          implementations.add(new Implementation(DataInputOutputUtil.readINT(in), IOUtil.readUTF(in)));
+        }
+        return implementations;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE, ConceptFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * A step method or a concept, identified by the offset of its name in the file.
+   */
+  public static final class Implementation {
+    private final int offset;
+    private final String text;
+
+    public Implementation(int offset, @NotNull String text) {
+      this.offset = offset;
+      this.text = text;
+    }
+
+    public int getOffset() {
+      return offset;
+    }
+
+    /**
+     * @return the annotation value or the concept heading, empty for methods under {@link #NON_LITERAL_KEY}
+     */
+    @NotNull
+    public String getText() {
+      return text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Implementation that = (Implementation)o;
+      return offset == that.offset && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * offset + text.hashCode();
+    }
+  }
+}
@@ -16,118 +16,157 @@
 
 package com.thoughtworks.gauge.util;
 
-import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.psi.*;
-import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.ProjectScope;
 import com.intellij.psi.search.searches.AnnotatedElementsSearch;
-import com.thoughtworks.gauge.Constants;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
 import com.thoughtworks.gauge.GaugeBootstrapService;
 import com.thoughtworks.gauge.Step;
-import com.thoughtworks.gauge.StepValue;
-import com.thoughtworks.gauge.connection.GaugeConnection;
+import com.thoughtworks.gauge.language.ConceptFileType;
 import com.thoughtworks.gauge.language.psi.SpecPsiImplUtil;
 import com.thoughtworks.gauge.language.psi.SpecStep;
 import com.thoughtworks.gauge.language.psi.impl.ConceptConceptImpl;
 import com.thoughtworks.gauge.language.psi.impl.ConceptStepImpl;
 import com.thoughtworks.gauge.language.psi.impl.SpecStepImpl;
-import com.thoughtworks.gauge.reference.ReferenceCache;
+import com.thoughtworks.gauge.stub.StepImplementationIndex;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class StepUtil {
-  private static final Logger LOG = Logger.getInstance(StepUtil.class);
-  private static final HashMap<String, StepValue> stepValueCache = new HashMap<>();
-
   public static PsiElement findStepImpl(SpecStep step, Module module) {
     if (module == null) {
       return null;
     }
-    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
-
-    ReferenceCache cache = bootstrapService.getReferenceCache(module);
-    PsiElement reference = cache.searchReferenceFor(step);
-    if (reference == null) {
-      reference = findStepReference(step, module);
+    String stepKey = getStepKey(step);
+    PsiMethod method = findStepImplementationMethod(stepKey, step, module);
+    if (method != null) {
+      return method;
     }
-    return reference;
+    ConceptConceptImpl concept = ContainerUtil.getFirstItem(findConcepts(stepKey, module.getProject()));
+    return concept != null ? new ConceptStepImpl(concept.getNode(), true) : null;
   }
 
-  private static PsiElement findStepReference(SpecStep step, Module module) {
-    Collection<PsiMethod> stepMethods = getStepMethods(module);
-    PsiMethod method = findStepImplementationMethod(stepMethods, step, module);
-    PsiElement referenceElement;
-    if (method == null) {
-      referenceElement = searchConceptsForImpl(step, module);
-      if (referenceElement != null) {
-        referenceElement = new ConceptStepImpl(referenceElement.getNode(), true);
-      }
-    }
-    else {
-      referenceElement = method;
-    }
-    addReferenceToCache(step, referenceElement, module);
-    return referenceElement;
+  /**
+   * Returns the text of the step with parameters replaced, as it's stored in {@link StepImplementationIndex}.
+   */
+  public static String getStepKey(SpecStep step) {
+    return StepImplementationIndex.getStepKey(SpecPsiImplUtil.getStepText(step.getNode()), step.getInlineTable() != null);
   }
 
-  private static void addReferenceToCache(SpecStep step, PsiElement referenceElement, Module module) {
-    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
-    bootstrapService.getReferenceCache(module).addStepReference(step, referenceElement);
-  }
-
-  private static PsiElement searchConceptsForImpl(SpecStep step, Module module) {
-    try {
-      VirtualFile[] conceptFiles = findConceptFiles(module);
-      if (conceptFiles.length > 0) {
-        PsiElement reference;
-        for (VirtualFile file : conceptFiles) {
-          reference = searchConceptReference(file, step, module);
-          if (reference != null) {
-            return reference;
-          }
-        }
+  private static PsiMethod findStepImplementationMethod(String stepKey, SpecStep step, Module module) {
+    GlobalSearchScope scope = getStepMethodsScope(module);
+    for (PsiMethod method : findIndexedElements(stepKey, scope, JavaFileType.INSTANCE, module.getProject(), PsiMethod.class)) {
+      if (!getGaugeStepAnnotationValues(method).isEmpty()) {
+        return method;
       }
     }
-    catch (Exception e) {
-      LOG.debug(e);
-      return null;
-    }
-    return null;
-  }
 
-  private static PsiElement searchConceptReference(VirtualFile virtualFile, SpecStep step, Module module) {
-    PsiFile psiFile = PsiManager.getInstance(module.getProject()).findFile(virtualFile);
-    if (psiFile == null || !psiFile.isValid()) {
+    Collection<PsiMethod> stepMethods = getNonIndexedStepMethods(module);
+    if (stepMethods.isEmpty()) {
       return null;
     }
-    for (PsiElement psiElement : psiFile.getChildren()) {
-      if (psiElement.getClass().equals(ConceptConceptImpl.class)) {
-        StepValue conceptStepValue = ((ConceptConceptImpl)psiElement).getStepValue();
-
-        if (step.getStepValue().getStepText().equals(conceptStepValue.getStepText())) {
-          return psiElement;
-        }
+    prefetchStepValues(module, stepMethods);
+    String stepText = step.getStepValue().getStepText();
+    for (PsiMethod stepMethod : stepMethods) {
+      if (isMatch(stepMethod, stepText, module)) {
+        return stepMethod;
       }
     }
     return null;
   }
 
-  private static VirtualFile[] findConceptFiles(Module module) {
-    Collection<VirtualFile> conceptFiles = FilenameIndex.getAllFilesByExt(module.getProject(), Constants.CONCEPT_EXTENSION);
-    return conceptFiles.toArray(VirtualFile.EMPTY_ARRAY);
-  }
+  /**
+   * Fetches step values of the annotations of the given step methods of the module in a row, once per PSI modification.
+   * If it's canceled, the next call continues with the values which are not fetched yet.
+   */
+  public static void prefetchStepValues(Module module, Collection<PsiMethod> stepMethods) {
+    AtomicBoolean prefetched = CachedValuesManager.getManager(module.getProject()).getCachedValue(module, () ->
+      CachedValueProvider.Result.create(new AtomicBoolean(), PsiModificationTracker.MODIFICATION_COUNT));
+    if (prefetched.get()) return;
 
-  private static PsiMethod findStepImplementationMethod(Collection<PsiMethod> stepMethods, SpecStep step, Module module) {
-    String stepText = step.getStepValue().getStepText();
+    List<String> annotationValues = new ArrayList<>();
     for (PsiMethod stepMethod : stepMethods) {
-      if (isMatch(stepMethod, stepText, module)) {
-        return stepMethod;
+      annotationValues.addAll(getGaugeStepAnnotationValues(stepMethod));
+    }
+    SpecPsiImplUtil.prefetchStepValues(module, annotationValues);
+    prefetched.set(true);
+  }
+
+  /**
+   * Returns concepts with the given step text, see {@link #getStepKey(SpecStep)}.
+   */
+  public static List<ConceptConceptImpl> findConcepts(String stepKey, Project project) {
+    return findIndexedElements(stepKey, GlobalSearchScope.allScope(project), ConceptFileType.INSTANCE, project, ConceptConceptImpl.class);
+  }
+
+  /**
+   * Returns step methods which aren't stored in {@link StepImplementationIndex} under their step text:
+   * methods with annotation values other than literals and compiled methods of libraries.
+   * Step texts of these are known from the Gauge process only.
+   */
+  public static Collection<PsiMethod> getNonIndexedStepMethods(Module module) {
+    List<PsiMethod> methods = new ArrayList<>(
+      findIndexedElements(StepImplementationIndex.NON_LITERAL_KEY, getStepMethodsScope(module), JavaFileType.INSTANCE, module.getProject(),
+                          PsiMethod.class));
+    methods.addAll(getLibraryStepMethods(module));
+    return methods;
+  }
+
+  private static Collection<PsiMethod> getLibraryStepMethods(Module module) {
+    Project project = module.getProject();
+    return CachedValuesManager.getManager(project).getCachedValue(module, () -> {
+      GlobalSearchScope scope = getStepMethodsScope(module).intersectWith(ProjectScope.getLibrariesScope(project));
+      return CachedValueProvider.Result.create(findStepMethods(project, scope), ProjectRootManager.getInstance(project));
+    });
+  }
+
+  private static <T extends PsiElement> List<T> findIndexedElements(String stepKey,
+                                                                    GlobalSearchScope scope,
+                                                                    FileType fileType,
+                                                                    Project project,
+                                                                    Class<T> elementClass) {
+    List<T> elements = new ArrayList<>();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    StepImplementationIndex.getImplementations(stepKey, scope, fileType).forEach((file, implementations) -> {
+      PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile == null) return;
+      for (StepImplementationIndex.Implementation implementation : implementations) {
+        T element = PsiTreeUtil.getParentOfType(psiFile.findElementAt(implementation.getOffset()), elementClass, false);
+        if (element != null && !elements.contains(element)) {
+          elements.add(element);
+        }
       }
+    });
+    return elements;
+  }
+
+  /**
+   * Returns the scope with step methods which steps of the module can be implemented by.
+   */
+  public static GlobalSearchScope getStepMethodsScope(Module module) {
+    GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
+    List<GlobalSearchScope> scopes = new ArrayList<>();
+    for (Module m : bootstrapService.getSubModules(module)) {
+      if (m.isDisposed()) continue;
+
+      scopes.add(GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(m, true));
     }
-    return null;
+    if (scopes.isEmpty()) {
+      return GlobalSearchScope.EMPTY_SCOPE;
+    }
+    return GlobalSearchScope.union(scopes.toArray(GlobalSearchScope.EMPTY_ARRAY));
   }
 
   public static boolean isMatch(PsiMethod stepMethod, String stepText, Module module) {
@@ -140,16 +179,6 @@ public final class StepUtil {
     return false;
   }
 
-  public static StepValue getStepValue(final GaugeConnection connection, final String text, Boolean hasInlineTable) {
-    String stepText = hasInlineTable ? text + " <table>" : text;
-    StepValue value = stepValueCache.get(stepText);
-    if (value == null || value.getStepText().isEmpty()) {
-      value = connection.getStepValue(text, hasInlineTable);
-      stepValueCache.put(stepText, value);
-    }
-    return value;
-  }
-
   public static List<String> getGaugeStepAnnotationValues(PsiMethod stepMethod) {
     final PsiModifierList modifierList = stepMethod.getModifierList();
     final PsiAnnotation[] annotations = modifierList.getAnnotations();
@@ -189,19 +218,13 @@ public final class StepUtil {
   }
 
   public static Collection<PsiMethod> getStepMethods(Module module) {
-    final PsiClass step = JavaPsiFacade.getInstance(module.getProject())
-      .findClass("com.thoughtworks.gauge.Step", GlobalSearchScope.allScope(module.getProject()));
-    if (step != null) {
-      GaugeBootstrapService bootstrapService = GaugeBootstrapService.getInstance(module.getProject());
-
-      Collection<PsiMethod> methods = new ArrayList<>();
-      for (Module m : bootstrapService.getSubModules(module)) {
-        if (m.isDisposed()) continue;
+    return findStepMethods(module.getProject(), getStepMethodsScope(module));
+  }
 
-        methods.addAll(
-          AnnotatedElementsSearch.searchPsiMethods(step, GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(m, true)).findAll());
-      }
-      return methods;
+  private static Collection<PsiMethod> findStepMethods(Project project, GlobalSearchScope scope) {
+    final PsiClass step = JavaPsiFacade.getInstance(project).findClass("com.thoughtworks.gauge.Step", GlobalSearchScope.allScope(project));
+    if (step != null) {
+      return AnnotatedElementsSearch.searchPsiMethods(step, scope).findAll();
     }
     return new ArrayList<>();
   }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.core;
+
+import com.intellij.openapi.util.Pair;
+import com.thoughtworks.gauge.StepValue;
+import com.thoughtworks.gauge.connection.GaugeConnection;
+import gauge.messages.Api;
+import gauge.messages.Spec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class StepValueCacheTest {
+  private ServerSocket serverSocket;
+  private Thread serverThread;
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  @Before
+  public void setUp() throws IOException {
+    serverSocket = new ServerSocket(0);
+    serverThread = new Thread(this::serve, "fake gauge api");
+    serverThread.setDaemon(true);
+    serverThread.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    serverSocket.close();
+    serverThread.join(1000);
+  }
+
+  @Test
+  public void shouldRequestEachStepOnce() {
+    StepValueCache cache = new StepValueCache(new GaugeConnection(serverSocket.getLocalPort()));
+
+    StepValue value = cache.getStepValue("Say \"hello\" to <name>", false);
+    assertEquals("Say {} to {}", value.getStepText());
+    cache.getStepValue("Say \"hello\" to <name>", false);
+    assertEquals(1, requestCount.get());
+
+    cache.getStepValue("Say \"hello\" to <name>", true);
+    assertEquals(2, requestCount.get());
+  }
+
+  @Test
+  public void shouldPrefetchMissingSteps() {
+    StepValueCache cache = new StepValueCache(new GaugeConnection(serverSocket.getLocalPort()));
+    cache.getStepValue("step 0", false);
+
+    List<Pair<String, Boolean>> steps = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      steps.add(Pair.create("step " + i, false));
+      steps.add(Pair.create("step " + i, false));
+    }
+    cache.prefetch(steps);
+    assertEquals(100, requestCount.get());
+
+    for (int i = 0; i < 100; i++) {
+      assertEquals("step " + i, cache.getStepValue("step " + i, false).getStepText());
+    }
+    assertEquals(100, requestCount.get());
+  }
+
+  @Test
+  public void shouldNotShareValuesBetweenConnections() {
+    new StepValueCache(new GaugeConnection(serverSocket.getLocalPort())).getStepValue("step", false);
+    // a restarted Gauge process gets a new connection, its steps might be implemented differently
+    new StepValueCache(new GaugeConnection(serverSocket.getLocalPort())).getStepValue("step", false);
+    assertEquals(2, requestCount.get());
+  }
+
+  private void serve() {
+    while (!serverSocket.isClosed()) {
+      try (Socket socket = serverSocket.accept()) {
+        InputStream input = socket.getInputStream();
+        OutputStream output = socket.getOutputStream();
+        Api.APIMessage request;
+        while ((request = Api.APIMessage.parseDelimitedFrom(input)) != null) {
+          requestCount.incrementAndGet();
+          respond(request).writeDelimitedTo(output);
+          output.flush();
+        }
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+
+  private static Api.APIMessage respond(Api.APIMessage request) {
+    String stepText = request.getStepValueRequest().getStepText();
+    Spec.ProtoStepValue value = Spec.ProtoStepValue.newBuilder()
+      .setStepValue(stepText.replaceAll("\"[^\"]*\"|<[^>]*>", "{}"))
+      .setParameterizedStepValue(stepText)
+      .build();
+    return Api.APIMessage.newBuilder()
+      .setMessageType(Api.APIMessage.APIMessageType.GetStepValueResponse)
+      .setMessageId(request.getMessageId())
+      .setStepValueResponse(Api.GetStepValueResponse.newBuilder().setStepValue(value))
+      .build();
+  }
+}
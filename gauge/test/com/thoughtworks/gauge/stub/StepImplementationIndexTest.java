@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 ThoughtWorks, Inc.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.thoughtworks.gauge.stub;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+import com.thoughtworks.gauge.language.ConceptFileType;
+import com.thoughtworks.gauge.language.psi.SpecStep;
+import com.thoughtworks.gauge.language.psi.impl.ConceptStepImpl;
+import com.thoughtworks.gauge.util.StepUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StepImplementationIndexTest extends LightJavaCodeInsightFixtureTestCase {
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addClass("package com.thoughtworks.gauge;\n" +
+                       "public @interface Step { String[] value(); }");
+  }
+
+  public void testStepKey() {
+    assertEquals("Say {} to {}", StepImplementationIndex.getStepKey("Say \"hello\" to <name>", false));
+    assertEquals("Say {} to {}", StepImplementationIndex.getStepKey("Say <greeting> to <name>", false));
+    assertEquals("Say {} {}", StepImplementationIndex.getStepKey(" Say \"a \\\" quote\" ", true));
+    assertEquals("Say \"unclosed", StepImplementationIndex.getStepKey("Say \"unclosed", false));
+  }
+
+  public void testIndexedImplementations() {
+    myFixture.addClass("import com.thoughtworks.gauge.Step;\n" +
+                       "public class Steps {\n" +
+                       "  @Step(\"Say <greeting> to <name>\") public void say(String greeting, String name) {}\n" +
+                       "  @Step({\"Open <page>\", \"Visit <page>\"}) public void open(String page) {}\n" +
+                       "  @Step(Constants.STEP) public void constant() {}\n" +
+                       "  @Deprecated public void notAStep() {}\n" +
+                       "}");
+    myFixture.addClass("public class Other {\n" +
+                       "  @Step(\"Say <greeting> to <name>\") public void notGauge() {}\n" +
+                       "}");
+    myFixture.addFileToProject("greetings.cpt", "# Greet <name>\n" +
+                                                "* Say \"hello\" to <name>\n");
+
+    GlobalSearchScope scope = GlobalSearchScope.projectScope(getProject());
+    assertSize(1, StepImplementationIndex.getImplementations("Say {} to {}", scope, JavaFileType.INSTANCE).keySet());
+    assertSize(1, StepImplementationIndex.getImplementations("Visit {}", scope, JavaFileType.INSTANCE).keySet());
+    assertSize(1, StepImplementationIndex.getImplementations(StepImplementationIndex.NON_LITERAL_KEY, scope, JavaFileType.INSTANCE).keySet());
+    assertSize(1, StepImplementationIndex.getImplementations("Greet {}", scope, ConceptFileType.INSTANCE).keySet());
+    assertEmpty(StepImplementationIndex.getImplementations("Greet {}", scope, JavaFileType.INSTANCE).keySet());
+  }
+
+  public void testFindStepImpl() {
+    myFixture.addClass("import com.thoughtworks.gauge.Step;\n" +
+                       "public class Steps {\n" +
+                       "  @Step(\"Say <greeting> to <name>\") public void say(String greeting, String name) {}\n" +
+                       "}");
+    myFixture.addFileToProject("greetings.cpt", "# Greet <name> with <table>\n" +
+                                                "* Say \"hello\" to <name>\n");
+    PsiFile spec = myFixture.addFileToProject("greetings.spec", "# Greetings\n" +
+                                                                "## Greet\n" +
+                                                                "* Say \"hello\" to \"world\"\n" +
+                                                                "* Greet \"world\" with\n" +
+                                                                "   |id|\n" +
+                                                                "   |--|\n" +
+                                                                "   |1 |\n" +
+                                                                "* Greet \"world\" with\n");
+    List<SpecStep> steps = new ArrayList<>(PsiTreeUtil.findChildrenOfType(spec, SpecStep.class));
+    assertSize(3, steps);
+
+    PsiElement method = StepUtil.findStepImpl(steps.get(0), getModule());
+    assertTrue(method instanceof PsiMethod);
+    assertEquals("say", ((PsiMethod)method).getName());
+    assertTrue(StepUtil.findStepImpl(steps.get(1), getModule()) instanceof ConceptStepImpl);
+    assertNull(StepUtil.findStepImpl(steps.get(2), getModule()));
+  }
+
+  public void testAllImplementations() {
+    for (int i = 0; i < 10; i++) {
+      StringBuilder text = new StringBuilder("import com.thoughtworks.gauge.Step;\npublic class Steps" + i + " {\n");
+      for (int j = 0; j < 10; j++) {
+        text.append("  @Step(\"Step ").append(i).append(' ').append(j).append(" with <param>\") public void step").append(j)
+          .append("(String param) {}\n");
+      }
+      myFixture.addFileToProject("steps/Steps" + i + ".java", text.append("}").toString());
+    }
+    myFixture.addFileToProject("other/Other.java", "public class Other {\n" +
+                                                    "  @Step(\"Not a gauge step\") public void notGauge() {}\n" +
+                                                    "}");
+
+    Map<String, String> texts = new HashMap<>();
+    assertTrue(StepImplementationIndex.processAllImplementations(GlobalSearchScope.projectScope(getProject()), JavaFileType.INSTANCE,
+                                                                 (key, implementation) -> {
+                                                                   texts.put(key, implementation.getText());
+                                                                   return true;
+                                                                 }));
+    assertSize(100, texts.keySet());
+    assertEquals("Step 3 4 with <param>", texts.get("Step 3 4 with {}"));
+    assertFalse(texts.containsKey("Not a gauge step"));
+
+    int[] processed = new int[1];
+    assertFalse(StepImplementationIndex.processAllImplementations(GlobalSearchScope.projectScope(getProject()), JavaFileType.INSTANCE,
+                                                                  (key, implementation) -> ++processed[0] < 5));
+    assertEquals(5, processed[0]);
+  }
+}
@@ -42,6 +42,8 @@ function configureCoverage(config) {
       type : 'lcovonly',
       dir : path.join(intellijParameters.getCoverageTempDirPath())
     });
+    config.files = config.files || [];
+    config.files.push({pattern: path.join(__dirname, 'karma-intellij-spec-coverage.js'), included: true, served: true, watched: false});
     configureKarmaTypeScript(config);
   }
   else if (canCoverageBeDisabledSafely(config.coverageReporter)) {
@@ -90,13 +92,69 @@ function sendCoverageReportFile(filePath) {
   intellijUtil.sendIntellijEvent('coverageFinished', filePath || '');
 }
 
+/**
+ * Collects the files used by each top-level suite and all instrumented files, reported by karma-intellij-spec-coverage.js in the browser
+ */
+function TestDependencies() {
+  this.filesBySuite = {};
+  this.instrumentedFiles = {};
+  this.empty = true;
+}
+
+TestDependencies.prototype.add = function (result) {
+  var files = result.intellijCalledFiles;
+  if (!Array.isArray(files)) {
+    return;
+  }
+  var instrumentedFiles = this.instrumentedFiles;
+  (result.intellijInstrumentedFiles || []).forEach(function (file) {
+    instrumentedFiles[file] = true;
+  });
+  var suiteNames = result.suite || [];
+  if (suiteNames.length > 0 && 'Jasmine__TopLevel__Suite' === suiteNames[0]) {
+    suiteNames = suiteNames.slice(1);
+  }
+  var topLevelSuite = suiteNames.length > 0 ? suiteNames[0] : result.description;
+  if (topLevelSuite == null) {
+    return;
+  }
+  var suiteFiles = this.filesBySuite[topLevelSuite];
+  if (!suiteFiles) {
+    suiteFiles = {};
+    this.filesBySuite[topLevelSuite] = suiteFiles;
+  }
+  files.forEach(function (file) {
+    suiteFiles[file] = true;
+  });
+  this.empty = false;
+};
+
+TestDependencies.prototype.send = function () {
+  if (this.empty) {
+    return;
+  }
+  var suites = {};
+  var filesBySuite = this.filesBySuite;
+  Object.keys(filesBySuite).forEach(function (suite) {
+    suites[suite] = Object.keys(filesBySuite[suite]);
+  });
+  var event = {suites: suites, instrumentedFiles: Object.keys(this.instrumentedFiles)};
+  intellijUtil.sendIntellijEvent('testDependencies', event);
+};
+
 function IntellijCoverageReporter(config) {
   this.adapters = [];
   var initialCoverageReports;
+  var testDependencies = new TestDependencies();
   this.onRunStart = function () {
     initialCoverageReports = findCoverageReports(config);
+    testDependencies = new TestDependencies();
+  };
+  this.onSpecComplete = function (browser, result) {
+    testDependencies.add(result);
   };
   this.onRunComplete = function () {
+    testDependencies.send();
     checkRepeatedlyUntilPassed(function (expired) {
       var coverageReports = findCoverageReports(config);
       var filePath = findModifiedCoverageReport(initialCoverageReports, coverageReports);
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+ */
+
+// Runs in the browser when running with coverage.
+// Adds to each spec result the instrumented files which code was run since the previous result.
+// Function and statement counters are replaced with accessors marking their file as touched, so a result costs as much
+// as the files touched by its spec rather than all the counters of all files.
+// Statements are tracked too: code run at the top level of a file, or by callbacks istanbul counts no function for, has no function counter.
+// Each result also lists the instrumented files found since the previous one, so that changes of files no spec ran can be told apart.
+
+(function (window) {
+  var karma = window.__karma__;
+  if (!karma || typeof karma.result !== 'function') {
+    return;
+  }
+  var trackedFiles = {};
+  var trackedFileCount = 0;
+  var touchedFiles = {};
+  var newFiles = [];
+
+  // a file with code run before it was tracked is touched as well
+  function trackFile(key, fileCoverage) {
+    // istanbul 1.x keeps counters in 'data'
+    var data = fileCoverage && fileCoverage.data ? fileCoverage.data : fileCoverage;
+    if (data == null || (data.f == null && data.s == null)) {
+      return;
+    }
+    var path = data.path || key;
+    newFiles.push(path);
+    var functionsCalled = trackCounters(data.f, key, path);
+    var statementsRun = trackCounters(data.s, key, path);
+    if (functionsCalled || statementsRun) {
+      touchedFiles[key] = path;
+    }
+  }
+
+  // returns whether any of the counters is already non-zero
+  function trackCounters(counts, key, path) {
+    if (counts == null) {
+      return false;
+    }
+    var run = false;
+    Object.keys(counts).forEach(function (id) {
+      var count = counts[id];
+      run = run || count > 0;
+      Object.defineProperty(counts, id, {
+        enumerable: true,
+        configurable: true,
+        get: function () {
+          return count;
+        },
+        set: function (value) {
+          count = value;
+          touchedFiles[key] = path;
+        }
+      });
+    });
+    return run;
+  }
+
+  function takeCalledFiles() {
+    var coverage = window.__coverage__;
+    if (coverage != null) {
+      var keys = Object.keys(coverage);
+      if (keys.length !== trackedFileCount) {
+        keys.forEach(function (key) {
+          if (!Object.prototype.hasOwnProperty.call(trackedFiles, key)) {
+            trackedFiles[key] = true;
+            trackedFileCount++;
+            trackFile(key, coverage[key]);
+          }
+        });
+      }
+    }
+    var files = [];
+    for (var key in touchedFiles) {
+      if (Object.prototype.hasOwnProperty.call(touchedFiles, key)) {
+        files.push(touchedFiles[key]);
+      }
+    }
+    touchedFiles = {};
+    return files;
+  }
+
+  function takeNewFiles() {
+    var files = newFiles;
+    newFiles = [];
+    return files;
+  }
+
+  var originalLoaded = karma.loaded;
+  if (typeof originalLoaded === 'function') {
+    karma.loaded = function () {
+      // calls made while loading the files don't belong to any spec
+      takeCalledFiles();
+      return originalLoaded.apply(this, arguments);
+    };
+  }
+
+  var originalResult = karma.result;
+  karma.result = function (result) {
+    if (result != null && typeof result === 'object') {
+      result.intellijCalledFiles = takeCalledFiles();
+      result.intellijInstrumentedFiles = takeNewFiles();
+    }
+    return originalResult.apply(this, arguments);
+  };
+})(window);
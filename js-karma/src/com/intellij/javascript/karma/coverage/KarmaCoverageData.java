@@ -0,0 +1,139 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.javascript.karma.coverage;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.rt.coverage.data.ClassData;
+import com.intellij.rt.coverage.data.LineData;
+import com.intellij.rt.coverage.data.ProjectData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Line coverage gathered by the runs of a Karma server.
+ * <p>
+ * Each file keeps execution counts in a single array indexed by line number. A file whose lcov record didn't change
+ * since the previous run isn't decoded again. Runs of some of the tests are merged into the data of previous runs,
+ * so that running a single suite doesn't hide the coverage of others.
+ */
+public final class KarmaCoverageData {
+  private static final Logger LOG = Logger.getInstance(KarmaCoverageData.class);
+
+  private Map<String, FileCoverage> myFiles = new HashMap<>();
+
+  /**
+   * @param partialRun     whether only some of the tests were run
+   * @param pathConverter  converts paths of the tracefile to local system-independent paths
+   */
+  public synchronized void update(@NotNull File lcovFile,
+                                  boolean partialRun,
+                                  @NotNull Function<? super String, String> pathConverter) throws IOException {
+    Map<String, FileCoverage> oldFiles = myFiles;
+    Map<String, FileCoverage> newFiles = partialRun ? new HashMap<>(oldFiles) : new HashMap<>();
+    int[] unchanged = new int[1];
+    long start = System.nanoTime();
+    try (InputStream input = new BufferedInputStream(Files.newInputStream(lcovFile.toPath()))) {
+      new KarmaLcovParser().parse(input, record -> {
+        String sourcePath = record.getSourcePath();
+        FileCoverage old = oldFiles.get(sourcePath);
+        if (old != null && old.myContentHash == record.getContentHash() && (partialRun || !old.myMerged)) {
+          newFiles.put(sourcePath, old);
+          unchanged[0]++;
+          return;
+        }
+        String localPath = old != null ? old.myLocalPath : pathConverter.apply(sourcePath);
+        int[] lineHits = record.toLineHits();
+        boolean merged = false;
+        if (partialRun && old != null) {
+          int[] mergedHits = merge(old.myLineHits, lineHits);
+          merged = mergedHits != lineHits;
+          lineHits = mergedHits;
+        }
+        newFiles.put(sourcePath, new FileCoverage(localPath, record.getContentHash(), lineHits, merged));
+      });
+    }
+    myFiles = newFiles;
+    LOG.info("Loaded " + (partialRun ? "partial " : "") + "coverage of " + newFiles.size() + " files (" + unchanged[0] + " unchanged) in " +
+             (System.nanoTime() - start) / 1_000_000 + "ms");
+  }
+
+  /**
+   * Lines with code which ran in the previous run keep their counts when a partial run didn't run them.
+   * If the lines with code differ, the file has changed and the old counts are dropped.
+   */
+  private static int @NotNull [] merge(int @NotNull [] oldHits, int @NotNull [] newHits) {
+    if (oldHits.length != newHits.length) {
+      return newHits;
+    }
+    int[] result = null;
+    for (int i = 0; i < newHits.length; i++) {
+      if ((oldHits[i] < 0) != (newHits[i] < 0)) {
+        return newHits;
+      }
+      if (newHits[i] == 0 && oldHits[i] > 0) {
+        if (result == null) {
+          result = newHits.clone();
+        }
+        result[i] = oldHits[i];
+      }
+    }
+    return result != null ? result : newHits;
+  }
+
+  @NotNull
+  public synchronized ProjectData toProjectData() {
+    ProjectData projectData = new ProjectData();
+    for (FileCoverage file : myFiles.values()) {
+      int[] lineHits = file.myLineHits;
+      LineData[] lines = new LineData[lineHits.length];
+      for (int line = 0; line < lineHits.length; line++) {
+        if (lineHits[line] >= 0) {
+          LineData lineData = new LineData(line, null);
+          lineData.setHits(lineHits[line]);
+          lines[line] = lineData;
+        }
+      }
+      ClassData classData = projectData.getOrCreateClassData(file.myLocalPath);
+      classData.setLines(lines);
+    }
+    return projectData;
+  }
+
+  synchronized int getFileCount() {
+    return myFiles.size();
+  }
+
+  /**
+   * @return execution counts indexed by line number, {@code -1} for lines without code
+   */
+  synchronized int @Nullable [] getLineHits(@NotNull String localPath) {
+    for (FileCoverage file : myFiles.values()) {
+      if (file.myLocalPath.equals(localPath)) {
+        return file.myLineHits;
+      }
+    }
+    return null;
+  }
+
+  private static final class FileCoverage {
+    private final String myLocalPath;
+    private final long myContentHash;
+    private final int[] myLineHits;
+    private final boolean myMerged;
+
+    private FileCoverage(@NotNull String localPath, long contentHash, int @NotNull [] lineHits, boolean merged) {
+      myLocalPath = localPath;
+      myContentHash = contentHash;
+      myLineHits = lineHits;
+      myMerged = merged;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package com.intellij.javascript.karma.coverage;
 
 import com.google.gson.JsonElement;
 import com.intellij.javascript.karma.server.KarmaServer;
+import com.intellij.javascript.karma.server.KarmaTestDependencies;
 import com.intellij.javascript.karma.server.StreamEventHandler;
 import com.intellij.javascript.nodejs.interpreter.NodeInterpreterUtil;
 import com.intellij.openapi.util.io.FileUtil;
@@ -17,6 +18,8 @@ import java.io.IOException;
 public class KarmaCoveragePeer {
 
   private final File myCoverageTempDir;
+  private final KarmaTestDependencies myTestDependencies = new KarmaTestDependencies();
+  private final KarmaCoverageData myCoverageData = new KarmaCoverageData();
   private volatile KarmaCoverageSession myActiveCoverageSession;
 
   public KarmaCoveragePeer() throws IOException {
@@ -28,6 +31,16 @@ public class KarmaCoveragePeer {
     return myCoverageTempDir;
   }
 
+  @NotNull
+  public KarmaTestDependencies getTestDependencies() {
+    return myTestDependencies;
+  }
+
+  @NotNull
+  public KarmaCoverageData getCoverageData() {
+    return myCoverageData;
+  }
+
   public void startCoverageSession(@NotNull KarmaCoverageSession coverageSession) {
     // clear directory
     if (myCoverageTempDir.isDirectory()) {
@@ -43,6 +56,8 @@ public class KarmaCoveragePeer {
   }
 
   public void registerEventHandlers(@NotNull final KarmaServer server) {
+    server.registerStreamEventHandler(myTestDependencies.createEventHandler(
+      path -> NodeInterpreterUtil.convertRemotePathToLocal(path, server.getServerSettings().getNodeInterpreter())));
     server.registerStreamEventHandler(new StreamEventHandler() {
       @NotNull
       @Override
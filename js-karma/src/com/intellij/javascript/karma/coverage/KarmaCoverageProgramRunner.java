@@ -4,6 +4,7 @@ import com.intellij.coverage.CoverageDataManager;
 import com.intellij.coverage.CoverageExecutor;
 import com.intellij.coverage.CoverageHelper;
 import com.intellij.coverage.CoverageRunnerData;
+import com.intellij.coverage.CoverageSuite;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.ExecutionResult;
 import com.intellij.execution.configurations.*;
@@ -16,6 +17,8 @@ import com.intellij.execution.ui.RunContentDescriptor;
 import com.intellij.javascript.karma.KarmaBundle;
 import com.intellij.javascript.karma.execution.KarmaConsoleView;
 import com.intellij.javascript.karma.execution.KarmaRunConfiguration;
+import com.intellij.javascript.karma.execution.KarmaRunProfileState;
+import com.intellij.javascript.karma.scope.KarmaScopeKind;
 import com.intellij.javascript.karma.server.KarmaServer;
 import com.intellij.javascript.karma.util.KarmaUtil;
 import com.intellij.openapi.diagnostic.Logger;
@@ -81,6 +84,11 @@ public class KarmaCoverageProgramRunner extends GenericProgramRunner {
     RunConfigurationBase runConfiguration = (RunConfigurationBase)env.getRunProfile();
     CoverageEnabledConfiguration coverageEnabledConfiguration = CoverageEnabledConfiguration.getOrCreate(runConfiguration);
     CoverageHelper.resetCoverageSuit(runConfiguration);
+    CoverageSuite coverageSuite = coverageEnabledConfiguration.getCurrentCoverageSuite();
+    if (coverageSuite instanceof KarmaCoverageSuite) {
+      // the data of a partial run is merged into the data of previous runs, e.g. when running a single suite
+      ((KarmaCoverageSuite)coverageSuite).setPartialRun(isPartialRun(env, runConfiguration));
+    }
     String coverageFilePath = coverageEnabledConfiguration.getCoverageFilePath();
     if (coverageFilePath != null) {
       KarmaCoveragePeer coveragePeer = server.getCoveragePeer();
@@ -140,4 +148,12 @@ public class KarmaCoverageProgramRunner extends GenericProgramRunner {
       CoverageDataManager.getInstance(env.getProject()).processGatheredCoverage(runConfiguration, runnerSettings);
     }
   }
+
+  private static boolean isPartialRun(@NotNull ExecutionEnvironment env, @NotNull RunConfigurationBase runConfiguration) {
+    if (env.getUserData(KarmaRunProfileState.AFFECTED_TESTS_ONLY) == Boolean.TRUE) {
+      return true;
+    }
+    return runConfiguration instanceof KarmaRunConfiguration &&
+           ((KarmaRunConfiguration)runConfiguration).getRunSettings().getScopeKind() != KarmaScopeKind.ALL;
+  }
 }
@@ -6,8 +6,10 @@ import com.intellij.coverage.CoverageRunner;
 import com.intellij.coverage.CoverageSuite;
 import com.intellij.javascript.karma.KarmaConfig;
 import com.intellij.javascript.karma.server.KarmaServer;
-import com.intellij.javascript.testing.CoverageProjectDataLoader;
+import com.intellij.javascript.nodejs.interpreter.NodeInterpreterUtil;
+import com.intellij.javascript.nodejs.interpreter.NodeJsInterpreter;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.rt.coverage.data.ProjectData;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -38,8 +40,19 @@ public class KarmaCoverageRunner extends CoverageRunner {
     if (basePath != null) {
       File basePathDir = new File(basePath);
       if (basePathDir.isAbsolute() && basePathDir.isDirectory()) {
+        boolean partialRun = baseCoverageSuite instanceof KarmaCoverageSuite && ((KarmaCoverageSuite)baseCoverageSuite).isPartialRun();
+        KarmaCoveragePeer coveragePeer = myKarmaServer.getCoveragePeer();
+        KarmaCoverageData coverageData = coveragePeer != null ? coveragePeer.getCoverageData() : new KarmaCoverageData();
+        NodeJsInterpreter interpreter = myKarmaServer.getServerSettings().getNodeInterpreter();
         try {
-          return CoverageProjectDataLoader.readProjectData(sessionDataFile, basePathDir, myKarmaServer.getServerSettings().getNodeInterpreter());
+          coverageData.update(sessionDataFile, partialRun, path -> {
+            File file = new File(NodeInterpreterUtil.convertRemotePathToLocal(path, interpreter));
+            if (!file.isAbsolute()) {
+              file = new File(basePathDir, file.getPath());
+            }
+            return FileUtil.toCanonicalPath(file.getPath());
+          });
+          return coverageData.toProjectData();
         }
         catch (Exception e) {
           LOG.warn("Can't read coverage data", e);
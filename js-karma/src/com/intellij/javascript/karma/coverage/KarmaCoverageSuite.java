@@ -11,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 public class KarmaCoverageSuite extends BaseCoverageSuite {
 
   private final KarmaCoverageEngine myKarmaCoverageEngine;
+  private volatile boolean myPartialRun;
 
   public KarmaCoverageSuite(KarmaCoverageEngine karmaCoverageEngine) {
     myKarmaCoverageEngine = karmaCoverageEngine;
@@ -30,6 +31,17 @@ public class KarmaCoverageSuite extends BaseCoverageSuite {
     myKarmaCoverageEngine = karmaCoverageEngine;
   }
 
+  /**
+   * Whether only some of the tests were run, see {@link KarmaCoverageData#update}.
+   */
+  public boolean isPartialRun() {
+    return myPartialRun;
+  }
+
+  public void setPartialRun(boolean partialRun) {
+    myPartialRun = partialRun;
+  }
+
   @NotNull
   @Override
   public CoverageEngine getCoverageEngine() {
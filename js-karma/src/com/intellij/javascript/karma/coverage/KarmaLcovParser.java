@@ -0,0 +1,197 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.javascript.karma.coverage;
+
+import com.intellij.util.ArrayUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reads an lcov tracefile record by record without decoding it as text.
+ * Only {@code SF} and {@code DA} lines are interpreted, the rest of a record contributes to its content hash only.
+ */
+final class KarmaLcovParser {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final byte[] SOURCE_FILE = bytes("SF:");
+  private static final byte[] LINE_DATA = bytes("DA:");
+  private static final byte[] END_OF_RECORD = bytes("end_of_record");
+
+  private final Record myRecord = new Record();
+  private byte[] myLine = new byte[256];
+  private int myLineLength;
+  private boolean myInRecord;
+
+  /**
+   * @param consumer receives the same reusable {@link Record} instance for each record
+   */
+  void parse(@NotNull InputStream input, @NotNull Consumer<? super Record> consumer) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      int lineStart = 0;
+      for (int i = 0; i < read; i++) {
+        if (buffer[i] == '\n') {
+          appendToLine(buffer, lineStart, i - lineStart);
+          processLine(consumer);
+          lineStart = i + 1;
+        }
+      }
+      appendToLine(buffer, lineStart, read - lineStart);
+    }
+    if (myLineLength > 0) {
+      processLine(consumer);
+    }
+    if (myInRecord) {
+      // tolerate a truncated last record
+      myInRecord = false;
+      consumer.accept(myRecord);
+    }
+  }
+
+  private void appendToLine(byte[] buffer, int start, int length) {
+    if (myLineLength + length > myLine.length) {
+      myLine = Arrays.copyOf(myLine, Math.max(myLine.length * 2, myLineLength + length));
+    }
+    System.arraycopy(buffer, start, myLine, myLineLength, length);
+    myLineLength += length;
+  }
+
+  private void processLine(@NotNull Consumer<? super Record> consumer) {
+    int length = myLineLength;
+    myLineLength = 0;
+    if (length > 0 && myLine[length - 1] == '\r') {
+      length--;
+    }
+    if (startsWith(myLine, length, SOURCE_FILE)) {
+      if (myInRecord) {
+        consumer.accept(myRecord);
+      }
+      myRecord.reset(new String(myLine, SOURCE_FILE.length, length - SOURCE_FILE.length, StandardCharsets.UTF_8).trim());
+      myInRecord = true;
+      return;
+    }
+    if (!myInRecord) {
+      return;
+    }
+    if (length == END_OF_RECORD.length && startsWith(myLine, length, END_OF_RECORD)) {
+      myInRecord = false;
+      consumer.accept(myRecord);
+      return;
+    }
+    myRecord.hash(myLine, length);
+    if (startsWith(myLine, length, LINE_DATA)) {
+      parseLineData(length);
+    }
+  }
+
+  private void parseLineData(int length) {
+    // DA:<line number>,<execution count>[,<checksum>]
+    int ind = LINE_DATA.length;
+    long line = 0;
+    while (ind < length && isDigit(myLine[ind])) {
+      line = line * 10 + (myLine[ind++] - '0');
+      if (line > Integer.MAX_VALUE) return;
+    }
+    if (ind == LINE_DATA.length || ind >= length || myLine[ind++] != ',') {
+      return;
+    }
+    int hitsStart = ind;
+    long hits = 0;
+    while (ind < length && isDigit(myLine[ind])) {
+      hits = Math.min(hits * 10 + (myLine[ind++] - '0'), Integer.MAX_VALUE);
+    }
+    if (ind == hitsStart || ind < length && myLine[ind] != ',') {
+      return;
+    }
+    myRecord.addLine((int)line, (int)hits);
+  }
+
+  private static boolean isDigit(byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private static boolean startsWith(byte[] line, int length, byte[] prefix) {
+    if (length < prefix.length) return false;
+    for (int i = 0; i < prefix.length; i++) {
+      if (line[i] != prefix[i]) return false;
+    }
+    return true;
+  }
+
+  private static byte[] bytes(@NotNull String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  static final class Record {
+    private String mySourcePath;
+    private long myContentHash;
+    private int[] myLines = new int[1024];
+    private int[] myHits = new int[1024];
+    private int myLineCount;
+    private int myMaxLine;
+
+    private void reset(@NotNull String sourcePath) {
+      mySourcePath = sourcePath;
+      myContentHash = FNV_OFFSET_BASIS;
+      myLineCount = 0;
+      myMaxLine = 0;
+    }
+
+    private void hash(byte[] line, int length) {
+      long hash = myContentHash;
+      for (int i = 0; i < length; i++) {
+        hash = (hash ^ line[i]) * FNV_PRIME;
+      }
+      myContentHash = (hash ^ '\n') * FNV_PRIME;
+    }
+
+    private void addLine(int line, int hits) {
+      if (myLineCount == myLines.length) {
+        myLines = Arrays.copyOf(myLines, myLineCount * 2);
+        myHits = Arrays.copyOf(myHits, myLineCount * 2);
+      }
+      myLines[myLineCount] = line;
+      myHits[myLineCount] = hits;
+      myLineCount++;
+      myMaxLine = Math.max(myMaxLine, line);
+    }
+
+    /**
+     * @return path as written in the tracefile, may be relative or belong to a remote file system
+     */
+    @NotNull
+    String getSourcePath() {
+      return mySourcePath;
+    }
+
+    /**
+     * Hash of everything in the record after the source file line.
+     */
+    long getContentHash() {
+      return myContentHash;
+    }
+
+    /**
+     * @return execution counts indexed by line number, {@code -1} for lines without code
+     */
+    int @NotNull [] toLineHits() {
+      if (myLineCount == 0) {
+        return ArrayUtil.EMPTY_INT_ARRAY;
+      }
+      int[] result = new int[myMaxLine + 1];
+      Arrays.fill(result, -1);
+      for (int i = 0; i < myLineCount; i++) {
+        int line = myLines[i];
+        int hits = myHits[i];
+        result[line] = result[line] < 0 ? hits : (int)Math.min((long)result[line] + hits, Integer.MAX_VALUE);
+      }
+      return result;
+    }
+  }
+}
@@ -14,6 +14,7 @@ import com.intellij.javascript.karma.scope.KarmaScopeKind;
 import com.intellij.javascript.karma.server.KarmaJsSourcesLocator;
 import com.intellij.javascript.karma.server.KarmaServer;
 import com.intellij.javascript.karma.server.KarmaServerTerminatedListener;
+import com.intellij.javascript.karma.server.KarmaTestDependencies;
 import com.intellij.javascript.nodejs.NodeStackTraceFilter;
 import com.intellij.javascript.nodejs.interpreter.NodeCommandLineConfigurator;
 import com.intellij.javascript.nodejs.interpreter.NodeJsInterpreter;
@@ -25,6 +26,7 @@ import com.intellij.javascript.testFramework.qunit.QUnitFileStructure;
 import com.intellij.javascript.testFramework.qunit.QUnitFileStructureBuilder;
 import com.intellij.javascript.testing.JSTestRunnerUtil;
 import com.intellij.lang.javascript.ConsoleCommandLineFolder;
+import com.intellij.lang.javascript.library.JSLibraryUtil;
 import com.intellij.lang.javascript.psi.JSFile;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
@@ -43,6 +45,7 @@ import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class KarmaExecutionSession {
 
@@ -58,6 +61,7 @@ public class KarmaExecutionSession {
   private final SMTRunnerConsoleView mySmtConsoleView;
   private final ConsoleCommandLineFolder myFolder = new ConsoleCommandLineFolder("karma", "run");
   private final List<List<String>> myFailedTestNames;
+  private final boolean myAffectedTestsOnly;
 
   public KarmaExecutionSession(@NotNull Project project,
                                @NotNull KarmaRunConfiguration runConfiguration,
@@ -65,7 +69,8 @@ public class KarmaExecutionSession {
                                @NotNull KarmaServer karmaServer,
                                @NotNull KarmaRunSettings runSettings,
                                @NotNull KarmaExecutionType executionType,
-                               @Nullable List<List<String>> failedTestNames) throws ExecutionException {
+                               @Nullable List<List<String>> failedTestNames,
+                               boolean affectedTestsOnly) throws ExecutionException {
     myProject = project;
     myRunConfiguration = runConfiguration;
     myExecutor = executor;
@@ -73,6 +78,7 @@ public class KarmaExecutionSession {
     myRunSettings = runSettings;
     myExecutionType = executionType;
     myFailedTestNames = failedTestNames;
+    myAffectedTestsOnly = affectedTestsOnly;
     myProcessHandler = createProcessHandler(karmaServer);
     mySmtConsoleView = createSMTRunnerConsoleView();
     if (!(myProcessHandler instanceof NopProcessHandler)) {
@@ -181,9 +187,28 @@ public class KarmaExecutionSession {
 
   @Nullable
   private String getTestNamesPattern() throws ExecutionException {
+    KarmaTestDependencies testDependencies = myKarmaServer.getCoveragePeer() != null
+                                             ? myKarmaServer.getCoveragePeer().getTestDependencies()
+                                             : null;
     if (myFailedTestNames != null) {
+      if (testDependencies != null) {
+        testDependencies.clearChanges();
+      }
       return JSTestRunnerUtil.getTestsPattern(myFailedTestNames, false);
     }
+    if (myAffectedTestsOnly && testDependencies != null && !testDependencies.isEmpty()) {
+      Set<String> suites = testDependencies.takeAffectedSuites(path -> getSpecFileSuiteNames(myProject, path));
+      if (suites != null) {
+        if (suites.isEmpty()) {
+          throw new ExecutionException(KarmaBundle.message("execution.no_affected_tests.dialog.message"));
+        }
+        return JSTestRunnerUtil.getTestsPattern(ContainerUtil.map(suites, name -> Collections.singletonList(name)), true);
+      }
+      // a changed file may affect any suite, run the configuration as usual
+    }
+    if (testDependencies != null) {
+      testDependencies.clearChanges();
+    }
     if (myRunSettings.getScopeKind() == KarmaScopeKind.TEST_FILE) {
       List<String> topNames = findTopLevelSuiteNames(myProject, myRunSettings.getTestFileSystemIndependentPath());
       String testFileName = PathUtil.getFileName(myRunSettings.getTestFileSystemIndependentPath());
@@ -212,6 +237,29 @@ public class KarmaExecutionSession {
       LOG.info("Not a JavaScript file " + testFilePath + ", " + (psiFile == null ? "null" : psiFile.getClass()));
       throw new ExecutionException(KarmaBundle.message("execution.javascript_file_expected.dialog.message", testFilePath));
     }
+    List<String> elements = getTopLevelSuiteNames(jsFile);
+    if (!elements.isEmpty()) {
+      return elements;
+    }
+    throw new ExecutionException(KarmaBundle.message("execution.no_tests_found_in_file.dialog.message", testFilePath));
+  }
+
+  /**
+   * @return top-level suites of a spec file of the project, empty for other files
+   */
+  @NotNull
+  private static List<String> getSpecFileSuiteNames(@NotNull Project project, @NotNull String path) {
+    VirtualFile file = LocalFileFinder.findFile(path);
+    if (file == null || file.isDirectory() || JSLibraryUtil.isProbableLibraryFile(file) ||
+        !JSLibraryUtil.isUnderContentRootsAndOutsideOfLibraryRoots(project, file)) {
+      return Collections.emptyList();
+    }
+    JSFile jsFile = ObjectUtils.tryCast(PsiManager.getInstance(project).findFile(file), JSFile.class);
+    return jsFile != null && jsFile.isTestFile() ? getTopLevelSuiteNames(jsFile) : Collections.emptyList();
+  }
+
+  @NotNull
+  private static List<String> getTopLevelSuiteNames(@NotNull JSFile jsFile) {
     JasmineFileStructure jasmine = JasmineFileStructureBuilder.getInstance().fetchCachedTestFileStructure(jsFile);
     List<String> elements = jasmine.getTopLevelElements();
     if (!elements.isEmpty()) {
@@ -223,11 +271,7 @@ public class KarmaExecutionSession {
       return elements;
     }
     MochaTddFileStructure mochaTdd = MochaTddFileStructureBuilder.getInstance().fetchCachedTestFileStructure(jsFile);
-    elements = mochaTdd.getTopLevelElements();
-    if (!elements.isEmpty()) {
-      return elements;
-    }
-    throw new ExecutionException(KarmaBundle.message("execution.no_tests_found_in_file.dialog.message", testFilePath));
+    return mochaTdd.getTopLevelElements();
   }
 
   @NotNull
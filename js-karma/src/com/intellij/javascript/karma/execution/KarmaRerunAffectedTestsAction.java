@@ -0,0 +1,54 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.javascript.karma.execution;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ExecutionEnvironmentBuilder;
+import com.intellij.execution.runners.ExecutionUtil;
+import com.intellij.icons.AllIcons;
+import com.intellij.javascript.karma.KarmaBundle;
+import com.intellij.javascript.karma.server.KarmaTestDependencies;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.project.DumbAwareAction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs the top-level suites which use the files changed since the previous run on the same Karma server.
+ */
+public class KarmaRerunAffectedTestsAction extends DumbAwareAction {
+  private final KarmaConsoleProperties myConsoleProperties;
+  private final KarmaTestDependencies myTestDependencies;
+
+  public KarmaRerunAffectedTestsAction(@NotNull KarmaConsoleProperties consoleProperties,
+                                       @NotNull KarmaTestDependencies testDependencies) {
+    super(KarmaBundle.messagePointer("action.rerun_affected_tests.text"),
+          KarmaBundle.messagePointer("action.rerun_affected_tests.description"),
+          AllIcons.Actions.Rerun);
+    myConsoleProperties = consoleProperties;
+    myTestDependencies = testDependencies;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    e.getPresentation().setEnabled(e.getData(LangDataKeys.EXECUTION_ENVIRONMENT) != null &&
+                                   !myTestDependencies.isEmpty() &&
+                                   myTestDependencies.hasChanges());
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    ExecutionEnvironment environment = e.getData(LangDataKeys.EXECUTION_ENVIRONMENT);
+    if (environment == null) return;
+    ExecutionEnvironment affectedTestsEnvironment = new ExecutionEnvironmentBuilder(environment)
+      .runProfile(myConsoleProperties.getConfiguration())
+      .build();
+    affectedTestsEnvironment.putUserData(KarmaRunProfileState.AFFECTED_TESTS_ONLY, true);
+    try {
+      affectedTestsEnvironment.getRunner().execute(affectedTestsEnvironment);
+    }
+    catch (ExecutionException ex) {
+      ExecutionUtil.handleExecutionError(affectedTestsEnvironment, ex);
+    }
+  }
+}
@@ -11,6 +11,7 @@ import com.intellij.execution.testframework.autotest.ToggleAutoTestAction;
 import com.intellij.execution.testframework.sm.runner.ui.SMTRunnerConsoleView;
 import com.intellij.javascript.debugger.locationResolving.JSLocationResolver;
 import com.intellij.javascript.karma.KarmaBundle;
+import com.intellij.javascript.karma.coverage.KarmaCoveragePeer;
 import com.intellij.javascript.karma.server.KarmaServer;
 import com.intellij.javascript.karma.server.KarmaServerRegistry;
 import com.intellij.javascript.nodejs.interpreter.NodeJsInterpreter;
@@ -19,6 +20,7 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Key;
 import com.intellij.util.CatchingConsumer;
 import com.intellij.util.ExceptionUtil;
 import org.jetbrains.annotations.NotNull;
@@ -29,6 +31,11 @@ import java.util.List;
 public class KarmaRunProfileState implements RunProfileState {
 
   private static final Logger LOG = Logger.getInstance(KarmaRunProfileState.class);
+  /**
+   * Set for an environment to run only the tests affected by the changes since the previous run,
+   * see {@link com.intellij.javascript.karma.server.KarmaTestDependencies}.
+   */
+  public static final Key<Boolean> AFFECTED_TESTS_ONLY = Key.create("KARMA_AFFECTED_TESTS_ONLY");
 
   private final Project myProject;
   private final KarmaRunConfiguration myRunConfiguration;
@@ -114,12 +121,22 @@ public class KarmaRunProfileState implements RunProfileState {
                                                               server,
                                                               myRunSettings,
                                                               myExecutionType,
-                                                              myFailedTestNames);
+                                                              myFailedTestNames,
+                                                              myEnvironment.getUserData(AFFECTED_TESTS_ONLY) == Boolean.TRUE);
     SMTRunnerConsoleView consoleView = session.getSmtConsoleView();
     ProcessHandler processHandler = session.getProcessHandler();
     DefaultExecutionResult executionResult = new DefaultExecutionResult(consoleView, processHandler);
-    executionResult.setRestartActions(((KarmaConsoleProperties)consoleView.getProperties()).createRerunFailedTestsAction(consoleView),
-                                      new ToggleAutoTestAction());
+    KarmaConsoleProperties consoleProperties = (KarmaConsoleProperties)consoleView.getProperties();
+    KarmaCoveragePeer coveragePeer = server.getCoveragePeer();
+    if (coveragePeer != null) {
+      executionResult.setRestartActions(consoleProperties.createRerunFailedTestsAction(consoleView),
+                                        new KarmaRerunAffectedTestsAction(consoleProperties, coveragePeer.getTestDependencies()),
+                                        new ToggleAutoTestAction());
+    }
+    else {
+      executionResult.setRestartActions(consoleProperties.createRerunFailedTestsAction(consoleView),
+                                        new ToggleAutoTestAction());
+    }
     return executionResult;
   }
 
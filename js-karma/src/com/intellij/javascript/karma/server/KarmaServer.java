@@ -24,6 +24,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.ConcurrencyUtil;
@@ -78,6 +79,9 @@ public final class KarmaServer {
     myDisposable = new MyDisposable();
     Disposer.register(project, myDisposable);
     myRestarter = new KarmaServerRestarter(configurationFile, myDisposable);
+    if (myCoveragePeer != null) {
+      myCoveragePeer.getTestDependencies().trackChanges(project, myDisposable);
+    }
 
     final int processHashCode = System.identityHashCode(processHandler.getProcess());
     LOG.info("Karma server " + processHashCode + " started successfully: " + processHandler.getCommandLine());
@@ -99,7 +103,7 @@ public final class KarmaServer {
     myProcessOutputManager.addStreamEventListener(new StreamEventListener() {
       @Override
       public void on(@NotNull String eventType, @NotNull String eventBody) {
-        LOG.info("Processing Karma event " + eventType + " " + eventBody);
+        LOG.info("Processing Karma event " + eventType + " " + StringUtil.first(eventBody, 1000, true));
         JsonElement jsonElement;
         try {
           jsonElement = JsonParser.parseString(eventBody);
@@ -0,0 +1,245 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.javascript.karma.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.lang.javascript.JavascriptLanguage;
+import com.intellij.lang.javascript.library.JSLibraryUtil;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileTypes.FileType;
+import com.intellij.openapi.fileTypes.FileTypeRegistry;
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.PathUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Source files used by the top-level suites of a Karma server, recorded from coverage data.
+ * <p>
+ * The browser side tracks coverage counters during each spec and reports the files with code run by it, and all instrumented files.
+ * When a run completes, the server sends a {@value #EVENT_TYPE} event with the files of each top-level suite run.
+ * Suites which weren't run keep their files, so scoped runs refine the map without dropping the rest of it.
+ * Paths of changed files are collected between runs, {@link #takeAffectedSuites(Function)} tells which suites to run again.
+ */
+public final class KarmaTestDependencies {
+  private static final Logger LOG = Logger.getInstance(KarmaTestDependencies.class);
+  public static final String EVENT_TYPE = "testDependencies";
+
+  private final Map<String, Set<String>> mySourcesBySuite = new HashMap<>();
+  private final Map<String, Set<String>> mySuitesBySource = new HashMap<>();
+  private final Set<String> myInstrumentedFiles = new HashSet<>();
+  private final Set<String> myChangedFiles = new LinkedHashSet<>();
+
+  /**
+   * Replaces the source files of the given top-level suites.
+   */
+  public synchronized void update(@NotNull Map<String, ? extends Collection<String>> sourcesBySuite,
+                                  @NotNull Collection<String> instrumentedFiles) {
+    for (String file : instrumentedFiles) {
+      myInstrumentedFiles.add(FileUtil.toSystemIndependentName(file));
+    }
+    for (Map.Entry<String, ? extends Collection<String>> entry : sourcesBySuite.entrySet()) {
+      String suite = entry.getKey();
+      Set<String> oldSources = mySourcesBySuite.remove(suite);
+      if (oldSources != null) {
+        for (String source : oldSources) {
+          Set<String> suites = mySuitesBySource.get(source);
+          if (suites != null && suites.remove(suite) && suites.isEmpty()) {
+            mySuitesBySource.remove(source);
+          }
+        }
+      }
+      Set<String> sources = new HashSet<>();
+      for (String source : entry.getValue()) {
+        String path = FileUtil.toSystemIndependentName(source);
+        sources.add(path);
+        mySuitesBySource.computeIfAbsent(path, p -> new HashSet<>()).add(suite);
+      }
+      mySourcesBySuite.put(suite, sources);
+    }
+  }
+
+  public synchronized boolean isEmpty() {
+    return mySourcesBySuite.isEmpty();
+  }
+
+  public synchronized int getSuiteCount() {
+    return mySourcesBySuite.size();
+  }
+
+  public synchronized void fileChanged(@NotNull String path) {
+    myChangedFiles.add(FileUtil.toSystemIndependentName(path));
+  }
+
+  /**
+   * @return whether a top-level suite uses the file
+   */
+  public synchronized boolean isSource(@NotNull String path) {
+    return mySuitesBySource.containsKey(FileUtil.toSystemIndependentName(path));
+  }
+
+  /**
+   * @return whether the file was instrumented for coverage in a run, whether or not a suite used it
+   */
+  public synchronized boolean isInstrumented(@NotNull String path) {
+    return myInstrumentedFiles.contains(FileUtil.toSystemIndependentName(path));
+  }
+
+  public synchronized boolean hasChanges() {
+    return !myChangedFiles.isEmpty();
+  }
+
+  /**
+   * Forgets the changed files when tests are run, the affected tests are those of the files changed since the previous run.
+   */
+  public synchronized void clearChanges() {
+    myChangedFiles.clear();
+  }
+
+  /**
+   * Changed files which are used by suites affect those suites, other changed files affect the suites they define.
+   * A changed instrumented file which no recorded suite uses, e.g. one only loaded by suites which weren't run yet, may affect any suite.
+   *
+   * @param specFileSuites top-level suites of a changed file which isn't a known source file, e.g. of a changed spec file;
+   *                       empty for files which aren't spec files of the project
+   * @return top-level suites using the files changed since the previous call, or null if all suites need to be run
+   */
+  @Nullable
+  public synchronized Set<String> takeAffectedSuites(@NotNull Function<? super String, ? extends Collection<String>> specFileSuites) {
+    Set<String> result = new TreeSet<>();
+    String unknownSource = null;
+    for (String path : myChangedFiles) {
+      Set<String> suites = mySuitesBySource.get(path);
+      if (suites != null) {
+        result.addAll(suites);
+        continue;
+      }
+      Collection<String> specSuites = specFileSuites.apply(path);
+      if (!specSuites.isEmpty()) {
+        result.addAll(specSuites);
+      }
+      else if (myInstrumentedFiles.contains(path)) {
+        unknownSource = path;
+        break;
+      }
+      else {
+        // a deleted or moved directory
+        String prefix = path + "/";
+        for (Map.Entry<String, Set<String>> entry : mySuitesBySource.entrySet()) {
+          if (entry.getKey().startsWith(prefix)) {
+            result.addAll(entry.getValue());
+          }
+        }
+      }
+    }
+    if (unknownSource != null) {
+      LOG.info("No suite is known to use changed " + unknownSource + ", all suites are affected");
+    }
+    else {
+      LOG.info(myChangedFiles.size() + " changed files affect " + result.size() + " of " + mySourcesBySuite.size() + " suites");
+    }
+    myChangedFiles.clear();
+    return unknownSource != null ? null : result;
+  }
+
+  /**
+   * @param pathConverter converts paths of the Karma process to local paths
+   */
+  @NotNull
+  public StreamEventHandler createEventHandler(@NotNull Function<String, String> pathConverter) {
+    return new StreamEventHandler() {
+      @NotNull
+      @Override
+      public String getEventType() {
+        return EVENT_TYPE;
+      }
+
+      @Override
+      public void handle(@NotNull JsonElement eventBody) {
+        JsonElement suites = eventBody.isJsonObject() ? ((JsonObject)eventBody).get("suites") : null;
+        if (suites == null || !suites.isJsonObject()) {
+          LOG.warn("Unexpected " + EVENT_TYPE + " event: " + eventBody);
+          return;
+        }
+        Map<String, List<String>> sourcesBySuite = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : ((JsonObject)suites).entrySet()) {
+          sourcesBySuite.put(entry.getKey(), getPaths(entry.getValue()));
+        }
+        update(sourcesBySuite, getPaths(((JsonObject)eventBody).get("instrumentedFiles")));
+      }
+
+      @NotNull
+      private List<String> getPaths(@Nullable JsonElement array) {
+        List<String> paths = new ArrayList<>();
+        if (array != null && array.isJsonArray()) {
+          for (JsonElement path : array.getAsJsonArray()) {
+            if (path.isJsonPrimitive()) {
+              paths.add(pathConverter.apply(path.getAsString()));
+            }
+          }
+        }
+        return paths;
+      }
+    };
+  }
+
+  /**
+   * Collects the paths of changed files until {@code parentDisposable} is disposed.
+   * Only paths are recorded here, they are classified by {@link #takeAffectedSuites(Function)}; deleted, moved and renamed files
+   * and directories are recorded by their old paths. Changes in node_modules and of files which are neither sources nor
+   * JavaScript-like ones, e.g. of the generated coverage reports, are skipped, so they don't pile up.
+   */
+  public void trackChanges(@NotNull Project project, @NotNull Disposable parentDisposable) {
+    project.getMessageBus().connect(parentDisposable).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (event instanceof VFileMoveEvent) {
+            pathChanged(((VFileMoveEvent)event).getOldPath(), true);
+            pathChanged(((VFileMoveEvent)event).getNewPath(), false);
+          }
+          else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent)event).isRename()) {
+            pathChanged(((VFilePropertyChangeEvent)event).getOldPath(), true);
+            pathChanged(((VFilePropertyChangeEvent)event).getNewPath(), false);
+          }
+          else if (event instanceof VFileDeleteEvent) {
+            pathChanged(event.getPath(), true);
+          }
+          else if (!(event instanceof VFileCreateEvent && ((VFileCreateEvent)event).isDirectory())) {
+            pathChanged(event.getPath(), false);
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * @param removed whether nothing is left at the path, e.g. sources of a deleted directory are recorded by its path
+   */
+  private void pathChanged(@NotNull String path, boolean removed) {
+    if (path.contains("/" + JSLibraryUtil.NODE_MODULES + "/")) {
+      return;
+    }
+    if (removed || isSource(path) || isInstrumented(path) || isJavaScriptFileName(PathUtil.getFileName(path))) {
+      fileChanged(path);
+    }
+  }
+
+  private static boolean isJavaScriptFileName(@NotNull String fileName) {
+    FileType fileType = FileTypeRegistry.getInstance().getFileTypeByFileName(fileName);
+    return fileType instanceof LanguageFileType && ((LanguageFileType)fileType).getLanguage().isKindOf(JavascriptLanguage.INSTANCE);
+  }
+}
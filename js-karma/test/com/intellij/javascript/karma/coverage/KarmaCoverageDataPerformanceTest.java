@@ -0,0 +1,66 @@
+package com.intellij.javascript.karma.coverage;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.PlatformTestUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static com.intellij.javascript.karma.coverage.KarmaCoverageDataTest.PATH_CONVERTER;
+
+public class KarmaCoverageDataPerformanceTest {
+  private static final long TRACEFILE_SIZE = 300L * 1024 * 1024;
+  private static final int LINES_PER_FILE = 2000;
+
+  private File myLcovFile;
+  private int myFileCount;
+
+  @Before
+  public void setUp() throws IOException {
+    myLcovFile = FileUtil.createTempFile("karma-coverage-", ".info", true);
+    try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(myLcovFile.toPath()), 1 << 16)) {
+      long size = 0;
+      StringBuilder record = new StringBuilder();
+      while (size < TRACEFILE_SIZE) {
+        record.setLength(0);
+        record.append("TN:\nSF:src/generated/bundle").append(myFileCount).append(".js\n");
+        for (int line = 1; line <= LINES_PER_FILE; line++) {
+          record.append("DA:").append(line).append(',').append((line * 31 + myFileCount) % 97).append('\n');
+        }
+        record.append("LF:").append(LINES_PER_FILE).append("\nLH:").append(LINES_PER_FILE).append("\nend_of_record\n");
+        byte[] bytes = record.toString().getBytes(StandardCharsets.US_ASCII);
+        output.write(bytes);
+        size += bytes.length;
+        myFileCount++;
+      }
+    }
+  }
+
+  @After
+  public void tearDown() {
+    FileUtil.delete(myLcovFile);
+  }
+
+  @Test
+  public void testLargeTracefile() {
+    PlatformTestUtil.startPerformanceTest("loading a 300MB lcov tracefile", 10_000, () -> {
+      KarmaCoverageData data = new KarmaCoverageData();
+      data.update(myLcovFile, false, PATH_CONVERTER);
+      data.update(myLcovFile, true, PATH_CONVERTER);
+
+      Assert.assertEquals(myFileCount, data.getFileCount());
+      int[] lineHits = data.getLineHits("/project/src/generated/bundle" + (myFileCount - 1) + ".js");
+      Assert.assertNotNull(lineHits);
+      Assert.assertEquals(LINES_PER_FILE + 1, lineHits.length);
+      Assert.assertEquals((LINES_PER_FILE * 31 + myFileCount - 1) % 97, lineHits[LINES_PER_FILE]);
+    }).attempts(1).assertTiming();
+  }
+}
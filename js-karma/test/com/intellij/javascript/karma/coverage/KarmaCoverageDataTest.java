@@ -0,0 +1,111 @@
+package com.intellij.javascript.karma.coverage;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.rt.coverage.data.ClassData;
+import com.intellij.rt.coverage.data.LineData;
+import com.intellij.rt.coverage.data.ProjectData;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Function;
+
+public class KarmaCoverageDataTest {
+  static final Function<String, String> PATH_CONVERTER = path -> path.startsWith("/") ? path : "/project/" + path;
+
+  @Test
+  public void testLoad() throws IOException {
+    KarmaCoverageData data = new KarmaCoverageData();
+    update(data, false,
+           "TN:\r\n" +
+           "SF:src/cart.js\r\n" +
+           "FN:1,add\r\n" +
+           "FNDA:2,add\r\n" +
+           "DA:1,2\r\n" +
+           "DA:2,0\r\n" +
+           "DA:4,2,d41d8cd98f00b204e9800998ecf8427e\r\n" +
+           "LF:3\r\n" +
+           "LH:2\r\n" +
+           "end_of_record\r\n" +
+           "SF:/project/src/login.js\n" +
+           "DA:3,1\n" +
+           "DA:x,1\n" +
+           "end_of_record\n");
+
+    Assert.assertEquals(2, data.getFileCount());
+    Assert.assertArrayEquals(new int[]{-1, 2, 0, -1, 2}, data.getLineHits("/project/src/cart.js"));
+    Assert.assertArrayEquals(new int[]{-1, -1, -1, 1}, data.getLineHits("/project/src/login.js"));
+
+    ProjectData projectData = data.toProjectData();
+    ClassData classData = projectData.getClassData("/project/src/cart.js");
+    Assert.assertNotNull(classData);
+    Assert.assertEquals(2, ((LineData)classData.getLineData(1)).getHits());
+    Assert.assertEquals(0, ((LineData)classData.getLineData(2)).getHits());
+    Assert.assertNull(classData.getLineData(3));
+  }
+
+  @Test
+  public void testTruncatedRecord() throws IOException {
+    KarmaCoverageData data = new KarmaCoverageData();
+    update(data, false, "SF:/project/src/cart.js\nDA:1,1\nDA:2,");
+    Assert.assertArrayEquals(new int[]{-1, 1}, data.getLineHits("/project/src/cart.js"));
+  }
+
+  @Test
+  public void testPartialRunMerged() throws IOException {
+    KarmaCoverageData data = new KarmaCoverageData();
+    update(data, false, record("/project/src/cart.js", 3, 0, 1) + record("/project/src/login.js", 2, 0));
+    update(data, true, record("/project/src/cart.js", 0, 5, 0));
+
+    Assert.assertEquals(2, data.getFileCount());
+    Assert.assertArrayEquals(new int[]{-1, 3, 5, 1}, data.getLineHits("/project/src/cart.js"));
+    Assert.assertArrayEquals(new int[]{-1, 2, 0}, data.getLineHits("/project/src/login.js"));
+
+    // the file was edited, old counts don't match its lines anymore
+    update(data, true, record("/project/src/login.js", 0, 0, 4));
+    Assert.assertArrayEquals(new int[]{-1, 0, 0, 4}, data.getLineHits("/project/src/login.js"));
+
+    update(data, false, record("/project/src/cart.js", 0, 5, 0));
+    Assert.assertEquals(1, data.getFileCount());
+    Assert.assertArrayEquals(new int[]{-1, 0, 5, 0}, data.getLineHits("/project/src/cart.js"));
+  }
+
+  @Test
+  public void testUnchangedRecordReused() throws IOException {
+    KarmaCoverageData data = new KarmaCoverageData();
+    update(data, false, record("/project/src/cart.js", 1, 0) + record("/project/src/login.js", 2));
+    int[] cartHits = data.getLineHits("/project/src/cart.js");
+    int[] loginHits = data.getLineHits("/project/src/login.js");
+
+    update(data, false, record("/project/src/cart.js", 1, 0) + record("/project/src/login.js", 3));
+    Assert.assertSame(cartHits, data.getLineHits("/project/src/cart.js"));
+    Assert.assertNotSame(loginHits, data.getLineHits("/project/src/login.js"));
+    Assert.assertArrayEquals(new int[]{-1, 3}, data.getLineHits("/project/src/login.js"));
+
+    update(data, true, record("/project/src/cart.js", 0, 1));
+    update(data, false, record("/project/src/cart.js", 0, 1));
+    Assert.assertArrayEquals(new int[]{-1, 0, 1}, data.getLineHits("/project/src/cart.js"));
+  }
+
+  private static void update(@NotNull KarmaCoverageData data, boolean partialRun, @NotNull String lcov) throws IOException {
+    File lcovFile = FileUtil.createTempFile("karma-coverage-", ".info", true);
+    try {
+      FileUtil.writeToFile(lcovFile, lcov);
+      data.update(lcovFile, partialRun, PATH_CONVERTER);
+    }
+    finally {
+      FileUtil.delete(lcovFile);
+    }
+  }
+
+  @NotNull
+  private static String record(@NotNull String path, int... lineHits) {
+    StringBuilder result = new StringBuilder("SF:").append(path).append('\n');
+    for (int i = 0; i < lineHits.length; i++) {
+      result.append("DA:").append(i + 1).append(',').append(lineHits[i]).append('\n');
+    }
+    return result.append("end_of_record\n").toString();
+  }
+}
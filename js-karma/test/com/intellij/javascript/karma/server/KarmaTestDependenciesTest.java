@@ -0,0 +1,145 @@
+package com.intellij.javascript.karma.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.execution.process.NopProcessHandler;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class KarmaTestDependenciesTest {
+  @Test
+  public void testAffectedSuites() {
+    KarmaTestDependencies dependencies = new KarmaTestDependencies();
+    FakeKarmaServer server = new FakeKarmaServer(dependencies);
+    server.send("##teamcity[testSuiteStarted name='CartService']\n");
+    server.sendEvent(suites("CartService", "/project/src/cart.js", "/project/src/price.js",
+                            "Checkout", "/project/src/cart.js", "/project/src/checkout.js",
+                            "Login", "/project/src/auth.js"));
+
+    Assert.assertEquals(3, dependencies.getSuiteCount());
+    Assert.assertFalse(dependencies.hasChanges());
+
+    dependencies.fileChanged("/project/src/cart.js");
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("CartService", "Checkout")), dependencies.takeAffectedSuites(path -> {
+      throw new AssertionError("Unexpected spec file " + path);
+    }));
+    Assert.assertFalse(dependencies.hasChanges());
+
+    dependencies.fileChanged("/project/src/auth.js");
+    dependencies.fileChanged("/project/test/search.spec.js");
+    Map<String, List<String>> specFiles = Collections.singletonMap("/project/test/search.spec.js", Collections.singletonList("Search"));
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("Login", "Search")),
+                        dependencies.takeAffectedSuites(path -> specFiles.getOrDefault(path, Collections.emptyList())));
+
+    dependencies.fileChanged("/project/README.md");
+    Assert.assertTrue(dependencies.takeAffectedSuites(path -> Collections.emptyList()).isEmpty());
+  }
+
+  @Test
+  public void testScopedRunKeepsOtherSuites() {
+    KarmaTestDependencies dependencies = new KarmaTestDependencies();
+    FakeKarmaServer server = new FakeKarmaServer(dependencies);
+    server.sendEvent(suites("CartService", "/project/src/cart.js",
+                            "Login", "/project/src/auth.js"));
+    // the rerun of CartService doesn't use cart.js anymore
+    server.sendEvent(suites("CartService", "/project/src/basket.js"));
+
+    Assert.assertEquals(2, dependencies.getSuiteCount());
+    Assert.assertTrue(dependencies.isSource("/project/src/basket.js"));
+    Assert.assertFalse(dependencies.isSource("/project/src/cart.js"));
+    dependencies.fileChanged("/project/src/auth.js");
+    Assert.assertEquals(Collections.singleton("Login"), dependencies.takeAffectedSuites(path -> Collections.emptyList()));
+    dependencies.fileChanged("/project/src/basket.js");
+    Assert.assertEquals(Collections.singleton("CartService"), dependencies.takeAffectedSuites(path -> Collections.emptyList()));
+    // cart.js is still instrumented, but no suite is known to use it
+    dependencies.fileChanged("/project/src/cart.js");
+    Assert.assertNull(dependencies.takeAffectedSuites(path -> Collections.emptyList()));
+  }
+
+  @Test
+  public void testChangedInstrumentedFileWithoutSuitesAffectsAll() {
+    KarmaTestDependencies dependencies = new KarmaTestDependencies();
+    FakeKarmaServer server = new FakeKarmaServer(dependencies);
+    JsonObject event = suites("CartService", "/project/src/cart.js");
+    event.getAsJsonArray("instrumentedFiles").add("/project/src/discount.js");
+    server.sendEvent(event);
+
+    Assert.assertTrue(dependencies.isInstrumented("/project/src/discount.js"));
+    Assert.assertFalse(dependencies.isSource("/project/src/discount.js"));
+    dependencies.fileChanged("/project/src/cart.js");
+    dependencies.fileChanged("/project/src/discount.js");
+    Assert.assertNull(dependencies.takeAffectedSuites(path -> Collections.emptyList()));
+    Assert.assertFalse(dependencies.hasChanges());
+  }
+
+  @Test
+  public void testDeletedDirectory() {
+    KarmaTestDependencies dependencies = new KarmaTestDependencies();
+    FakeKarmaServer server = new FakeKarmaServer(dependencies);
+    server.sendEvent(suites("CartService", "/project/src/cart/cart.js",
+                            "Login", "/project/src/auth.js"));
+
+    dependencies.fileChanged("/project/src/cart");
+    Assert.assertEquals(Collections.singleton("CartService"), dependencies.takeAffectedSuites(path -> Collections.emptyList()));
+  }
+
+  /**
+   * @return a {@value KarmaTestDependencies#EVENT_TYPE} event with the given suites and their sources, all sources are instrumented
+   */
+  @NotNull
+  private static JsonObject suites(String... suitesAndSources) {
+    JsonObject suites = new JsonObject();
+    JsonArray instrumentedFiles = new JsonArray();
+    JsonArray sources = null;
+    for (String value : suitesAndSources) {
+      if (value.startsWith("/")) {
+        sources.add(value);
+        instrumentedFiles.add(value);
+      }
+      else {
+        sources = new JsonArray();
+        suites.add(value, sources);
+      }
+    }
+    JsonObject event = new JsonObject();
+    event.add("suites", suites);
+    event.add("instrumentedFiles", instrumentedFiles);
+    return event;
+  }
+
+  /**
+   * Standard output of a Karma server process, events are delivered in chunks as the process writes them.
+   */
+  private static final class FakeKarmaServer {
+    private final ProcessHandler myProcessHandler = new NopProcessHandler();
+
+    private FakeKarmaServer(@NotNull KarmaTestDependencies dependencies) {
+      KarmaProcessOutputManager outputManager = new KarmaProcessOutputManager(myProcessHandler, line -> {});
+      StreamEventHandler handler = dependencies.createEventHandler(path -> path);
+      outputManager.addStreamEventListener((eventType, eventBody) -> {
+        if (eventType.equals(handler.getEventType())) {
+          handler.handle(JsonParser.parseString(eventBody));
+        }
+      });
+      outputManager.startNotify();
+    }
+
+    private void send(@NotNull String text) {
+      myProcessHandler.notifyTextAvailable(text, ProcessOutputTypes.STDOUT);
+    }
+
+    private void sendEvent(@NotNull JsonObject body) {
+      String line = "##intellij-event[" + KarmaTestDependencies.EVENT_TYPE + ":" + body + "]\n";
+      int chunkSize = 8192;
+      for (int start = 0; start < line.length(); start += chunkSize) {
+        send(line.substring(start, Math.min(line.length(), start + chunkSize)));
+      }
+    }
+  }
+}
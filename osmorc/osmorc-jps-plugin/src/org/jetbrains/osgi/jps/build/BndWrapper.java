@@ -40,7 +40,17 @@ import org.jetbrains.osgi.jps.util.OrderedProperties;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.regex.Matcher;
@@ -53,6 +63,14 @@ import java.util.regex.Pattern;
  */
 @SuppressWarnings("HardCodedStringLiteral" /*IDEA-240279*/)
 public class BndWrapper {
+  private static final int MAX_PARALLEL_WRAPS = 4;
+  private static final String CACHE_VERSION = "3";
+  private static final long CANCELLATION_CHECK_INTERVAL = 100;
+  private static final long MAX_CACHE_AGE = TimeUnit.DAYS.toMillis(30);
+  private static final long MAX_CACHE_SIZE = 512L * 1024 * 1024;
+
+  private static final Map<String, String> ourContentHashes = ContainerUtil.createConcurrentSoftValueMap();
+
   private final Reporter myReporter;
 
   public BndWrapper(Reporter reporter) {
@@ -60,43 +78,112 @@ public class BndWrapper {
   }
 
   /**
-   * Wraps .jar files using Bnd analyzer. Uses bundlification rules defined in Settings/OSGi/Library Bundling.
+   * Wraps .jar files using Bnd analyzer, running up to {@link #MAX_PARALLEL_WRAPS} analyzers at a time.
+   * Uses bundlification rules defined in Settings/OSGi/Library Bundling.
+   * Wrapped jars are kept in {@code cacheDir} by library content, name and the effective rule properties, so libraries used
+   * by several modules or checkouts are wrapped once; entries not used for {@link #MAX_CACHE_AGE} ms or above {@link #MAX_CACHE_SIZE} bytes are evicted.
+   * The reporter is only called from the calling thread; messages of the wraps are passed on as their results are collected.
    */
   @NotNull
   public List<String> bundlifyLibraries(@NotNull Collection<File> dependencies,
                                         @NotNull File outputDir,
-                                        @NotNull List<LibraryBundlificationRule> rules) {
-    List<String> result = new ArrayList<>(dependencies.size());
+                                        @NotNull List<LibraryBundlificationRule> rules,
+                                        @NotNull File cacheDir) throws OsgiBuildException {
+    List<Future<File>> results = new ArrayList<>(dependencies.size());
+    List<BufferingReporter> reporters = new ArrayList<>(dependencies.size());
+    AtomicBoolean canceled = new AtomicBoolean();
+    ExecutorService executor = null;
 
-    for (File dependency : dependencies) {
-      String path = dependency.getPath();
-      if (CachingBundleInfoProvider.canBeBundlified(path)) {
-        myReporter.progress(path);
-        try {
-          File bundledDependency = wrap(dependency, outputDir, rules);
-          if (bundledDependency != null) {
-            result.add(bundledDependency.getPath());
+    try {
+      for (File dependency : dependencies) {
+        String path = dependency.getPath();
+        if (CachingBundleInfoProvider.canBeBundlified(path)) {
+          if (executor == null) {
+            executor = Executors.newFixedThreadPool(Math.min(MAX_PARALLEL_WRAPS, Runtime.getRuntime().availableProcessors()));
           }
+          BufferingReporter reporter = new BufferingReporter(myReporter.isDebugEnabled());
+          results.add(executor.submit(() -> {
+            if (canceled.get()) return null;
+            reporter.progress(path);
+            long start = System.currentTimeMillis();
+            try {
+              return new BndWrapper(reporter).wrap(dependency, outputDir, rules, cacheDir);
+            }
+            catch (OsgiBuildException e) {
+              reporter.warning(e.getMessage(), e.getCause(), e.getSourcePath(), -1);
+              return null;
+            }
+            finally {
+              if (reporter.isDebugEnabled()) {
+                reporter.debug("bundlified " + path + " in " + (System.currentTimeMillis() - start) + " ms");
+              }
+            }
+          }));
+          reporters.add(reporter);
+        }
+        else if (CachingBundleInfoProvider.isBundle(path)) {
+          results.add(CompletableFuture.completedFuture(dependency));
+          reporters.add(null);
         }
-        catch (OsgiBuildException e) {
-          myReporter.warning(e.getMessage(), e.getCause(), e.getSourcePath(), -1);
+      }
+
+      List<String> result = new ArrayList<>(results.size());
+      for (int i = 0; i < results.size(); i++) {
+        File bundledDependency = await(results.get(i), canceled);
+        if (reporters.get(i) != null) {
+          reporters.get(i).replay(myReporter);
+        }
+        if (bundledDependency != null) {
+          result.add(bundledDependency.getPath());
         }
       }
-      else if (CachingBundleInfoProvider.isBundle(path)) {
-        result.add(path);
+      evictCachedBundles(cacheDir);
+      return result;
+    }
+    finally {
+      if (executor != null) {
+        executor.shutdownNow();
       }
     }
+  }
 
-    return result;
+  /**
+   * Waits for a wrap, checking for cancellation of the build; when the build is canceled, wraps which haven't started are skipped.
+   */
+  private File await(@NotNull Future<File> future, @NotNull AtomicBoolean canceled) throws OsgiBuildException {
+    while (true) {
+      if (myReporter.isCanceled()) {
+        canceled.set(true);
+        throw new OsgiBuildException("Bundling of libraries was canceled");
+      }
+      try {
+        return future.get(CANCELLATION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+      }
+      catch (TimeoutException ignored) {
+      }
+      catch (InterruptedException e) {
+        canceled.set(true);
+        Thread.currentThread().interrupt();
+        throw new OsgiBuildException("Bundling of libraries was interrupted");
+      }
+      catch (ExecutionException e) {
+        throw new OsgiBuildException("There was an unexpected problem when trying to bundlify", e.getCause(), null);
+      }
+    }
   }
 
   @Nullable
-  private File wrap(@NotNull File sourceFile, @NotNull File outputDir, @NotNull List<LibraryBundlificationRule> rules) throws OsgiBuildException {
+  private File wrap(@NotNull File sourceFile,
+                    @NotNull File outputDir,
+                    @NotNull List<LibraryBundlificationRule> rules,
+                    @NotNull File cacheDir) throws OsgiBuildException {
     if (!sourceFile.isFile()) {
       throw new OsgiBuildException("The library '" + sourceFile + "' does not exist - please check module dependencies.");
     }
 
-    File targetFile = new File(outputDir, sourceFile.getName());
+    // libraries of the same name from different directories must not overwrite each other
+    String name = FileUtil.getNameWithoutExtension(sourceFile);
+    File targetFile = new File(outputDir, name + '-' + hash(sourceFile.getAbsolutePath()).substring(0, 8) + ".jar");
     Map<String, String> additionalProperties = new HashMap<>();
 
     long lastModified = Long.MIN_VALUE;
@@ -117,10 +204,135 @@ public class BndWrapper {
       return targetFile;
     }
 
-    doWrap(sourceFile, targetFile, additionalProperties);
+    String cacheKey;
+    try {
+      cacheKey = getCacheKey(sourceFile, additionalProperties);
+    }
+    catch (IOException e) {
+      throw new OsgiBuildException("Can't read library '" + sourceFile + "'", e, null);
+    }
+    File cachedFile = new File(cacheDir, name + '-' + cacheKey + ".jar");
+    try {
+      if (!cachedFile.isFile()) {
+        if (!FileUtil.createDirectory(cacheDir)) {
+          throw new OsgiBuildException("Can't create bundle cache directory '" + cacheDir + "'");
+        }
+        // wraps to a temporary file first, so that other builds never see a partially written bundle
+        File tempFile = FileUtil.createTempFile(cacheDir, cachedFile.getName(), ".tmp", true, false);
+        try {
+          doWrap(sourceFile, tempFile, additionalProperties);
+          Files.move(tempFile.toPath(), cachedFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+          FileUtil.delete(tempFile);
+        }
+      }
+      else {
+        // the timestamp of a cached bundle is its last use, see evictCachedBundles()
+        //noinspection ResultOfMethodCallIgnored
+        cachedFile.setLastModified(System.currentTimeMillis());
+        if (myReporter.isDebugEnabled()) {
+          myReporter.debug("reusing cached bundle " + cachedFile + " for " + sourceFile);
+        }
+      }
+
+      FileUtil.copy(cachedFile, targetFile);
+    }
+    catch (IOException e) {
+      throw new OsgiBuildException("Can't copy bundle '" + cachedFile + "' to '" + targetFile + "'", e, null);
+    }
     return targetFile;
   }
 
+  /**
+   * The bundle depends on the content of the library, its file name (the default symbolic name) and the effective rule properties,
+   * so a touched library or the same library at another path reuses the bundle.
+   */
+  @NotNull
+  private static String getCacheKey(@NotNull File sourceFile, @NotNull Map<String, String> properties) throws IOException {
+    StringBuilder key = new StringBuilder(CACHE_VERSION).append('\n')
+      .append(getContentHash(sourceFile)).append('\n')
+      .append(sourceFile.getName()).append('\n');
+    for (Map.Entry<String, String> entry : new TreeMap<>(properties).entrySet()) {
+      key.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+    }
+    return hash(key.toString());
+  }
+
+  /**
+   * SHA-256 of the file content, remembered by path, timestamp and size, so unchanged libraries aren't read again.
+   */
+  @NotNull
+  private static String getContentHash(@NotNull File file) throws IOException {
+    String stamp = file.getAbsolutePath() + ':' + file.lastModified() + ':' + file.length();
+    String hash = ourContentHashes.get(stamp);
+    if (hash == null) {
+      MessageDigest digest = sha256();
+      try (InputStream input = new FileInputStream(file)) {
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = input.read(buffer)) > 0) {
+          digest.update(buffer, 0, read);
+        }
+      }
+      hash = StringUtil.toHexString(digest.digest());
+      ourContentHashes.put(stamp, hash);
+    }
+    return hash;
+  }
+
+  @NotNull
+  private static String hash(@NotNull String value) {
+    return StringUtil.toHexString(sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @NotNull
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Deletes cached bundles not used for {@link #MAX_CACHE_AGE} ms, then the least recently used ones until the cache fits
+   * into {@link #MAX_CACHE_SIZE} bytes. Temporary files of running builds are only deleted when they are stale.
+   */
+  private void evictCachedBundles(@NotNull File cacheDir) {
+    File[] files = cacheDir.listFiles();
+    if (files == null) return;
+
+    long now = System.currentTimeMillis();
+    List<File> bundles = new ArrayList<>(files.length);
+    long totalSize = 0;
+    for (File file : files) {
+      if (now - file.lastModified() > MAX_CACHE_AGE) {
+        FileUtil.delete(file);
+      }
+      else if (file.getName().endsWith(".jar")) {
+        bundles.add(file);
+        totalSize += file.length();
+      }
+    }
+
+    if (totalSize > MAX_CACHE_SIZE) {
+      bundles.sort(Comparator.comparingLong(File::lastModified));
+      for (File bundle : bundles) {
+        if (totalSize <= MAX_CACHE_SIZE) break;
+        long size = bundle.length();
+        if (FileUtil.delete(bundle)) {
+          totalSize -= size;
+        }
+      }
+    }
+
+    if (myReporter.isDebugEnabled()) {
+      myReporter.debug("bundle cache '" + cacheDir + "' holds " + totalSize / 1024 + " KB");
+    }
+  }
+
   // internal function which does the actual wrapping. 90% borrowed from the Bnd source code.
   private void doWrap(@NotNull File inputJar, @NotNull File outputJar, @NotNull Map<String, String> properties) throws OsgiBuildException {
     if (!FileUtil.delete(outputJar)) {
@@ -184,12 +396,24 @@ public class BndWrapper {
    * Builds the .jar file for the given module.
    */
   public void build(@NotNull Map<String, String> properties, File @NotNull [] classPath, File @NotNull [] srcPath, @NotNull File outputFile) throws Exception {
+    build(properties, classPath, srcPath, outputFile, null);
+  }
+
+  /**
+   * Builds the .jar file for the given module, collecting packages referred to by each class in the bundle into {@code references}
+   * (see {@link #updateBundle(File, Map)}). The map is left empty when the bundle contains generated resources or sources.
+   */
+  public void build(@NotNull Map<String, String> properties,
+                    File @NotNull [] classPath,
+                    File @NotNull [] srcPath,
+                    @NotNull File outputFile,
+                    @Nullable Map<String, Set<String>> references) throws Exception {
     try (Builder builder = new ReportingBuilder(myReporter)) {
       builder.setProperties(OrderedProperties.fromMap(properties));
       builder.setPedantic(false);
       builder.setClasspath(classPath);
       builder.setSourcepath(srcPath);
-      doBuild(builder, outputFile);
+      doBuild(builder, outputFile, references);
     }
   }
 
@@ -207,7 +431,7 @@ public class BndWrapper {
           try (Builder builder = new ReportingProjectBuilder(myReporter, (ProjectBuilder)sub)) {
             builder.setProperties(source);
             File output = sub == projectBuilder ? outputFile : new File(outputFile.getParent(), sub.getBsn() + ".jar");
-            doBuild(builder, output);
+            doBuild(builder, output, null);
           }
           finally {
             myReporter.setReportSource(prevSource);
@@ -228,7 +452,7 @@ public class BndWrapper {
             builder.setClasspath(classPath);
             builder.setSourcepath(srcPath);
             File output = sub == mainBuilder ? outputFile : new File(outputFile.getParent(), sub.getBsn() + ".jar");
-            doBuild(builder, output);
+            doBuild(builder, output, null);
           }
           finally {
             myReporter.setReportSource(prevSource);
@@ -238,7 +462,7 @@ public class BndWrapper {
     }
   }
 
-  private void doBuild(@NotNull Builder builder, @NotNull File outputFile) throws Exception {
+  private void doBuild(@NotNull Builder builder, @NotNull File outputFile, @Nullable Map<String, Set<String>> references) throws Exception {
     // check if the manifest version is missing (IDEADEV-41174)
     String manifest = builder.getProperty(Constants.MANIFEST);
     if (manifest != null) {
@@ -262,12 +486,86 @@ public class BndWrapper {
     try (Jar jar = builder.build()) {
       jar.setName(outputFile.getName());
       jar.write(outputFile);
+      if (references != null) {
+        collectReferences(builder, jar, references);
+      }
     }
 
     builder.getWarnings().forEach(s -> reportProblem(s, builder.getLocation(s), false));
     builder.getErrors().forEach(s -> reportProblem(s, builder.getLocation(s), true));
   }
 
+  private static void collectReferences(Builder builder, Jar jar, Map<String, Set<String>> references) throws Exception {
+    for (String path : jar.getResources().keySet()) {
+      if (path.startsWith("OSGI-INF/") || path.startsWith("OSGI-OPT/")) {
+        // generated from annotations or sources - patching classes would make them stale
+        references.clear();
+        return;
+      }
+      if (path.endsWith(".class")) {
+        Clazz clazz = builder.findClass(builder.getTypeRefFromPath(path));
+        if (clazz != null && clazz.getReferred() != null) {
+          references.put(path, getPackageNames(clazz));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns packages the given class refers to, or {@code null} if the class can't be parsed or carries OSGi or bnd annotations
+   * (which may contribute to the manifest or generate resources).
+   */
+  @Nullable
+  public static Set<String> getReferredPackages(@NotNull File classFile, @NotNull String path) {
+    try (Analyzer analyzer = new Analyzer();
+         Resource resource = new FileResource(classFile)) {
+      Clazz clazz = new Clazz(analyzer, path, resource);
+      boolean[] annotated = {false};
+      clazz.parseClassFileWithCollector(new ClassDataCollector() {
+        @Override
+        public void annotation(Annotation annotation) {
+          String name = annotation.getName().getFQN();
+          if (name.startsWith("org.osgi.") || name.startsWith("aQute.bnd.annotation.")) {
+            annotated[0] = true;
+          }
+        }
+      });
+      return annotated[0] ? null : getPackageNames(clazz);
+    }
+    catch (Exception e) {
+      Logger.getInstance(BndWrapper.class).debug(e);
+      return null;
+    }
+  }
+
+  private static Set<String> getPackageNames(Clazz clazz) {
+    Set<String> packageNames = new HashSet<>();
+    for (Descriptors.PackageRef packageRef : clazz.getReferred()) {
+      packageNames.add(packageRef.getFQN());
+    }
+    return packageNames;
+  }
+
+  /**
+   * Replaces the given entries of an existing bundle, keeping its manifest and the rest of its content.
+   * Only valid when the entries are classes already in the bundle, referring to the same packages as before.
+   */
+  public static void updateBundle(@NotNull File bundle, @NotNull Map<String, File> entries) throws Exception {
+    File tempFile = new File(bundle.getPath() + ".tmp");
+    try {
+      try (Jar jar = new Jar(bundle)) {
+        for (Map.Entry<String, File> entry : entries.entrySet()) {
+          jar.putResource(entry.getKey(), new FileResource(entry.getValue()));
+        }
+        jar.write(tempFile);
+      }
+      Files.move(tempFile.toPath(), bundle.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    finally {
+      FileUtil.delete(tempFile);
+    }
+  }
+
   private void reportProblem(String message, Report.Location location, boolean error) {
     String sourcePath = null;
     int lineNum = -1;
@@ -285,6 +583,62 @@ public class BndWrapper {
     }
   }
 
+  /**
+   * Keeps the messages of a wrap running on a pool thread until they are passed to the build's reporter on its thread.
+   */
+  private static final class BufferingReporter implements Reporter {
+    private final List<Consumer<Reporter>> myMessages = new ArrayList<>();
+    private final boolean myDebugEnabled;
+    private String myReportSource;
+
+    private BufferingReporter(boolean debugEnabled) {
+      myDebugEnabled = debugEnabled;
+    }
+
+    @Override
+    public void progress(@NotNull String message) {
+      myMessages.add(reporter -> reporter.progress(message));
+    }
+
+    @Override
+    public void warning(@NotNull String message, @Nullable Throwable t, @Nullable String sourcePath, int lineNum) {
+      myMessages.add(reporter -> reporter.warning(message, t, sourcePath, lineNum));
+    }
+
+    @Override
+    public void error(@NotNull String message, @Nullable Throwable t, @Nullable String sourcePath, int lineNum) {
+      myMessages.add(reporter -> reporter.error(message, t, sourcePath, lineNum));
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+      return myDebugEnabled;
+    }
+
+    @Override
+    public void debug(@NotNull String message) {
+      myMessages.add(reporter -> reporter.debug(message));
+    }
+
+    @Override
+    public String setReportSource(String source) {
+      myMessages.add(reporter -> reporter.setReportSource(source));
+      String prevSource = myReportSource;
+      myReportSource = source;
+      return prevSource;
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return false;
+    }
+
+    private void replay(@NotNull Reporter reporter) {
+      myMessages.forEach(message -> message.accept(reporter));
+      myMessages.clear();
+    }
+  }
+
   /**
    * Creates an output dir relative to a module's one.
    */
@@ -0,0 +1,114 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.osgi.jps.build;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * The outcome of the last full build of a bundle: a hash of the build configuration, the bundle file stamp,
+ * and the packages referred to by each class in the bundle.
+ * It tells whether changed classes can be patched into the bundle without affecting its manifest.
+ */
+final class BundleState {
+  private static final int VERSION = 1;
+
+  private final String myConfigurationHash;
+  private final long myLength;
+  private final long myLastModified;
+  private final Map<String, Set<String>> myReferences;
+
+  BundleState(@NotNull String configurationHash, @NotNull File bundle, @NotNull Map<String, Set<String>> references) {
+    this(configurationHash, bundle.length(), bundle.lastModified(), references);
+  }
+
+  private BundleState(String configurationHash, long length, long lastModified, Map<String, Set<String>> references) {
+    myConfigurationHash = configurationHash;
+    myLength = length;
+    myLastModified = lastModified;
+    myReferences = references;
+  }
+
+  /**
+   * True if the bundle was built with the given configuration and wasn't touched since.
+   */
+  boolean isUpToDate(@NotNull String configurationHash, @NotNull File bundle) {
+    return myConfigurationHash.equals(configurationHash) && bundle.length() == myLength && bundle.lastModified() == myLastModified;
+  }
+
+  /**
+   * True if the class was in the bundle and referred to the same packages.
+   */
+  boolean hasSameReferences(@NotNull String classPath, @NotNull Set<String> referredPackages) {
+    return referredPackages.equals(myReferences.get(classPath));
+  }
+
+  @NotNull
+  BundleState withBundle(@NotNull File bundle) {
+    return new BundleState(myConfigurationHash, bundle, myReferences);
+  }
+
+  @NotNull
+  static String hash(@NotNull String configuration) {
+    try {
+      return StringUtil.toHexString(MessageDigest.getInstance("SHA-256").digest(configuration.getBytes(StandardCharsets.UTF_8)));
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Nullable
+  static BundleState load(@NotNull File file) {
+    if (!file.isFile()) return null;
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != VERSION) return null;
+      String configurationHash = in.readUTF();
+      long length = in.readLong();
+      long lastModified = in.readLong();
+      int classCount = in.readInt();
+      Map<String, Set<String>> references = new HashMap<>(classCount);
+      for (int i = 0; i < classCount; i++) {
+        String classPath = in.readUTF();
+        int packageCount = in.readInt();
+        Set<String> packages = new HashSet<>(packageCount);
+        for (int j = 0; j < packageCount; j++) {
+          packages.add(in.readUTF());
+        }
+        references.put(classPath, packages);
+      }
+      return new BundleState(configurationHash, length, lastModified, references);
+    }
+    catch (IOException e) {
+      Logger.getInstance(BundleState.class).debug(e);
+      return null;
+    }
+  }
+
+  void save(@NotNull File file) throws IOException {
+    FileUtil.createParentDirs(file);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      out.writeInt(VERSION);
+      out.writeUTF(myConfigurationHash);
+      out.writeLong(myLength);
+      out.writeLong(myLastModified);
+      out.writeInt(myReferences.size());
+      for (Map.Entry<String, Set<String>> entry : myReferences.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeInt(entry.getValue().size());
+        for (String packageName : entry.getValue()) {
+          out.writeUTF(packageName);
+        }
+      }
+    }
+  }
+}
@@ -26,17 +26,21 @@ package org.jetbrains.osgi.jps.build;
 
 import aQute.bnd.osgi.Constants;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.Pair;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * This is a helper class which helps providing information about bundles (that do not necessarily belong to the project).
@@ -44,7 +48,18 @@ import java.util.jar.Manifest;
  * @author <a href="mailto:janthomae@janthomae.de">Jan Thomä</a>
  */
 public class CachingBundleInfoProvider {
-  private static final Map<String, Pair<Long, Manifest>> ourCache = new WeakHashMap<>();
+  private static final int CACHE_SIZE = 2048;
+
+  /**
+   * Manifests by canonical path of the bundle (or the manifest file of an exploded bundle).
+   * A missing manifest is cached as well, so plain .jar files are not re-read either.
+   * Entries remember the tick of their last use; see {@link #evictStaleEntries()}.
+   */
+  private static final Map<String, ManifestEntry> ourCache = new ConcurrentHashMap<>();
+  private static final AtomicLong ourClock = new AtomicLong();
+  private static final AtomicBoolean ourEvicting = new AtomicBoolean();
+  private static final AtomicLong ourHits = new AtomicLong();
+  private static final AtomicLong ourMisses = new AtomicLong();
 
   /**
    * True for .jar files or exploded directories with Bundle-SymbolicName in their manifests.
@@ -83,51 +98,123 @@ public class CachingBundleInfoProvider {
   }
 
   @Nullable
-  public synchronized static String getBundleAttribute(@NotNull String path, @NotNull String attribute) {
-    Pair<Long, Manifest> pair = ourCache.remove(path);
+  public static String getBundleAttribute(@NotNull String path, @NotNull String attribute) {
+    Manifest manifest = getManifest(path);
+    return manifest != null ? manifest.getMainAttributes().getValue(attribute) : null;
+  }
 
+  /**
+   * Number of manifest lookups answered from the cache.
+   */
+  public static long getHitCount() {
+    return ourHits.get();
+  }
+
+  /**
+   * Number of manifest lookups which had to read the bundle.
+   */
+  public static long getMissCount() {
+    return ourMisses.get();
+  }
+
+  @Nullable
+  private static Manifest getManifest(@NotNull String path) {
+    File bundleFile = new File(path);
+    boolean directory = bundleFile.isDirectory();
+    File file = directory ? new File(bundleFile, JarFile.MANIFEST_NAME) : bundleFile;
+    if (!file.isFile()) {
+      return null;
+    }
+
+    String key = getCanonicalPath(file);
+    long length = file.length(), lastModified = file.lastModified();
+    ManifestEntry entry = ourCache.get(key);
+    if (entry != null && entry.myLength == length && entry.myLastModified == lastModified) {
+      ourHits.incrementAndGet();
+      entry.myLastUsed = ourClock.incrementAndGet();
+      return entry.myManifest;
+    }
+
+    // a concurrent miss on the same file just reads it twice
+    ourMisses.incrementAndGet();
+    Manifest manifest;
     try {
-      File bundleFile = new File(path);
-      if (bundleFile.isDirectory()) {
-        File manifestFile = new File(bundleFile, JarFile.MANIFEST_NAME);
-        if (pair == null || pair.first != manifestFile.lastModified()) {
-          pair = null;
-          FileInputStream stream = new FileInputStream(manifestFile);
-          try {
-            Manifest manifest = new Manifest(stream);
-            pair = Pair.create(manifestFile.lastModified(), manifest);
-          }
-          finally {
-            stream.close();
-          }
-        }
+      manifest = directory ? readManifest(file) : readJarManifest(file);
+    }
+    catch (IOException e) {
+      // not cached: the file may be in the middle of being written
+      Logger.getInstance(CachingBundleInfoProvider.class).debug(e);
+      return null;
+    }
+    ourCache.put(key, new ManifestEntry(length, lastModified, manifest, ourClock.incrementAndGet()));
+    if (ourCache.size() > CACHE_SIZE) {
+      evictStaleEntries();
+    }
+    return manifest;
+  }
+
+  /**
+   * Approximate LRU: drops the entries not used during the last {@code CACHE_SIZE * 3 / 4} lookups.
+   * At most that many entries can have been used since, so the cache shrinks below the limit; one thread evicts at a time.
+   */
+  private static void evictStaleEntries() {
+    if (ourEvicting.compareAndSet(false, true)) {
+      try {
+        long threshold = ourClock.get() - CACHE_SIZE * 3 / 4;
+        ourCache.values().removeIf(entry -> entry.myLastUsed < threshold);
       }
-      else if (bundleFile.isFile()) {
-        if (pair == null || pair.first != bundleFile.lastModified()) {
-          pair = null;
-          JarFile jar = new JarFile(bundleFile);
-          try {
-            Manifest manifest = jar.getManifest();
-            if (manifest != null) {
-              pair = Pair.create(bundleFile.lastModified(), manifest);
-            }
-          }
-          finally {
-            jar.close();
-          }
-        }
+      finally {
+        ourEvicting.set(false);
       }
     }
+  }
+
+  private static String getCanonicalPath(File file) {
+    try {
+      return file.getCanonicalPath();
+    }
     catch (IOException e) {
-      Logger.getInstance(CachingBundleInfoProvider.class).debug(e);
+      return file.getAbsolutePath();
     }
+  }
 
-    if (pair != null) {
-      ourCache.put(path, pair);
-      return pair.second.getMainAttributes().getValue(attribute);
+  private static Manifest readManifest(File manifestFile) throws IOException {
+    try (FileInputStream stream = new FileInputStream(manifestFile)) {
+      return new Manifest(stream);
     }
-    else {
-      return null;
+  }
+
+  /**
+   * Looks up the manifest entry in the central directory and reads only that entry, without verifying the jar.
+   * Like {@link JarFile}, accepts the manifest name in any case.
+   */
+  @Nullable
+  private static Manifest readJarManifest(File jarFile) throws IOException {
+    try (ZipFile zip = new ZipFile(jarFile)) {
+      ZipEntry entry = zip.getEntry(JarFile.MANIFEST_NAME);
+      if (entry == null) {
+        entry = zip.stream().filter(e -> JarFile.MANIFEST_NAME.equalsIgnoreCase(e.getName())).findFirst().orElse(null);
+        if (entry == null) {
+          return null;
+        }
+      }
+      try (InputStream stream = zip.getInputStream(entry)) {
+        return new Manifest(stream);
+      }
+    }
+  }
+
+  private static final class ManifestEntry {
+    private final long myLength;
+    private final long myLastModified;
+    private final Manifest myManifest;
+    private volatile long myLastUsed;
+
+    private ManifestEntry(long length, long lastModified, @Nullable Manifest manifest, long lastUsed) {
+      myLength = length;
+      myLastModified = lastModified;
+      myManifest = manifest;
+      myLastUsed = lastUsed;
     }
   }
 }
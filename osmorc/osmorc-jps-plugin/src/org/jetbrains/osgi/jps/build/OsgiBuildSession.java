@@ -50,9 +50,19 @@ public class OsgiBuildSession implements Reporter {
   private File[] myClasses;
   private File[] mySources;
   private BndWrapper myBndWrapper;
+  private Map<String, String> myBuildProperties;
   private String mySourceToReport = null;
+  private boolean myErrorsReported = false;
 
   public void build(@NotNull OsmorcBuildTarget target, @NotNull CompileContext context) throws IOException {
+    build(target, context, null);
+  }
+
+  /**
+   * @param changedFiles files changed since the last build; when given, the existing bundle is updated in place if its manifest
+   *                     could not be affected by the change (see {@link #updateBundle(Collection)}).
+   */
+  public void build(@NotNull OsmorcBuildTarget target, @NotNull CompileContext context, @Nullable Collection<File> changedFiles) throws IOException {
     myTarget = target;
     myContext = context;
     myExtension = target.getExtension();
@@ -63,7 +73,10 @@ public class OsgiBuildSession implements Reporter {
 
     try {
       prepare();
-      doBuild();
+      if (changedFiles == null || !updateBundle(changedFiles)) {
+        cleanOutputs();
+        doBuild();
+      }
     }
     catch (OsgiBuildException e) {
       error(e.getMessage(), e.getCause(), e.getSourcePath(), -1);
@@ -99,15 +112,6 @@ public class OsgiBuildSession implements Reporter {
     myOutputJarFile = new File(jarFileLocation);
     myOutputJarFiles = myTarget.getOutputRoots(myContext);
 
-    for (File jarFile : myOutputJarFiles) {
-      if (!FileUtil.delete(jarFile)) {
-        throw new OsgiBuildException("Can't delete bundle file '" + jarFile + "'.");
-      }
-    }
-    if (!FileUtil.createParentDirs(myOutputJarFile)) {
-      throw new OsgiBuildException("Cannot create a directory for bundles '" + myOutputJarFile.getParent() + "'.");
-    }
-
     List<File> classes = new SmartList<>();
     if (myModuleOutputDir.exists()) {
       classes.add(myModuleOutputDir);
@@ -137,6 +141,107 @@ public class OsgiBuildSession implements Reporter {
     myBndWrapper = new BndWrapper(this);
   }
 
+  private void cleanOutputs() throws OsgiBuildException {
+    for (File jarFile : myOutputJarFiles) {
+      if (!FileUtil.delete(jarFile)) {
+        throw new OsgiBuildException("Can't delete bundle file '" + jarFile + "'.");
+      }
+    }
+    if (!FileUtil.createParentDirs(myOutputJarFile)) {
+      throw new OsgiBuildException("Cannot create a directory for bundles '" + myOutputJarFile.getParent() + "'.");
+    }
+    FileUtil.delete(getStateFile());
+  }
+
+  /**
+   * Patches changed classes into the existing bundle, instead of running the full analysis.
+   * This is only done for bundles built from IDEA settings, when the build configuration is the same as for the last full build,
+   * and all changed files are classes which were in the bundle and refer to the same packages as before -
+   * i.e. when neither the bundle content nor its imports and exports could change.
+   */
+  private boolean updateBundle(Collection<File> changedFiles) throws OsgiBuildException {
+    if (changedFiles.isEmpty() || !(myExtension.isManifestManuallyEdited() || myExtension.isOsmorcControlsManifest())) {
+      return false;
+    }
+
+    BundleState state = BundleState.load(getStateFile());
+    if (state == null || !state.isUpToDate(getConfigurationHash(), myOutputJarFile)) {
+      return false;
+    }
+
+    Map<String, File> entries = new LinkedHashMap<>();
+    for (File file : changedFiles) {
+      String path = getClassPath(file);
+      if (path == null) {
+        return false;
+      }
+      Set<String> referredPackages = BndWrapper.getReferredPackages(file, path);
+      if (referredPackages == null || !state.hasSameReferences(path, referredPackages)) {
+        return false;
+      }
+      entries.put(path, file);
+    }
+
+    progress("Updating the bundle");
+    try {
+      BndWrapper.updateBundle(myOutputJarFile, entries);
+      state.withBundle(myOutputJarFile).save(getStateFile());
+    }
+    catch (Exception e) {
+      throw new OsgiBuildException("Unexpected build error", e, null);
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("updated " + entries.size() + " classes in " + myOutputJarFile);
+    }
+    return true;
+  }
+
+  /**
+   * Returns the path of a class file in the bundle, or {@code null} if the file is not a regular class
+   * or is shadowed by another class file on the bundle class path.
+   */
+  @Nullable
+  private String getClassPath(File file) {
+    String name = file.getName();
+    if (!name.endsWith(".class") || name.equals("package-info.class") || name.equals("module-info.class")) {
+      return null;
+    }
+    String path = null;
+    for (File classesDir : myClasses) {
+      if (FileUtil.isAncestor(classesDir, file, true)) {
+        path = FileUtil.toSystemIndependentName(FileUtil.getRelativePath(classesDir, file));
+        break;
+      }
+    }
+    if (path == null) {
+      return null;
+    }
+    for (File classesDir : myClasses) {
+      File candidate = new File(classesDir, path);
+      if (candidate.exists()) {
+        return FileUtil.filesEqual(candidate, file) ? path : null;
+      }
+    }
+    return null;
+  }
+
+  private File getStateFile() {
+    File dataRoot = myContext.getProjectDescriptor().dataManager.getDataPaths().getTargetDataRoot(myTarget);
+    return new File(dataRoot, "bundle.state");
+  }
+
+  private String getConfigurationHash() throws OsgiBuildException {
+    StringBuilder configuration = new StringBuilder();
+    configuration.append(myOutputJarFile.getAbsolutePath()).append('\n');
+    for (File classesDir : myClasses) {
+      configuration.append(classesDir.getAbsolutePath()).append('\n');
+    }
+    for (Map.Entry<String, String> entry : new TreeMap<>(getBuildProperties()).entrySet()) {
+      configuration.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+    }
+    return BundleState.hash(configuration.toString());
+  }
+
   private void doBuild() throws OsgiBuildException {
     progress("Running Bnd to build the bundle");
 
@@ -194,8 +299,12 @@ public class OsgiBuildSession implements Reporter {
       }
 
       mySourceToReport = getSourceFileToReport();
+      Map<String, Set<String>> references = new HashMap<>();
       try {
-        myBndWrapper.build(buildProperties, myClasses, mySources, myOutputJarFile);
+        myBndWrapper.build(buildProperties, myClasses, mySources, myOutputJarFile, references);
+        if (!references.isEmpty() && !myErrorsReported && myOutputJarFile.isFile()) {
+          new BundleState(getConfigurationHash(), myOutputJarFile, references).save(getStateFile());
+        }
       }
       catch (Exception e) {
         throw new OsgiBuildException("Unexpected build error", e, null);
@@ -210,6 +319,14 @@ public class OsgiBuildSession implements Reporter {
 
   @NotNull
   private Map<String, String> getBuildProperties() throws OsgiBuildException {
+    if (myBuildProperties == null) {
+      myBuildProperties = computeBuildProperties();
+    }
+    return myBuildProperties;
+  }
+
+  @NotNull
+  private Map<String, String> computeBuildProperties() throws OsgiBuildException {
     Map<String, String> properties = new HashMap<>();
 
     // defaults (similar to Maven)
@@ -309,6 +426,7 @@ public class OsgiBuildSession implements Reporter {
 
   @Override
   public void error(@NotNull String message, @Nullable Throwable t, @Nullable String sourcePath, int lineNum) {
+    myErrorsReported = true;
     process(BuildMessage.Kind.ERROR, message, t, sourcePath, lineNum);
   }
 
@@ -327,6 +445,11 @@ public class OsgiBuildSession implements Reporter {
     LOG.debug(message);
   }
 
+  @Override
+  public boolean isCanceled() {
+    return myContext.getCancelStatus().isCanceled();
+  }
+
   @Override
   public String setReportSource(String source) {
     String prevSource = mySourceToReport;
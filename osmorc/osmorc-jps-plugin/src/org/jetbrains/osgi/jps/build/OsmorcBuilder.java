@@ -9,8 +9,11 @@ import org.jetbrains.jps.builders.java.JavaBuilderUtil;
 import org.jetbrains.jps.incremental.CompileContext;
 import org.jetbrains.jps.incremental.TargetBuilder;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * @author michael.golubev
@@ -35,8 +38,13 @@ public class OsmorcBuilder extends TargetBuilder<BuildRootDescriptor, OsmorcBuil
                     @NotNull CompileContext context) throws IOException {
     if (target.getExtension().isAlwaysRebuildBundleJar() ||
         JavaBuilderUtil.isForcedRecompilationAllJavaModules(context) ||
-        holder.hasDirtyFiles() || holder.hasRemovedFiles()) {
+        holder.hasRemovedFiles()) {
       new OsgiBuildSession().build(target, context);
     }
+    else if (holder.hasDirtyFiles()) {
+      List<File> changedFiles = new ArrayList<>();
+      holder.processDirtyFiles((t, file, root) -> changedFiles.add(file));
+      new OsgiBuildSession().build(target, context, changedFiles);
+    }
   }
 }
\ No newline at end of file
@@ -17,4 +17,9 @@ public interface Reporter {
   void debug(@NotNull String message);
 
   String setReportSource(String source);
+
+  /**
+   * @return whether the build was canceled; long-running steps check this between units of work
+   */
+  boolean isCanceled();
 }
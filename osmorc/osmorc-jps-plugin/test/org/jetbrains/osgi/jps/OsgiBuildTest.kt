@@ -5,6 +5,7 @@ import org.jetbrains.jps.model.module.JpsModule
 import org.jetbrains.osgi.jps.model.ManifestGenerationMode
 import org.jetbrains.osgi.jps.model.OsmorcJarContentEntry
 import java.io.File
+import java.util.jar.JarFile
 
 class OsgiBuildTest : OsgiBuildTestCase() {
   private lateinit var myModule: JpsModule
@@ -148,6 +149,42 @@ class OsgiBuildTest : OsgiBuildTestCase() {
     buildAllModules().assertUpToDate()
   }
 
+  fun testIncrementalUpdate() {
+    ideaBuild(myModule)
+    extension(myModule).properties.myAdditionalProperties = mapOf("Export-Package" to "main")
+    createFile("main/src/main/Main.java", "package main;\n\npublic class Main { public String greeting() { return \"Hello\"; } }")
+    buildAllModules().assertBundleCompiled(myModule)
+    val fullBuildStamp = bndLastModified(myModule)
+
+    changeFile("main/src/main/Main.java", "package main;\n\npublic class Main { public String greeting() { return \"Hi\"; } }")
+    buildAllModules().assertBundleCompiled(myModule)
+    assertEquals(fullBuildStamp, bndLastModified(myModule))
+    assertJar(myModule, setOf("META-INF/MANIFEST.MF", "main/Main.class"))
+    assertManifest(myModule, setOf("Bundle-Name=main", "Bundle-SymbolicName=main", "Bundle-Version=1.0.0", "Export-Package=main;version=\"1.0.0\""))
+    buildAllModules().assertUpToDate()
+
+    changeFile("main/src/main/Main.java", "package main;\n\npublic class Main { public String greeting() { return new javax.swing.JButton(\"Hi\").getText(); } }")
+    buildAllModules().assertBundleCompiled(myModule)
+    assertManifest(myModule, setOf("Bundle-Name=main", "Bundle-SymbolicName=main", "Bundle-Version=1.0.0", "Export-Package=main;version=\"1.0.0\"",
+        "Import-Package=javax.swing"))
+  }
+
+  fun testIncrementalUpdateOfManyClasses() {
+    ideaBuild(myModule)
+    extension(myModule).properties.myAdditionalProperties = mapOf("Export-Package" to "main.*")
+    for (i in 0 until 30) {
+      createFile("main/src/main/p${i % 10}/C${i}.java", "package main.p${i % 10};\n\npublic class C${i} { public int value() { return ${i}; } }")
+    }
+    buildAllModules().assertBundleCompiled(myModule)
+    val fullBuildStamp = bndLastModified(myModule)
+
+    changeFile("main/src/main/p0/C0.java", "package main.p0;\n\npublic class C0 { public int value() { return -1; } }")
+    buildAllModules().assertBundleCompiled(myModule)
+    assertEquals(fullBuildStamp, bndLastModified(myModule))
+    assertJar(myModule, setOf("META-INF/MANIFEST.MF") + (0 until 30).map { "main/p${it % 10}/C${it}.class" })
+    buildAllModules().assertUpToDate()
+  }
+
   fun testUnusedImport() {
     ideaBuild(myModule)
     extension(myModule).properties.myAdditionalProperties = mapOf("Import-Package" to "org.osgi.*")
@@ -220,4 +257,7 @@ class OsgiBuildTest : OsgiBuildTestCase() {
     assertJar(myModule, "main.b.jar", setOf("META-INF/MANIFEST.MF", "main/b/B.class"))
     assertManifest(myModule, "main.b.jar", setOf("Bundle-Name=main.b", "Bundle-SymbolicName=main.b", "Bundle-Version=1.0.1", "Export-Package=main.b;version=\"1.0.1\""))
   }
-}
\ No newline at end of file
+
+  private fun bndLastModified(module: JpsModule) =
+    JarFile(File(extension(module).jarFileLocation)).use { it.manifest.mainAttributes.getValue("Bnd-LastModified") }
+}
@@ -1,4 +1,4 @@
-// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.osgi.project;
 
 import aQute.bnd.header.Parameters;
@@ -6,7 +6,7 @@ import aQute.bnd.osgi.Constants;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiNameHelper;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -23,6 +23,12 @@ public class BundleManifest {
   private final Map<String, String> myMap;
   private final PsiFile mySource;
 
+  // headers are parsed on first use; racing threads may parse twice, but the results are equal
+  private volatile PackageTable myExportedPackages;
+  private volatile PackageTable myImportedPackages;
+  private volatile PackageTable myPrivatePackages;
+  private volatile Set<String> myRequiredBundles;
+
   public BundleManifest(@NotNull Map<String, String> map) {
     this(map, null);
   }
@@ -54,44 +60,35 @@ public class BundleManifest {
 
   @Nullable
   public String getExportedPackage(@NotNull String packageName) {
-    for (String exported : getValues(Constants.EXPORT_PACKAGE)) {
-      exported = StringUtil.trimEnd(exported, ".*");
-      if (PsiNameHelper.isSubpackageOf(packageName, exported)) {
-        return exported;
-      }
+    PackageTable exported = myExportedPackages;
+    if (exported == null) {
+      myExportedPackages = exported = new PackageTable(ContainerUtil.map(getValues(Constants.EXPORT_PACKAGE), p -> StringUtil.trimEnd(p, ".*")));
     }
-
-    return null;
+    return exported.findEnclosing(packageName);
   }
 
   public boolean isPackageImported(@NotNull String packageName) {
-    for (String imported : getValues(Constants.IMPORT_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, imported)) {
-        return true;
-      }
+    PackageTable imported = myImportedPackages;
+    if (imported == null) {
+      myImportedPackages = imported = new PackageTable(getValues(Constants.IMPORT_PACKAGE));
     }
-
-    return false;
+    return imported.findEnclosing(packageName) != null;
   }
 
   public boolean isBundleRequired(@NotNull String bsn) {
-    for (String bundleName : getValues(Constants.REQUIRE_BUNDLE)) {
-      if (bsn.equals(bundleName)) {
-        return true;
-      }
+    Set<String> required = myRequiredBundles;
+    if (required == null) {
+      myRequiredBundles = required = getValues(Constants.REQUIRE_BUNDLE);
     }
-
-    return false;
+    return required.contains(bsn);
   }
 
   public boolean isPrivatePackage(@NotNull String packageName) {
-    for (String privatePkg : getValues(Constants.PRIVATE_PACKAGE)) {
-      if (PsiNameHelper.isSubpackageOf(packageName, privatePkg)) {
-        return true;
-      }
+    PackageTable privatePackages = myPrivatePackages;
+    if (privatePackages == null) {
+      myPrivatePackages = privatePackages = new PackageTable(getValues(Constants.PRIVATE_PACKAGE));
     }
-
-    return false;
+    return privatePackages.findEnclosing(packageName) != null;
   }
 
   private Set<String> getValues(String header) {
@@ -1,15 +1,18 @@
-// Copyright 2000-2019 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
 package org.jetbrains.osgi.project;
 
 import aQute.bnd.osgi.Constants;
 import aQute.lib.utf8properties.UTF8Properties;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.JdkOrderEntry;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.roots.OrderEntry;
+import com.intellij.openapi.roots.OrderEnumerator;
 import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.openapi.vfs.InvalidVirtualFileAccessException;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -48,12 +51,14 @@ public class BundleManifestCache {
     return ServiceManager.getService(project, BundleManifestCache.class);
   }
 
+  private static final BundleManifest JDK_MANIFEST = new JdkBundleManifest();
+
   private final Project myProject;
   private final Map<Object, CachedValue<BundleManifest>> myCache;
 
   public BundleManifestCache(@NotNull Project project) {
     myProject = project;
-    myCache = Collections.synchronizedMap(ContainerUtil.createSoftMap());
+    myCache = ContainerUtil.createConcurrentSoftMap();
   }
 
   @Nullable
@@ -69,7 +74,7 @@ public class BundleManifestCache {
       ProjectFileIndex index = ProjectFileIndex.getInstance(myProject);
       List<OrderEntry> entries = index.getOrderEntriesForFile(file);
       if (entries.size() == 1 && entries.get(0) instanceof JdkOrderEntry) {
-        return new JdkBundleManifest();
+        return JDK_MANIFEST;
       }
 
       Module module = index.getModuleForFile(file);
@@ -151,6 +156,34 @@ public class BundleManifestCache {
     return value.getValue();
   }
 
+  /**
+   * Returns manifests of OSGi modules and library roots of the project which export the given package
+   * (or one of its parent packages - see {@link BundleManifest#getExportedPackage(String)}).
+   * Each manifest is checked against its own table of exported packages, which is built once per manifest instance.
+   */
+  @NotNull
+  public List<BundleManifest> getExporters(@NotNull String packageName) {
+    List<BundleManifest> result = new SmartList<>();
+    for (Module module : ModuleManager.getInstance(myProject).getModules()) {
+      addIfExported(result, getManifest(module), packageName);
+    }
+    for (VirtualFile libRoot : getLibraryRoots()) {
+      addIfExported(result, getManifest(libRoot), packageName);
+    }
+    return result;
+  }
+
+  private VirtualFile[] getLibraryRoots() {
+    return CachedValuesManager.getManager(myProject).getCachedValue(myProject, () -> CachedValueProvider.Result.create(
+      OrderEnumerator.orderEntries(myProject).librariesOnly().classes().getRoots(), ProjectRootManager.getInstance(myProject)));
+  }
+
+  private static void addIfExported(List<BundleManifest> result, @Nullable BundleManifest manifest, String packageName) {
+    if (manifest != null && manifest.getExportedPackage(packageName) != null && !result.contains(manifest)) {
+      result.add(manifest);
+    }
+  }
+
   private static PsiFile findInModuleRoots(Module module, String path) {
     for (VirtualFile root : ModuleRootManager.getInstance(module).getContentRoots()) {
       VirtualFile file = root.findFileByRelativePath(path);
@@ -0,0 +1,69 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.osgi.project;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable set of package names, matching a package against all listed packages it equals or is a subpackage of.
+ * Lookups walk a trie of package name segments, so the cost depends on the depth of the package, not on the table size.
+ * If several listed packages match, the one listed first wins.
+ */
+final class PackageTable {
+  private final Node myRoot = new Node();
+
+  PackageTable(@NotNull Collection<String> packageNames) {
+    int ordinal = 0;
+    for (String packageName : packageNames) {
+      Node node = myRoot;
+      int start = 0;
+      while (true) {
+        int end = packageName.indexOf('.', start);
+        String segment = end < 0 ? packageName.substring(start) : packageName.substring(start, end);
+        node = node.myChildren.computeIfAbsent(segment, s -> new Node());
+        if (end < 0) break;
+        start = end + 1;
+      }
+      if (node.myPackageName == null) {
+        node.myPackageName = packageName;
+        node.myOrdinal = ordinal;
+      }
+      ordinal++;
+    }
+  }
+
+  /**
+   * Returns the first listed package which is equal to the given one or is its parent.
+   */
+  @Nullable
+  String findEnclosing(@NotNull String packageName) {
+    String result = null;
+    int resultOrdinal = Integer.MAX_VALUE;
+
+    Node node = myRoot;
+    int start = 0;
+    while (node != null && !node.myChildren.isEmpty()) {
+      int end = packageName.indexOf('.', start);
+      String segment = end < 0 ? packageName.substring(start) : packageName.substring(start, end);
+      node = node.myChildren.get(segment);
+      if (node != null && node.myPackageName != null && node.myOrdinal < resultOrdinal) {
+        result = node.myPackageName;
+        resultOrdinal = node.myOrdinal;
+      }
+      if (end < 0) break;
+      start = end + 1;
+    }
+
+    return result;
+  }
+
+  private static final class Node {
+    private final Map<String, Node> myChildren = new HashMap<>();
+    private String myPackageName;
+    private int myOrdinal;
+  }
+}
@@ -33,12 +33,17 @@ import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.packageDependencies.DependenciesBuilder;
 import com.intellij.packageDependencies.DependencyVisitorFactory;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiClassOwner;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.ObjectUtils;
 import com.intellij.util.SmartList;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.lang.manifest.psi.ManifestFile;
@@ -51,6 +56,9 @@ import org.osmorc.util.OsgiPsiUtil;
 import javax.swing.*;
 import java.lang.annotation.RetentionPolicy;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.osmorc.i18n.OsmorcBundle.message;
 
@@ -140,13 +148,21 @@ public class PackageAccessibilityInspection extends AbstractBaseJavaLocalInspect
       return null;
     }
 
-    BundleManifest importer = BundleManifestCache.getInstance(targetClass.getProject()).getManifest(requestorModule);
+    BundleManifestCache cache = BundleManifestCache.getInstance(targetClass.getProject());
+    BundleManifest importer = cache.getManifest(requestorModule);
+    BundleManifest exporter = cache.getManifest(targetClass);
+
+    // the rest depends only on the package and the bundles, so it is resolved once per bundle wiring
+    Map<String, Optional<Problem>> wiring = getWiring(facet, importer).computeIfAbsent(ObjectUtils.notNull(exporter, ObjectUtils.NULL), k -> new ConcurrentHashMap<>());
+    return wiring.computeIfAbsent(packageName, k -> Optional.ofNullable(checkWiring(packageName, importer, exporter, facet))).orElse(null);
+  }
+
+  private static Problem checkWiring(String packageName, @Nullable BundleManifest importer, @Nullable BundleManifest exporter, OsmorcFacet facet) {
     if (importer != null && (importer.isPrivatePackage(packageName) || importer.getExportedPackage(packageName) != null)) {
       return null;
     }
 
     // rejects non-exported classes (manifest missing, or a package isn't listed as exported)
-    BundleManifest exporter = BundleManifestCache.getInstance(targetClass.getProject()).getManifest(targetClass);
     if (exporter == null || exporter.getBundleSymbolicName() == null) {
       return Problem.weak(message("PackageAccessibilityInspection.non.osgi", packageName));
     }
@@ -177,6 +193,19 @@ public class PackageAccessibilityInspection extends AbstractBaseJavaLocalInspect
     return Problem.error(message("PackageAccessibilityInspection.not.imported", packageName), new ImportPackageFix(exportedPackage));
   }
 
+  /**
+   * Accessibility of packages from the facet's module, by importing and exporting bundle manifests and package name.
+   * {@link BundleManifestCache} creates a new manifest instance whenever its source file changes, so entries of edited
+   * manifests become unreachable and are collected; only root and facet configuration changes drop the whole map.
+   */
+  private static Map<Object, Map<String, Optional<Problem>>> getWiring(OsmorcFacet facet, @Nullable BundleManifest importer) {
+    Module module = facet.getModule();
+    Project project = module.getProject();
+    Map<Object, Map<Object, Map<String, Optional<Problem>>>> wiring = CachedValuesManager.getManager(project).getCachedValue(module, () ->
+      CachedValueProvider.Result.create(ContainerUtil.createConcurrentWeakMap(), ProjectRootManager.getInstance(project), facet.getConfiguration()));
+    return wiring.computeIfAbsent(ObjectUtils.notNull(importer, ObjectUtils.NULL), k -> ContainerUtil.createConcurrentWeakMap());
+  }
+
   private static class ImportPackageFix extends AbstractOsgiQuickFix {
     private final String myPackageToImport;
 
@@ -24,6 +24,7 @@
  */
 package org.osmorc.make;
 
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.progress.ProgressIndicator;
@@ -83,7 +84,8 @@ public class BundleCompiler implements Reporter {
 
     List<File> files = ContainerUtil.map(paths, path -> new File(path));
 
-    return new BndWrapper(this).bundlifyLibraries(files, outputDir, libRules);
+    File cacheDir = new File(PathManager.getSystemPath(), "osmorc/bundles");
+    return new BndWrapper(this).bundlifyLibraries(files, outputDir, libRules, cacheDir);
   }
 
   private static File getModuleOutputDir(@NotNull Module module) throws OsgiBuildException {
@@ -123,6 +125,11 @@ public class BundleCompiler implements Reporter {
     LOG.debug(message);
   }
 
+  @Override
+  public boolean isCanceled() {
+    return myIndicator.isCanceled();
+  }
+
   @Override
   public String setReportSource(String source) {
     return null;
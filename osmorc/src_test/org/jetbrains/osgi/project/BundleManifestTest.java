@@ -0,0 +1,87 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.osgi.project;
+
+import aQute.bnd.osgi.Constants;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BundleManifestTest {
+  @Test
+  public void testExportedPackage() {
+    BundleManifest manifest = manifest(Constants.EXPORT_PACKAGE, "org.foo.bar;version=1.0, org.foo.*, org.baz");
+
+    assertEquals("org.foo", manifest.getExportedPackage("org.foo"));
+    assertEquals("org.foo.bar", manifest.getExportedPackage("org.foo.bar"));
+    assertEquals("org.foo.bar", manifest.getExportedPackage("org.foo.bar.impl"));
+    assertEquals("org.foo", manifest.getExportedPackage("org.foo.baz"));
+    assertEquals("org.baz", manifest.getExportedPackage("org.baz.impl"));
+    assertNull(manifest.getExportedPackage("org"));
+    assertNull(manifest.getExportedPackage("org.foobar"));
+    assertNull(manifest.getExportedPackage("com.foo"));
+  }
+
+  @Test
+  public void testFirstListedExportWins() {
+    BundleManifest manifest = manifest(Constants.EXPORT_PACKAGE, "org.foo.bar, org.foo");
+
+    assertEquals("org.foo.bar", manifest.getExportedPackage("org.foo.bar.impl"));
+    assertEquals("org.foo", manifest.getExportedPackage("org.foo.baz"));
+  }
+
+  @Test
+  public void testImportedAndPrivatePackages() {
+    Map<String, String> map = new HashMap<>();
+    map.put(Constants.IMPORT_PACKAGE, "javax.swing;resolution:=optional, org.foo;version=\"[1.0,2.0)\"");
+    map.put(Constants.PRIVATE_PACKAGE, "org.impl");
+    map.put(Constants.REQUIRE_BUNDLE, "org.required;bundle-version=1.0");
+    BundleManifest manifest = new BundleManifest(map);
+
+    assertTrue(manifest.isPackageImported("javax.swing"));
+    assertTrue(manifest.isPackageImported("javax.swing.event"));
+    assertTrue(manifest.isPackageImported("org.foo"));
+    assertFalse(manifest.isPackageImported("javax"));
+    assertFalse(manifest.isPackageImported("org.impl"));
+
+    assertTrue(manifest.isPrivatePackage("org.impl.util"));
+    assertFalse(manifest.isPrivatePackage("org.foo"));
+
+    assertTrue(manifest.isBundleRequired("org.required"));
+    assertFalse(manifest.isBundleRequired("org.foo"));
+  }
+
+  @Test
+  public void testEmptyHeaders() {
+    BundleManifest manifest = new BundleManifest(new HashMap<>());
+
+    assertNull(manifest.getExportedPackage("org.foo"));
+    assertFalse(manifest.isPackageImported("org.foo"));
+    assertFalse(manifest.isPrivatePackage("org.foo"));
+    assertFalse(manifest.isBundleRequired("org.foo"));
+  }
+
+  @Test
+  public void testLargeHeaders() {
+    int packageCount = 500;
+    StringBuilder header = new StringBuilder();
+    for (int i = 0; i < packageCount; i++) {
+      if (i > 0) header.append(',');
+      header.append("org.example.module").append(i).append(".api;version=\"1.").append(i).append('"');
+    }
+    BundleManifest manifest = manifest(Constants.IMPORT_PACKAGE, header.toString());
+
+    for (int i = 0; i < packageCount; i++) {
+      assertTrue(manifest.isPackageImported("org.example.module" + i + ".api"));
+    }
+    assertFalse(manifest.isPackageImported("org.example.module" + packageCount + ".api"));
+  }
+
+  private static BundleManifest manifest(String header, String value) {
+    Map<String, String> map = new HashMap<>();
+    map.put(header, value);
+    return new BundleManifest(map);
+  }
+}
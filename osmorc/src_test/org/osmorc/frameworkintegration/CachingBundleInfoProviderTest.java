@@ -31,7 +31,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.osmorc.OsgiTestUtil;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.junit.Assert.*;
 
@@ -85,4 +90,55 @@ public class CachingBundleInfoProviderTest {
     assertFalse(CachingBundleInfoProvider.isFragmentBundle(myJarBundle));
     assertFalse(CachingBundleInfoProvider.isFragmentBundle(myInvalidDirBundle));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCachedUntilModified() throws IOException {
+    File manifest = new File(myDirBundle, "META-INF/MANIFEST.MF");
+    long lastModified = manifest.lastModified();
+    assertEquals("1.0.0", CachingBundleInfoProvider.getBundleVersion(myDirBundle));
+
+    // same length and timestamp - the cached manifest is returned
+    FileUtil.writeToFile(manifest, FileUtil.loadFile(manifest).replace("1.0.0", "2.0.0"));
+    assertTrue(manifest.setLastModified(lastModified));
+    long hits = CachingBundleInfoProvider.getHitCount();
+    assertEquals("1.0.0", CachingBundleInfoProvider.getBundleVersion(myDirBundle));
+    assertEquals(hits + 1, CachingBundleInfoProvider.getHitCount());
+
+    assertTrue(manifest.setLastModified(lastModified + 2000));
+    long misses = CachingBundleInfoProvider.getMissCount();
+    assertEquals("2.0.0", CachingBundleInfoProvider.getBundleVersion(myDirBundle));
+    assertEquals(misses + 1, CachingBundleInfoProvider.getMissCount());
+  }
+
+  @Test
+  public void testLowerCaseManifestName() throws IOException {
+    File jar = new File(myTempDir, "lowercase.jar");
+    FileUtil.writeToFile(jar, createJar("meta-inf/manifest.mf", "lowercase"));
+    assertEquals("lowercase", CachingBundleInfoProvider.getBundleSymbolicName(jar.getPath()));
+  }
+
+  @Test
+  public void testUnreadableJarNotCached() throws IOException {
+    File jar = new File(myTempDir, "partial.jar");
+    byte[] content = createJar("META-INF/MANIFEST.MF", "partial");
+    long lastModified = System.currentTimeMillis() - 10000;
+
+    FileUtil.writeToFile(jar, new byte[content.length]);
+    assertTrue(jar.setLastModified(lastModified));
+    assertFalse(CachingBundleInfoProvider.isBundle(jar.getPath()));
+
+    FileUtil.writeToFile(jar, content);
+    assertTrue(jar.setLastModified(lastModified));
+    assertEquals("partial", CachingBundleInfoProvider.getBundleSymbolicName(jar.getPath()));
+  }
+
+  private static byte[] createJar(String manifestName, String symbolicName) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+      zip.putNextEntry(new ZipEntry(manifestName));
+      zip.write(("Manifest-Version: 1.0\nBundle-SymbolicName: " + symbolicName + "\n").getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+    }
+    return bytes.toByteArray();
+  }
+}
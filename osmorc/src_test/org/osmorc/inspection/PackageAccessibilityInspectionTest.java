@@ -3,10 +3,15 @@ package org.osmorc.inspection;
 
 import com.intellij.codeInsight.intention.IntentionAction;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.osgi.jps.model.ManifestGenerationMode;
+import org.jetbrains.osgi.project.BundleManifest;
+import org.jetbrains.osgi.project.BundleManifestCache;
 import org.osmorc.LightOsgiFixtureTestCase;
 import org.osmorc.i18n.OsmorcBundle;
 
+import java.util.List;
+
 public class PackageAccessibilityInspectionTest extends LightOsgiFixtureTestCase {
   public void testEmpty() {
     doTest(
@@ -121,6 +126,13 @@ public class PackageAccessibilityInspectionTest extends LightOsgiFixtureTestCase
       " javax.swing\n");
   }
 
+  public void testExporters() {
+    BundleManifestCache cache = BundleManifestCache.getInstance(getProject());
+    List<BundleManifest> exporters = cache.getExporters("aQute.bnd.repository.fileset");
+    assertTrue(ContainerUtil.exists(exporters, manifest -> "biz.aQute.repository".equals(manifest.getBundleSymbolicName())));
+    assertEmpty(cache.getExporters("aQute.lib.fileset"));
+  }
+
   private void doTest(String classText) {
     doTest(classText, "");
   }
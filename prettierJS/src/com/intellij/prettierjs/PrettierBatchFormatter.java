@@ -0,0 +1,116 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.prettierjs;
+
+import com.intellij.lang.javascript.service.JSLanguageServiceUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Formats many files with the Prettier language service, sending the next requests before answers to the previous ones arrive,
+ * so the service process doesn't wait for a round trip between files.
+ * Results are passed on in chunks in the order of files, so they can be applied in short write actions while formatting goes on.
+ *
+ * @param <F> a file to format
+ */
+final class PrettierBatchFormatter<F> {
+  private static final Logger LOG = Logger.getInstance(PrettierBatchFormatter.class);
+  static final int MAX_REQUESTS_IN_FLIGHT = 16;
+  static final int CHUNK_SIZE = 50;
+
+  private final Function<? super F, ? extends CompletableFuture<PrettierLanguageService.FormatResult>> myRequestSender;
+  private final int myMaxRequestsInFlight;
+  private final int myChunkSize;
+
+  /**
+   * @param requestSender sends a format request for the file, see {@link PrettierLanguageService#format}
+   */
+  PrettierBatchFormatter(@NotNull Function<? super F, ? extends CompletableFuture<PrettierLanguageService.FormatResult>> requestSender) {
+    this(requestSender, MAX_REQUESTS_IN_FLIGHT, CHUNK_SIZE);
+  }
+
+  PrettierBatchFormatter(@NotNull Function<? super F, ? extends CompletableFuture<PrettierLanguageService.FormatResult>> requestSender,
+                         int maxRequestsInFlight,
+                         int chunkSize) {
+    myRequestSender = requestSender;
+    myMaxRequestsInFlight = maxRequestsInFlight;
+    myChunkSize = chunkSize;
+  }
+
+  /**
+   * Must not be called in a read action, as the answers are awaited.
+   *
+   * @param chunkConsumer receives results of consecutive files, files whose requests timed out are skipped
+   */
+  void format(@NotNull List<? extends F> files,
+              @NotNull ProgressIndicator indicator,
+              @NotNull Consumer<? super Map<F, PrettierLanguageService.FormatResult>> chunkConsumer) {
+    ArrayDeque<PendingRequest<F>> pendingRequests = new ArrayDeque<>();
+    Map<F, PrettierLanguageService.FormatResult> chunk = new LinkedHashMap<>();
+    long start = System.nanoTime();
+    int received = 0;
+    indicator.setIndeterminate(false);
+    for (F file : files) {
+      indicator.checkCanceled();
+      pendingRequests.add(new PendingRequest<>(file, myRequestSender.apply(file)));
+      if (pendingRequests.size() >= myMaxRequestsInFlight) {
+        receive(pendingRequests.poll(), chunk, chunkConsumer);
+        indicator.setFraction((double)++received / files.size());
+      }
+    }
+    while (!pendingRequests.isEmpty()) {
+      indicator.checkCanceled();
+      receive(pendingRequests.poll(), chunk, chunkConsumer);
+      indicator.setFraction((double)++received / files.size());
+    }
+    if (!chunk.isEmpty()) {
+      chunkConsumer.accept(chunk);
+    }
+    if (LOG.isDebugEnabled()) {
+      long time = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+      LOG.debug("Formatted " + files.size() + " files in " + time + " ms (" + files.size() * 1000L / time + " files/s)");
+    }
+  }
+
+  private void receive(@NotNull PendingRequest<F> request,
+                       @NotNull Map<F, PrettierLanguageService.FormatResult> chunk,
+                       @NotNull Consumer<? super Map<F, PrettierLanguageService.FormatResult>> chunkConsumer) {
+    PrettierLanguageService.FormatResult result =
+      JSLanguageServiceUtil.awaitFuture(request.myFuture, JSLanguageServiceUtil.getTimeout(), JSLanguageServiceUtil.QUOTA_MILLS,
+                                        null, true, null, false);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(request.myFile + (result == null ? " timed out after " : " formatted in ") +
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - request.mySentAt) + " ms");
+    }
+    // timed out. show notification?
+    if (result == null) {
+      return;
+    }
+    chunk.put(request.myFile, result);
+    if (chunk.size() >= myChunkSize) {
+      chunkConsumer.accept(new LinkedHashMap<>(chunk));
+      chunk.clear();
+    }
+  }
+
+  private static final class PendingRequest<F> {
+    private final F myFile;
+    private final CompletableFuture<PrettierLanguageService.FormatResult> myFuture;
+    private final long mySentAt = System.nanoTime();
+
+    private PendingRequest(@NotNull F file, @Nullable CompletableFuture<PrettierLanguageService.FormatResult> future) {
+      myFile = file;
+      myFuture = future;
+    }
+  }
+}
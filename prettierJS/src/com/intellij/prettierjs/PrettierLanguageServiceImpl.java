@@ -31,6 +31,7 @@ import static com.intellij.lang.javascript.service.JSLanguageServiceQueue.LOGGER
 
 public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implements PrettierLanguageService {
   private volatile boolean myFlushConfigCache;
+  private final PrettierResultCache myResultCache = new PrettierResultCache();
 
   public PrettierLanguageServiceImpl(@NotNull Project project) {
     super(project);
@@ -40,6 +41,7 @@ public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implement
         for (VFileEvent event : events) {
           if (!(event instanceof VFileContentChangeEvent) || PrettierUtil.isConfigFileOrPackageJson(event.getFile())) {
             myFlushConfigCache = true;
+            myResultCache.invalidate();
             break;
           }
         }
@@ -56,6 +58,11 @@ public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implement
                                                 @Nullable TextRange range) {
     filePath = JSLanguageServiceUtil.normalizeNameAndPath(filePath);
     ignoreFilePath = JSLanguageServiceUtil.normalizeNameAndPath(ignoreFilePath);
+    PrettierResultCache.Key cacheKey = myResultCache.createKey(filePath, ignoreFilePath, text, prettierPackage, range);
+    FormatResult cachedResult = myResultCache.get(cacheKey);
+    if (cachedResult != null) {
+      return CompletableFuture.completedFuture(cachedResult);
+    }
     JSLanguageServiceQueue process = getProcess();
     if (process == null || !process.isValid()) {
       return CompletableFuture.completedFuture(FormatResult.error(PrettierBundle.message("service.not.started.message")));
@@ -64,10 +71,19 @@ public class PrettierLanguageServiceImpl extends JSLanguageServiceBase implement
       new ReformatFileCommand(myProject, filePath, prettierPackage, ignoreFilePath, text, range, myFlushConfigCache);
     return process.execute(command, (ignored, response) -> {
       myFlushConfigCache = false;
-      return parseReformatResponse(response);
+      FormatResult result = parseReformatResponse(response);
+      myResultCache.put(cacheKey, result);
+      return result;
     });
   }
 
+  /**
+   * @return the share of format requests answered without the Prettier process
+   */
+  public double getCacheHitRate() {
+    return myResultCache.getHitRate();
+  }
+
 
   @NotNull
   private static FormatResult parseReformatResponse(JSLanguageServiceAnswer response) {
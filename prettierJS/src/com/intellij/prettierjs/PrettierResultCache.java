@@ -0,0 +1,150 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.prettierjs;
+
+import com.intellij.javascript.nodejs.util.NodePackage;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.io.DigestUtil;
+import com.intellij.util.text.SemVer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent results of {@link PrettierLanguageService#format}, so formatting the same text again
+ * (on save, after reopening a file) doesn't need a request to the Prettier process.
+ * <p>
+ * Results are keyed by the file path, a hash of the text, the range, the ignore file and the Prettier package version.
+ * Prettier configs are resolved by the process, so instead of their contents the cache tracks a config generation:
+ * {@link #invalidate()} is called whenever a config might have changed, and results computed for an older generation are never returned.
+ */
+final class PrettierResultCache {
+  private static final Logger LOG = Logger.getInstance(PrettierResultCache.class);
+  private static final int MAX_SIZE = 256;
+
+  private final Map<Key, PrettierLanguageService.FormatResult> myResults =
+    new LinkedHashMap<Key, PrettierLanguageService.FormatResult>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, PrettierLanguageService.FormatResult> eldest) {
+        return size() > MAX_SIZE;
+      }
+    };
+  private final AtomicLong myHits = new AtomicLong();
+  private final AtomicLong myMisses = new AtomicLong();
+  private volatile int myConfigGeneration;
+
+  @NotNull
+  Key createKey(@NotNull String filePath,
+                @Nullable String ignoreFilePath,
+                @NotNull String text,
+                @NotNull NodePackage prettierPackage,
+                @Nullable TextRange range) {
+    VirtualFile ignoreFile = ignoreFilePath != null ? LocalFileSystem.getInstance().findFileByPath(ignoreFilePath) : null;
+    SemVer version = prettierPackage.getVersion();
+    return new Key(filePath,
+                   StringUtil.toHexString(DigestUtil.sha256().digest(text.getBytes(StandardCharsets.UTF_8))),
+                   range,
+                   ignoreFilePath,
+                   ignoreFile != null ? ignoreFile.getTimeStamp() : -1,
+                   prettierPackage.getSystemDependentPath() + (version != null ? "@" + version.getRawVersion() : ""),
+                   myConfigGeneration);
+  }
+
+  @Nullable
+  PrettierLanguageService.FormatResult get(@NotNull Key key) {
+    PrettierLanguageService.FormatResult result;
+    synchronized (myResults) {
+      result = myResults.get(key);
+    }
+    (result != null ? myHits : myMisses).incrementAndGet();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug((result != null ? "Hit " : "Miss ") + key.myFilePath + ", hit rate " + getHitRate());
+    }
+    return result;
+  }
+
+  void put(@NotNull Key key, @NotNull PrettierLanguageService.FormatResult result) {
+    // errors might be caused by the process itself, so the request is repeated next time
+    if (!StringUtil.isEmpty(result.error) || key.myConfigGeneration != myConfigGeneration) return;
+    synchronized (myResults) {
+      myResults.put(key, result);
+    }
+  }
+
+  void invalidate() {
+    synchronized (myResults) {
+      myConfigGeneration++;
+      myResults.clear();
+    }
+  }
+
+  long getHitCount() {
+    return myHits.get();
+  }
+
+  long getMissCount() {
+    return myMisses.get();
+  }
+
+  /**
+   * @return the share of requests answered from the cache, 0 if there were no requests yet
+   */
+  double getHitRate() {
+    long hits = myHits.get();
+    long total = hits + myMisses.get();
+    return total == 0 ? 0 : (double)hits / total;
+  }
+
+  static final class Key {
+    private final String myFilePath;
+    private final String myTextHash;
+    private final TextRange myRange;
+    private final String myIgnoreFilePath;
+    private final long myIgnoreFileTimeStamp;
+    private final String myPackage;
+    private final int myConfigGeneration;
+
+    private Key(@NotNull String filePath,
+                @NotNull String textHash,
+                @Nullable TextRange range,
+                @Nullable String ignoreFilePath,
+                long ignoreFileTimeStamp,
+                @NotNull String prettierPackage,
+                int configGeneration) {
+      myFilePath = filePath;
+      myTextHash = textHash;
+      myRange = range;
+      myIgnoreFilePath = ignoreFilePath;
+      myIgnoreFileTimeStamp = ignoreFileTimeStamp;
+      myPackage = prettierPackage;
+      myConfigGeneration = configGeneration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key)o;
+      return myIgnoreFileTimeStamp == key.myIgnoreFileTimeStamp &&
+             myConfigGeneration == key.myConfigGeneration &&
+             myFilePath.equals(key.myFilePath) &&
+             myTextHash.equals(key.myTextHash) &&
+             Objects.equals(myRange, key.myRange) &&
+             Objects.equals(myIgnoreFilePath, key.myIgnoreFilePath) &&
+             myPackage.equals(key.myPackage);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(myFilePath, myTextHash, myRange, myIgnoreFilePath, myIgnoreFileTimeStamp, myPackage, myConfigGeneration);
+    }
+  }
+}
@@ -283,9 +283,9 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
                                           boolean reportSkippedFiles,
                                           @NotNull ErrorHandler errorHandler) {
     PrettierLanguageService service = PrettierLanguageService.getInstance(project);
-    Map<PsiFile, PrettierLanguageService.FormatResult> results = executeUnderProgress(project, indicator -> {
-      Map<PsiFile, PrettierLanguageService.FormatResult> reformattedResults = new HashMap<>();
-
+    // results are applied in several commands, these are undone together
+    String commandGroupId = "ReformatWithPrettier." + System.nanoTime();
+    List<String> errors = executeUnderProgress(project, indicator -> {
       List<PsiFile> files = new SmartList<>();
       ReadAction.run(() -> {
         while (fileIterator.hasNext()) {
@@ -293,30 +293,46 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
         }
       });
 
-      for (PsiFile currentFile : files) {
+      List<String> reformatErrors = new ArrayList<>();
+      PrettierBatchFormatter<PsiFile> formatter = new PrettierBatchFormatter<>(currentFile -> {
         indicator.setText(PrettierBundle.message("processing.0.progress", currentFile.getName()));
-        PrettierLanguageService.FormatResult result = performRequestForFile(project, nodePackage, service, currentFile, null);
-        // timed out. show notification?
-        if (result == null) {
-          continue;
-        }
-        if (result.unsupported && reportSkippedFiles) {
-          PrettierLanguageService.FormatResult errorResult = PrettierLanguageService.FormatResult
-            .error(PrettierBundle.message("not.supported.file", currentFile.getName()));
-          reformattedResults.put(currentFile, errorResult);
-        }
-        if (result.ignored) {
-          PrettierLanguageService.FormatResult errorResult =
-            PrettierLanguageService.FormatResult.error(PrettierBundle.message("file.was.ignored", currentFile.getName()));
-          reformattedResults.put(currentFile, errorResult);
-          continue;
+        return sendRequestForFile(project, nodePackage, service, currentFile, null);
+      });
+      formatter.format(files, indicator, chunk -> {
+        Map<PsiFile, PrettierLanguageService.FormatResult> reformattedResults = new LinkedHashMap<>();
+        for (Map.Entry<PsiFile, PrettierLanguageService.FormatResult> entry : chunk.entrySet()) {
+          PsiFile currentFile = entry.getKey();
+          PrettierLanguageService.FormatResult result = entry.getValue();
+          if (result.unsupported && reportSkippedFiles) {
+            PrettierLanguageService.FormatResult errorResult = PrettierLanguageService.FormatResult
+              .error(PrettierBundle.message("not.supported.file", currentFile.getName()));
+            reformattedResults.put(currentFile, errorResult);
+          }
+          if (result.ignored) {
+            PrettierLanguageService.FormatResult errorResult =
+              PrettierLanguageService.FormatResult.error(PrettierBundle.message("file.was.ignored", currentFile.getName()));
+            reformattedResults.put(currentFile, errorResult);
+            continue;
+          }
+          reformattedResults.put(currentFile, result);
         }
-        reformattedResults.put(currentFile, result);
-      }
-      return reformattedResults;
+        reformatErrors.addAll(ContainerUtil.mapNotNull(reformattedResults.values(), t -> t.error));
+        applyFormatResults(project, reformattedResults, commandGroupId);
+      });
+      return reformatErrors;
     });
 
-    runWriteCommandAction(project, () -> {
+    if (errors != null && errors.size() > 0) {
+      errorHandler.showErrorWithDetails(project, null,
+                                        PrettierBundle.message("failed.to.reformat.0.files", errors.size()),
+                                        StringUtil.join(errors, "\n"));
+    }
+  }
+
+  private static void applyFormatResults(@NotNull Project project,
+                                         @NotNull Map<PsiFile, PrettierLanguageService.FormatResult> results,
+                                         @NotNull String commandGroupId) {
+    ApplicationManager.getApplication().invokeAndWait(() -> runWriteCommandAction(project, commandGroupId, () -> {
       for (Map.Entry<PsiFile, PrettierLanguageService.FormatResult> entry : results.entrySet()) {
         VirtualFile virtualFile = entry.getKey().getVirtualFile();
         if (virtualFile == null) {
@@ -325,13 +341,7 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
         PrettierLanguageService.FormatResult result = entry.getValue();
         applyFormatResult(project, virtualFile, result);
       }
-    });
-    List<String> errors = ContainerUtil.mapNotNull(results.entrySet(), t -> t.getValue().error);
-    if (errors.size() > 0) {
-      errorHandler.showErrorWithDetails(project, null,
-                                        PrettierBundle.message("failed.to.reformat.0.files", errors.size()),
-                                        StringUtil.join(errors, "\n"));
-    }
+    }));
   }
 
   /**
@@ -367,6 +377,18 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
       LOG.error("JSLanguageServiceUtil.awaitFuture() under read action may cause deadlock");
     }
 
+    CompletableFuture<PrettierLanguageService.FormatResult> formatFuture =
+      sendRequestForFile(project, nodePackage, service, currentFile, range);
+    long timeout = edt ? EDT_TIMEOUT_MS : JSLanguageServiceUtil.getTimeout();
+    return JSLanguageServiceUtil.awaitFuture(formatFuture, timeout, JSLanguageServiceUtil.QUOTA_MILLS, null, true, null, edt);
+  }
+
+  @Nullable
+  private static CompletableFuture<PrettierLanguageService.FormatResult> sendRequestForFile(@NotNull Project project,
+                                                                                           @NotNull NodePackage nodePackage,
+                                                                                           @NotNull PrettierLanguageService service,
+                                                                                           @NotNull PsiFile currentFile,
+                                                                                           @Nullable TextRange range) {
     Ref<String> text = Ref.create();
     Ref<String> filePath = Ref.create();
     Ref<String> ignoreFilePath = Ref.create();
@@ -388,13 +410,9 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
     });
 
     if (text.isNull()) {
-      return PrettierLanguageService.FormatResult.UNSUPPORTED;
+      return CompletableFuture.completedFuture(PrettierLanguageService.FormatResult.UNSUPPORTED);
     }
-
-    CompletableFuture<PrettierLanguageService.FormatResult> formatFuture =
-      service.format(filePath.get(), ignoreFilePath.get(), text.get(), nodePackage, range);
-    long timeout = edt ? EDT_TIMEOUT_MS : JSLanguageServiceUtil.getTimeout();
-    return JSLanguageServiceUtil.awaitFuture(formatFuture, timeout, JSLanguageServiceUtil.QUOTA_MILLS, null, true, null, edt);
+    return service.format(filePath.get(), ignoreFilePath.get(), text.get(), nodePackage, range);
   }
 
   private static <T> T executeUnderProgress(@NotNull Project project, @NotNull NullableFunction<ProgressIndicator, T> handler) {
@@ -405,7 +423,11 @@ public class ReformatWithPrettierAction extends AnAction implements DumbAware {
   }
 
   private static void runWriteCommandAction(@NotNull Project project, @NotNull Runnable runnable) {
-    WriteCommandAction.runWriteCommandAction(project, PrettierBundle.message("reformat.with.prettier.command.name"), null, runnable);
+    runWriteCommandAction(project, null, runnable);
+  }
+
+  private static void runWriteCommandAction(@NotNull Project project, @Nullable String groupId, @NotNull Runnable runnable) {
+    WriteCommandAction.runWriteCommandAction(project, PrettierBundle.message("reformat.with.prettier.command.name"), groupId, runnable);
   }
 
   private static @NotNull @Nls String buildNotificationMessage(@NotNull Document document,
@@ -0,0 +1,121 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.prettierjs;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class PrettierBatchFormatterTest extends BasePlatformTestCase {
+  private StubService myService;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myService = new StubService(1);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      myService.shutdown();
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testResultsInFileOrder() throws Exception {
+    List<Integer> files = createFiles(120);
+    List<List<Integer>> chunks = new ArrayList<>();
+    List<String> results = new ArrayList<>();
+    format(new PrettierBatchFormatter<>(myService, 8, 50), files, chunk -> {
+      chunks.add(new ArrayList<>(chunk.keySet()));
+      chunk.values().forEach(result -> results.add(result.result));
+    });
+
+    assertEquals(3, chunks.size());
+    assertEquals(50, chunks.get(0).size());
+    assertEquals(20, chunks.get(2).size());
+    for (int i = 0; i < files.size(); i++) {
+      assertEquals("formatted " + i, results.get(i));
+    }
+    assertTrue(myService.myMaxPendingRequests.get() <= 8);
+  }
+
+  public void testRequestsInFlight() throws Exception {
+    List<Integer> files = createFiles(100);
+    AtomicInteger formatted = new AtomicInteger();
+
+    format(new PrettierBatchFormatter<>(myService, 1, PrettierBatchFormatter.CHUNK_SIZE), files, chunk -> formatted.addAndGet(chunk.size()));
+    assertEquals(1, myService.myMaxPendingRequests.get());
+
+    myService.myMaxPendingRequests.set(0);
+    format(new PrettierBatchFormatter<>(myService), files, chunk -> formatted.addAndGet(chunk.size()));
+    assertTrue(myService.myMaxPendingRequests.get() > 1);
+    assertTrue(myService.myMaxPendingRequests.get() <= PrettierBatchFormatter.MAX_REQUESTS_IN_FLIGHT);
+    assertEquals(2 * files.size(), formatted.get());
+  }
+
+  private static List<Integer> createFiles(int count) {
+    List<Integer> files = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      files.add(i);
+    }
+    return files;
+  }
+
+  private static void format(PrettierBatchFormatter<Integer> formatter,
+                             List<Integer> files,
+                             Consumer<Map<Integer, PrettierLanguageService.FormatResult>> consumer)
+    throws Exception {
+    // answers must not be awaited in EDT
+    ApplicationManager.getApplication().executeOnPooledThread(() -> formatter.format(files, new EmptyProgressIndicator(), consumer))
+      .get(1, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Imitates a Node process behind a pipe: requests are handled one by one, and both the request and the answer take a while to pass.
+   */
+  private static final class StubService implements Function<Integer, CompletableFuture<PrettierLanguageService.FormatResult>> {
+    private final ScheduledExecutorService myTransport = AppExecutorUtil.createBoundedScheduledExecutorService("Prettier stub transport", 2);
+    private final ExecutorService myProcess = Executors.newSingleThreadExecutor();
+    private final long myLatencyMs;
+    private final AtomicInteger myPendingRequests = new AtomicInteger();
+    private final AtomicInteger myMaxPendingRequests = new AtomicInteger();
+
+    private StubService(long latencyMs) {
+      myLatencyMs = latencyMs;
+    }
+
+    @Override
+    public CompletableFuture<PrettierLanguageService.FormatResult> apply(Integer file) {
+      myMaxPendingRequests.accumulateAndGet(myPendingRequests.incrementAndGet(), Math::max);
+      CompletableFuture<PrettierLanguageService.FormatResult> future = new CompletableFuture<>();
+      myTransport.schedule(() -> myProcess.execute(() -> {
+        PrettierLanguageService.FormatResult result = PrettierLanguageService.FormatResult.formatted("formatted " + file);
+        myTransport.schedule(() -> {
+          myPendingRequests.decrementAndGet();
+          future.complete(result);
+        }, myLatencyMs, TimeUnit.MILLISECONDS);
+      }), myLatencyMs, TimeUnit.MILLISECONDS);
+      return future;
+    }
+
+    private void shutdown() {
+      myTransport.shutdownNow();
+      myProcess.shutdownNow();
+    }
+  }
+}
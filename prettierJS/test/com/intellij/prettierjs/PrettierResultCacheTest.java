@@ -0,0 +1,40 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.prettierjs;
+
+import com.intellij.javascript.nodejs.util.NodePackage;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+public class PrettierResultCacheTest extends BasePlatformTestCase {
+  private final NodePackage myPackage = new NodePackage("/node_modules/prettier");
+
+  public void testCachedResults() {
+    PrettierResultCache cache = new PrettierResultCache();
+    PrettierLanguageService.FormatResult result = PrettierLanguageService.FormatResult.formatted("let a = 1;\n");
+
+    PrettierResultCache.Key key = cache.createKey("/src/a.js", null, "let a = 1", myPackage, null);
+    assertNull(cache.get(key));
+    cache.put(key, result);
+    assertSame(result, cache.get(cache.createKey("/src/a.js", null, "let a = 1", myPackage, null)));
+    assertNull(cache.get(cache.createKey("/src/a.js", null, "let a = 2", myPackage, null)));
+    assertNull(cache.get(cache.createKey("/src/b.js", null, "let a = 1", myPackage, null)));
+    assertNull(cache.get(cache.createKey("/src/a.js", null, "let a = 1", myPackage, new TextRange(0, 3))));
+
+    cache.invalidate();
+    assertNull(cache.get(cache.createKey("/src/a.js", null, "let a = 1", myPackage, null)));
+    // a result computed with the config before the change
+    cache.put(key, result);
+    assertNull(cache.get(cache.createKey("/src/a.js", null, "let a = 1", myPackage, null)));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(6, cache.getMissCount());
+    assertEquals(1.0 / 7, cache.getHitRate(), 0.001);
+  }
+
+  public void testErrorsNotCached() {
+    PrettierResultCache cache = new PrettierResultCache();
+    PrettierResultCache.Key key = cache.createKey("/src/a.js", null, "let a = ", myPackage, null);
+    cache.put(key, PrettierLanguageService.FormatResult.error("SyntaxError: Unexpected token"));
+    assertNull(cache.get(key));
+  }
+}
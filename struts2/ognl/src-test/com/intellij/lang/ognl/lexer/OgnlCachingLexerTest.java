@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.lang.ognl.lexer;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.testFramework.UsefulTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OgnlCachingLexerTest extends UsefulTestCase {
+
+  public void testSameTokensAsOgnlLexer() {
+    assertSameTokens("%{ { { } } }");
+    assertSameTokens("%{ %{ }}");
+    assertSameTokens("%{#attr['foo'] + \"bar\" == 'c' ? 1.0 : new java.util.ArrayList()}");
+  }
+
+  public void testCachedTokensInLargerBuffer() {
+    final String expression = "%{ a.b(1, 'x') }";
+    assertSameTokens(expression);
+
+    final String buffer = "<prefix>" + expression + "<suffix>";
+    final int start = buffer.indexOf(expression);
+    final int end = start + expression.length();
+    assertEquals(tokenize(new OgnlLexer(), buffer, start, end), tokenize(new OgnlCachingLexer(), buffer, start, end));
+  }
+
+  public void testRestartInNonInitialState() {
+    final String text = "%{ 'abc' + 1 }";
+    final Lexer lexer = new OgnlLexer();
+    lexer.start(text);
+    lexer.advance();
+    final int state = lexer.getState();
+    final int start = lexer.getTokenStart();
+
+    assertEquals(tokenize(new OgnlLexer(), text, start, text.length(), state),
+                 tokenize(new OgnlCachingLexer(), text, start, text.length(), state));
+  }
+
+  private static void assertSameTokens(final String text) {
+    final List<String> expected = tokenize(new OgnlLexer(), text, 0, text.length());
+    final OgnlCachingLexer cachingLexer = new OgnlCachingLexer();
+    assertEquals(expected, tokenize(cachingLexer, text, 0, text.length()));
+    assertEquals("cached replay", expected, tokenize(cachingLexer, text, 0, text.length()));
+  }
+
+  private static List<String> tokenize(final Lexer lexer, final CharSequence text, final int start, final int end) {
+    return tokenize(lexer, text, start, end, 0);
+  }
+
+  private static List<String> tokenize(final Lexer lexer, final CharSequence text, final int start, final int end, final int state) {
+    final List<String> tokens = new ArrayList<>();
+    lexer.start(text, start, end, state);
+    IElementType type;
+    while ((type = lexer.getTokenType()) != null) {
+      tokens.add(type + "(" + lexer.getTokenStart() + "," + lexer.getTokenEnd() + ")@" + lexer.getState());
+      lexer.advance();
+    }
+    return tokens;
+  }
+}
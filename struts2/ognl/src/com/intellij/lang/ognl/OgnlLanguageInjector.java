@@ -69,9 +69,10 @@ public final class OgnlLanguageInjector {
              .doneInjecting();
   }
 
+  /**
+   * Each expression is injected separately, so editing one of them does not reparse the others.
+   */
   private void injectOccurrences() {
-    registrar.startInjecting(OgnlLanguage.INSTANCE);
-
     final String text = element.getText();
     final int textLength = text.length() - 1;
     final int lastStartPosition = Math.max(textLength, text.lastIndexOf(OgnlLanguage.EXPRESSION_SUFFIX));
@@ -90,11 +91,11 @@ public final class OgnlLanguageInjector {
       final int closingBraceIdx = text.lastIndexOf(OgnlLanguage.EXPRESSION_SUFFIX, searchClosingBraceIdx);
       final int length = (closingBraceIdx != -1 && closingBraceIdx > nextStartOffset ? closingBraceIdx + 1 : textLength) - startOffset;
       final TextRange range = TextRange.from(startOffset, length);
-      registrar.addPlace(null, null, element, range);
+      registrar.startInjecting(OgnlLanguage.INSTANCE)
+               .addPlace(null, null, element, range)
+               .doneInjecting();
       startOffset += length;
     }
-
-    registrar.doneInjecting();
   }
 
 }
\ No newline at end of file
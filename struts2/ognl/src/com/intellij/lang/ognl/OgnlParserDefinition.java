@@ -19,7 +19,7 @@ import com.intellij.lang.ASTNode;
 import com.intellij.lang.LanguageUtil;
 import com.intellij.lang.ParserDefinition;
 import com.intellij.lang.PsiParser;
-import com.intellij.lang.ognl.lexer.OgnlLexer;
+import com.intellij.lang.ognl.lexer.OgnlCachingLexer;
 import com.intellij.lang.ognl.parser.OgnlParser;
 import com.intellij.lang.ognl.psi.OgnlTokenGroups;
 import com.intellij.lexer.Lexer;
@@ -44,7 +44,7 @@ public class OgnlParserDefinition implements ParserDefinition {
   @NotNull
   @Override
   public Lexer createLexer(final Project project) {
-    return new OgnlLexer();
+    return new OgnlCachingLexer();
   }
 
   @Override
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.lang.ognl.lexer;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.lexer.LexerBase;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.containers.SLRUMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays tokens of previously lexed expressions.
+ * <p/>
+ * Injected OGNL fragments are short and often repeated verbatim throughout a file/project, so the token stream
+ * for identical expression text is shared. Restarts in non-initial state and long texts are passed to {@link OgnlLexer}.
+ */
+public class OgnlCachingLexer extends LexerBase {
+
+  private static final int MAX_CACHED_TEXT_LENGTH = 1024;
+
+  private static final SLRUMap<String, Tokens> ourTokensCache = new SLRUMap<>(1024, 1024);
+
+  private final Lexer myDelegate = new OgnlLexer();
+
+  private CharSequence myBuffer;
+  private int myStartOffset;
+  private int myEndOffset;
+
+  @Nullable
+  private Tokens myTokens;
+  private int myIndex;
+
+  @Override
+  public void start(@NotNull final CharSequence buffer, final int startOffset, final int endOffset, final int initialState) {
+    myBuffer = buffer;
+    myStartOffset = startOffset;
+    myEndOffset = endOffset;
+    myIndex = 0;
+
+    if (initialState != 0 || endOffset - startOffset > MAX_CACHED_TEXT_LENGTH) {
+      myTokens = null;
+      myDelegate.start(buffer, startOffset, endOffset, initialState);
+      return;
+    }
+
+    final String text = buffer.subSequence(startOffset, endOffset).toString();
+    Tokens tokens;
+    synchronized (ourTokensCache) {
+      tokens = ourTokensCache.get(text);
+    }
+    if (tokens == null) {
+      tokens = Tokens.tokenize(myDelegate, text);
+      synchronized (ourTokensCache) {
+        ourTokensCache.put(text, tokens);
+      }
+    }
+    myTokens = tokens;
+  }
+
+  @Override
+  public int getState() {
+    if (myTokens == null) return myDelegate.getState();
+    return myIndex < myTokens.myTypes.length ? myTokens.myStates[myIndex] : 0;
+  }
+
+  @Nullable
+  @Override
+  public IElementType getTokenType() {
+    if (myTokens == null) return myDelegate.getTokenType();
+    return myIndex < myTokens.myTypes.length ? myTokens.myTypes[myIndex] : null;
+  }
+
+  @Override
+  public int getTokenStart() {
+    if (myTokens == null) return myDelegate.getTokenStart();
+    return myIndex < myTokens.myTypes.length ? myStartOffset + myTokens.myStarts[myIndex] : myEndOffset;
+  }
+
+  @Override
+  public int getTokenEnd() {
+    if (myTokens == null) return myDelegate.getTokenEnd();
+    return myIndex < myTokens.myTypes.length ? myStartOffset + myTokens.myEnds[myIndex] : myEndOffset;
+  }
+
+  @Override
+  public void advance() {
+    if (myTokens == null) {
+      myDelegate.advance();
+    }
+    else {
+      myIndex++;
+    }
+  }
+
+  @NotNull
+  @Override
+  public CharSequence getBufferSequence() {
+    return myBuffer;
+  }
+
+  @Override
+  public int getBufferEnd() {
+    return myEndOffset;
+  }
+
+  private static final class Tokens {
+
+    private final IElementType[] myTypes;
+    private final int[] myStarts;
+    private final int[] myEnds;
+    private final int[] myStates;
+
+    private Tokens(final IElementType[] types, final int[] starts, final int[] ends, final int[] states) {
+      myTypes = types;
+      myStarts = starts;
+      myEnds = ends;
+      myStates = states;
+    }
+
+    private static Tokens tokenize(final Lexer lexer, final String text) {
+      final List<IElementType> types = new ArrayList<>();
+      final List<int[]> positions = new ArrayList<>();
+
+      lexer.start(text, 0, text.length(), 0);
+      IElementType type;
+      while ((type = lexer.getTokenType()) != null) {
+        types.add(type);
+        positions.add(new int[]{lexer.getTokenStart(), lexer.getTokenEnd(), lexer.getState()});
+        lexer.advance();
+      }
+
+      final int count = types.size();
+      final int[] starts = new int[count];
+      final int[] ends = new int[count];
+      final int[] states = new int[count];
+      for (int i = 0; i < count; i++) {
+        final int[] position = positions.get(i);
+        starts[i] = position[0];
+        ends[i] = position[1];
+        states[i] = position[2];
+      }
+      return new Tokens(types.toArray(IElementType.EMPTY_ARRAY), starts, ends, states);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2020 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.struts.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ActionPathIndex}.
+ */
+public class ActionPathIndexTest {
+
+  @Test
+  public void exact() {
+    final ActionPathIndex<String> index = new ActionPathIndex<>();
+    index.add("myPath", "1");
+    index.add("my-Path", "2");
+    index.add(null, "3");
+
+    assertEquals(Collections.singletonList("1"), index.find("myPath"));
+    assertEquals(Collections.singletonList("2"), index.find("my-Path"));
+    assertTrue(index.find("XyPath").isEmpty());
+  }
+
+  @Test
+  public void wildcard() {
+    final ActionPathIndex<String> index = new ActionPathIndex<>();
+    index.add("some*", "some");
+    index.add("some*Action*Stuff", "stuff");
+    index.add("*", "any");
+
+    assertEquals(Arrays.asList("some", "any"), index.find("some"));
+    assertEquals(Arrays.asList("some", "any"), index.find("someThing"));
+    assertEquals(Arrays.asList("some", "stuff", "any"), index.find("someXActionXStuff"));
+    assertEquals(Collections.singletonList("any"), index.find("other"));
+
+    assertTrue(index.find("some/").isEmpty());
+    assertTrue(index.find("some/Action/Stuff").isEmpty());
+  }
+
+  @Test
+  public void bangNotation() {
+    final ActionPathIndex<String> index = new ActionPathIndex<>();
+    index.add("myPath", "exact");
+    index.add("myPath*", "wildcard");
+
+    assertEquals(Arrays.asList("exact", "wildcard"), index.find("myPath!myAction"));
+    assertEquals(Collections.singletonList("wildcard"), index.find("myPathSomething!myAction"));
+  }
+
+  @Test
+  public void orderOfAddingIsKept() {
+    final ActionPathIndex<String> index = new ActionPathIndex<>();
+    index.add("a*", "1");
+    index.add("ab", "2");
+    index.add("ab*", "3");
+    index.add("ab", "4");
+
+    assertEquals(Arrays.asList("1", "2", "3", "4"), index.find("ab"));
+  }
+
+  @Test
+  public void regexCharactersBeforeWildcard() {
+    final ActionPathIndex<String> index = new ActionPathIndex<>();
+    index.add("my.action*", "dot");
+    index.add("broken[*", "broken");
+
+    assertEquals(Collections.singletonList("dot"), index.find("my.actionX"));
+    assertEquals(Collections.singletonList("dot"), index.find("myXactionX"));
+    assertTrue(index.find("broken[").isEmpty());
+  }
+
+  @Test
+  public void optionalCharBeforeWildcard() {
+    final ActionPathIndex<String> index = new ActionPathIndex<>();
+    index.add("ab?x*", "optional");
+    index.add("ab{0,1}y*", "range");
+
+    assertEquals(Collections.singletonList("optional"), index.find("ax1"));
+    assertEquals(Collections.singletonList("optional"), index.find("abx1"));
+    assertEquals(Collections.singletonList("range"), index.find("ay1"));
+    assertTrue(index.find("bx1").isEmpty());
+  }
+
+  @Test
+  public void manyActions() {
+    final int actionCount = 1000;
+    final ActionPathIndex<Integer> index = new ActionPathIndex<>();
+    for (int i = 0; i < actionCount; i++) {
+      index.add(i % 4 == 0 ? "module" + i + "_*" : "module" + i + "_action", i);
+    }
+
+    for (int i = 0; i < actionCount; i++) {
+      final List<Integer> result = index.find(i % 4 == 0 ? "module" + i + "_list" : "module" + i + "_action");
+      assertEquals(Collections.singletonList(i), result);
+    }
+  }
+}
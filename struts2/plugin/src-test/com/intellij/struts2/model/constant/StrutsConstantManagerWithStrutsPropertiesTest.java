@@ -16,6 +16,7 @@
 package com.intellij.struts2.model.constant;
 
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
 import com.intellij.struts2.model.constant.contributor.StrutsCoreConstantContributor;
 import org.jetbrains.annotations.NotNull;
 
@@ -45,4 +46,15 @@ public class StrutsConstantManagerWithStrutsPropertiesTest extends StrutsConstan
     final VirtualFile strutsXmlFile = myFixture.findFileInTempDir(STRUTS_XML);
     performResolveTest(strutsXmlFile, StrutsCoreConstantContributor.ACTION_EXTENSION, Arrays.asList("foo"));
   }
-}
\ No newline at end of file
+
+  public void testValueSource() {
+    myFixture.copyFileToProject("struts.properties");
+    createStrutsFileSet(STRUTS_XML);
+
+    final PsiFile strutsXmlFile = myFixture.configureFromTempProjectFile(STRUTS_XML);
+    final StrutsConstantManager constantManager = StrutsConstantManager.getInstance(getProject());
+    assertEquals(StrutsConstantManager.ValueSource.STRUTS_PROPERTIES,
+                 constantManager.getValueSource(strutsXmlFile, StrutsCoreConstantContributor.ACTION_EXTENSION));
+    assertNull(constantManager.getValueSource(strutsXmlFile, StrutsConstantKey.create("XXX_NON_EXISTENT_XXX")));
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.struts.model;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.SmartList;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Lookup of action paths (including wildcards and bang notation) by name.
+ * <p/>
+ * Exact names are kept in a hash map, wildcard names are precompiled once and stored in a trie
+ * keyed by their literal prefix, so only patterns sharing a prefix with the requested path are tried.
+ * Matches are returned in the order they were added.
+ *
+ * @param <T> indexed element type.
+ */
+final class ActionPathIndex<T> {
+
+  @NonNls
+  private static final String REGEX_META_CHARS = "*.?+[](){}^$|\\";
+
+  @NonNls
+  private static final String QUANTIFIER_CHARS = "?{";
+
+  private static final Comparator<Entry<?>> ORDINAL_COMPARATOR = Comparator.comparingInt(entry -> entry.myOrdinal);
+
+  private final Map<String, List<Entry<T>>> myExactNames = new HashMap<>();
+  private final TrieNode<T> myWildcardRoot = new TrieNode<>();
+  private int myCount;
+
+  /**
+   * @param name  Action path, may contain wildcards. {@code null} names never match.
+   * @param value Element to return on match.
+   */
+  void add(@Nullable final String name, @NotNull final T value) {
+    final int ordinal = myCount++;
+    if (name == null) {
+      return;
+    }
+
+    if (name.indexOf('*') == -1) {
+      myExactNames.computeIfAbsent(name, key -> new SmartList<>()).add(new Entry<>(ordinal, value, null));
+      return;
+    }
+
+    final Pattern pattern;
+    try {
+      pattern = Pattern.compile(StringUtil.replace(name, "*", "[^/]*"));
+    }
+    catch (PatternSyntaxException e) {
+      return;
+    }
+
+    int prefixLength = 0;
+    while (prefixLength < name.length() && REGEX_META_CHARS.indexOf(name.charAt(prefixLength)) == -1) {
+      prefixLength++;
+    }
+    // "?" and "{n,m}" may drop the char in front of them
+    if (prefixLength > 0 && prefixLength < name.length() && QUANTIFIER_CHARS.indexOf(name.charAt(prefixLength)) != -1) {
+      prefixLength--;
+    }
+
+    TrieNode<T> node = myWildcardRoot;
+    for (int i = 0; i < prefixLength; i++) {
+      node = node.getOrCreateChild(name.charAt(i));
+    }
+    node.myPatterns.add(new Entry<>(ordinal, value, pattern));
+  }
+
+  /**
+   * Finds all elements matching the given path.
+   *
+   * @param path Path to check, everything behind {@code "!"} is ignored.
+   * @return Matching elements.
+   */
+  @NotNull
+  List<T> find(@NotNull @NonNls final String path) {
+    final int bangIdx = path.indexOf('!');
+    final String strippedPath = bangIdx == -1 ? path : path.substring(0, bangIdx);
+
+    final List<Entry<T>> exact = myExactNames.get(strippedPath);
+    List<Entry<T>> matches = exact != null ? new ArrayList<>(exact) : new SmartList<>();
+
+    TrieNode<T> node = myWildcardRoot;
+    int i = 0;
+    while (node != null) {
+      for (Entry<T> entry : node.myPatterns) {
+        if (entry.myPattern.matcher(strippedPath).matches()) {
+          matches.add(entry);
+        }
+      }
+      if (i == strippedPath.length()) {
+        break;
+      }
+      node = node.getChild(strippedPath.charAt(i++));
+    }
+
+    if (matches.isEmpty()) {
+      return Collections.emptyList();
+    }
+    if (matches.size() > 1) {
+      matches.sort(ORDINAL_COMPARATOR);
+    }
+    return ContainerUtil.map(matches, entry -> entry.myValue);
+  }
+
+  private static final class Entry<T> {
+    private final int myOrdinal;
+    private final T myValue;
+    private final Pattern myPattern;
+
+    private Entry(final int ordinal, final T value, @Nullable final Pattern pattern) {
+      myOrdinal = ordinal;
+      myValue = value;
+      myPattern = pattern;
+    }
+  }
+
+  private static final class TrieNode<T> {
+    private Map<Character, TrieNode<T>> myChildren;
+    private final List<Entry<T>> myPatterns = new SmartList<>();
+
+    @Nullable
+    private TrieNode<T> getChild(final char c) {
+      return myChildren == null ? null : myChildren.get(c);
+    }
+
+    @NotNull
+    private TrieNode<T> getOrCreateChild(final char c) {
+      if (myChildren == null) {
+        myChildren = new HashMap<>();
+      }
+      return myChildren.computeIfAbsent(c, key -> new TrieNode<>());
+    }
+  }
+}
@@ -15,8 +15,11 @@
 
 package com.intellij.struts2.dom.struts.model;
 
-import com.intellij.openapi.util.Comparing;
 import com.intellij.psi.PsiClass;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.struts2.dom.struts.StrutsRoot;
 import com.intellij.struts2.dom.struts.action.Action;
@@ -24,6 +27,7 @@ import com.intellij.struts2.dom.struts.strutspackage.Interceptor;
 import com.intellij.struts2.dom.struts.strutspackage.InterceptorOrStackBase;
 import com.intellij.struts2.dom.struts.strutspackage.InterceptorStack;
 import com.intellij.struts2.dom.struts.strutspackage.StrutsPackage;
+import com.intellij.util.ArrayUtil;
 import com.intellij.util.Function;
 import com.intellij.util.NotNullFunction;
 import com.intellij.util.Processor;
@@ -32,8 +36,11 @@ import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.xml.DomFileElement;
 import com.intellij.util.xml.model.impl.DomModelImpl;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.jetbrains.annotations.NonNls;
@@ -51,9 +58,21 @@ class StrutsModelImpl extends DomModelImpl<StrutsRoot> implements StrutsModel {
   private static final Function<StrutsRoot, Collection<? extends StrutsPackage>> STRUTS_PACKAGE_COLLECTOR =
     strutsRoot -> strutsRoot.getPackages();
 
+  private final CachedValue<ActionsByName> myActionsByName;
+  private final CachedValue<Map<PsiClass, List<Action>>> myActionsByClass;
+
   StrutsModelImpl(@NotNull final DomFileElement<StrutsRoot> strutsRootDomFileElement,
                   @NotNull final Set<XmlFile> xmlFiles) {
     super(strutsRootDomFileElement, xmlFiles);
+
+    final CachedValuesManager cachedValuesManager =
+      CachedValuesManager.getManager(strutsRootDomFileElement.getFile().getProject());
+    myActionsByName = cachedValuesManager.createCachedValue(
+      () -> CachedValueProvider.Result.create(new ActionsByName(getStrutsPackages()),
+                                              ArrayUtil.toObjectArray(getConfigFiles())), false);
+    myActionsByClass = cachedValuesManager.createCachedValue(
+      () -> CachedValueProvider.Result.create(buildActionsByClass(),
+                                              PsiModificationTracker.MODIFICATION_COUNT), false);
   }
 
   @Override
@@ -85,37 +104,32 @@ class StrutsModelImpl extends DomModelImpl<StrutsRoot> implements StrutsModel {
   @NotNull
   public List<Action> findActionsByName(@NotNull @NonNls final String name,
                                         @Nullable @NonNls final String namespace) {
-    return ContainerUtil.findAll(getActionsForNamespace(namespace), action -> action.matchesPath(name));
+    return myActionsByName.getValue().find(name, namespace);
   }
 
   @Override
   @NotNull
   public List<Action> findActionsByClass(@NotNull final PsiClass clazz) {
-    return findActionsByClassInner(clazz, false);
+    final List<Action> actions = myActionsByClass.getValue().get(clazz);
+    return actions != null ? Collections.unmodifiableList(actions) : Collections.emptyList();
   }
 
-  private List<Action> findActionsByClassInner(final PsiClass clazz,
-                                               final boolean skipOnFirst) {
-    final List<Action> actionResultList = new SmartList<>();
-
+  private Map<PsiClass, List<Action>> buildActionsByClass() {
+    final Map<PsiClass, List<Action>> actionsByClass = new HashMap<>();
     for (final StrutsPackage strutsPackage : getStrutsPackages()) {
       for (final Action action : strutsPackage.getActions()) {
         final PsiClass actionClassValue = action.searchActionClass();
-        if (Comparing.equal(clazz, actionClassValue)) {
-          actionResultList.add(action);
-          if (skipOnFirst) {
-            return actionResultList;
-          }
+        if (actionClassValue != null) {
+          actionsByClass.computeIfAbsent(actionClassValue, psiClass -> new SmartList<>()).add(action);
         }
       }
     }
-
-    return actionResultList;
+    return actionsByClass;
   }
 
   @Override
   public boolean isActionClass(@NotNull final PsiClass clazz) {
-    return !findActionsByClassInner(clazz, true).isEmpty();
+    return myActionsByClass.getValue().containsKey(clazz);
   }
 
   @Override
@@ -139,4 +153,34 @@ class StrutsModelImpl extends DomModelImpl<StrutsRoot> implements StrutsModel {
     }
     return true;
   }
+
+  /**
+   * Action name lookup for all packages and per namespace.
+   */
+  private static final class ActionsByName {
+
+    private final ActionPathIndex<Action> myAllActions = new ActionPathIndex<>();
+    private final Map<String, ActionPathIndex<Action>> myNamespaceActions = new HashMap<>();
+
+    private ActionsByName(final List<StrutsPackage> strutsPackages) {
+      for (final StrutsPackage strutsPackage : strutsPackages) {
+        final ActionPathIndex<Action> namespaceIndex =
+          myNamespaceActions.computeIfAbsent(strutsPackage.searchNamespace(), namespace -> new ActionPathIndex<>());
+        for (final Action action : strutsPackage.getActions()) {
+          final String name = action.getName().getRawText();
+          myAllActions.add(name, action);
+          namespaceIndex.add(name, action);
+        }
+      }
+    }
+
+    private List<Action> find(final String name, @Nullable final String namespace) {
+      if (namespace == null) {
+        return myAllActions.find(name);
+      }
+
+      final ActionPathIndex<Action> namespaceIndex = myNamespaceActions.get(namespace);
+      return namespaceIndex != null ? namespaceIndex.find(name) : Collections.emptyList();
+    }
+  }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 The authors
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.intellij.struts2.dom.validator;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.text.CharArrayUtil;
+import com.intellij.util.xml.NanoXmlUtil;
+import com.intellij.util.xml.XmlFileHeader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Indexes {@code ClassName[-alias]-validation.xml} files by the short name of their action class,
+ * value is the alias (empty string if none).
+ */
+public class ValidationFileIndex extends FileBasedIndexExtension<String, String> {
+
+  public static final ID<String, String> NAME = ID.create("Struts2ValidationFileIndex");
+
+  @NonNls
+  private static final String VALIDATION_XML_SUFFIX = "-validation.xml";
+
+  @NotNull
+  @Override
+  public ID<String, String> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, String, FileContent> getIndexer() {
+    return inputData -> {
+      if (!isValidatorsRoot(inputData.getContentAsText())) {
+        return Collections.emptyMap();
+      }
+
+      final String baseName = StringUtil.trimEnd(inputData.getFileName(), VALIDATION_XML_SUFFIX);
+      final int aliasIdx = baseName.indexOf('-');
+      final String className = aliasIdx == -1 ? baseName : baseName.substring(0, aliasIdx);
+      final String alias = aliasIdx == -1 ? "" : baseName.substring(aliasIdx + 1);
+      return className.isEmpty() ? Collections.emptyMap() : Collections.singletonMap(className, alias);
+    };
+  }
+
+  private static boolean isValidatorsRoot(final CharSequence text) {
+    final XmlFileHeader header = NanoXmlUtil.parseHeader(CharArrayUtil.readerFromCharSequence(text));
+    return Objects.equals(header.getRootTagLocalName(), Validators.TAG_NAME);
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<String> getValueExternalizer() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE) {
+      @Override
+      public boolean acceptInput(@NotNull final VirtualFile file) {
+        return StringUtil.endsWith(file.getNameSequence(), VALIDATION_XML_SUFFIX);
+      }
+    };
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Finds all validation files for the given action class name.
+   *
+   * @param className Short name of action class.
+   * @param scope     Search scope, usually the package of the action class.
+   * @return Validation files, DOM is not loaded.
+   */
+  @NotNull
+  public static Collection<VirtualFile> getValidationFiles(@Nullable final String className,
+                                                          @NotNull final GlobalSearchScope scope) {
+    if (StringUtil.isEmpty(className)) {
+      return Collections.emptyList();
+    }
+    return FileBasedIndex.getInstance().getContainingFiles(NAME, className, scope);
+  }
+}
@@ -35,11 +35,11 @@ import com.intellij.psi.xml.XmlFile;
 import com.intellij.struts2.dom.validator.config.ValidatorConfig;
 import com.intellij.struts2.dom.validator.config.ValidatorsConfig;
 import com.intellij.struts2.facet.ui.StrutsVersionDetector;
-import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.SmartList;
 import com.intellij.util.xml.DomFileElement;
 import com.intellij.util.xml.DomManager;
-import com.intellij.util.xml.DomService;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -147,16 +147,21 @@ public class ValidatorManagerImpl extends ValidatorManager {
     }
 
     final PackageScope searchScope = new PackageScope(containingPackage, false, true);
-    final List<DomFileElement<Validators>> validationRoots =
-        DomService.getInstance().getFileElements(Validators.class, clazz.getProject(), searchScope);
-
-    final List<DomFileElement<Validators>> filtered =
-        ContainerUtil.filter(validationRoots, validatorDomFileElement -> {
-          final String fileName = validatorDomFileElement.getFile().getName();
-          return StringUtil.startsWith(fileName, clazz.getName());
-        });
+    final Collection<VirtualFile> validationFiles = ValidationFileIndex.getValidationFiles(clazz.getName(), searchScope);
+    if (validationFiles.isEmpty()) {
+      return Collections.emptyList();
+    }
 
-    return ContainerUtil.map(filtered, DomFileElement::getFile);
+    final PsiManager psiManager = PsiManager.getInstance(clazz.getProject());
+    final List<XmlFile> result = new SmartList<>();
+    for (final VirtualFile validationFile : validationFiles) {
+      final PsiFile file = psiManager.findFile(validationFile);
+      if (file instanceof XmlFile &&
+          isValidatorsFile((XmlFile) file)) {
+        result.add((XmlFile) file);
+      }
+    }
+    return result;
   }
 
   /**
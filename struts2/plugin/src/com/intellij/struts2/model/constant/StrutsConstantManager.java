@@ -76,4 +76,40 @@ public abstract class StrutsConstantManager {
   public abstract <T> T getConvertedValue(@NotNull final PsiElement context,
                                           @NotNull final StrutsConstantKey<T> strutsConstantKey);
 
+  /**
+   * Determines which configuration layer supplies the effective value for the given constant.
+   *
+   * @param context           Current context.
+   * @param strutsConstantKey Constant key.
+   * @return {@code null} if no value is defined.
+   */
+  @Nullable
+  public abstract ValueSource getValueSource(@NotNull final PsiElement context,
+                                             @NotNull final StrutsConstantKey<?> strutsConstantKey);
+
+  /**
+   * Configuration layers defining constant values, in ascending order of precedence.
+   */
+  public enum ValueSource {
+    /**
+     * {@code org/apache/struts2/default.properties} from struts2-core.jar.
+     */
+    DEFAULT_PROPERTIES,
+
+    /**
+     * {@code <constant>} in {@code struts-default.xml}, {@code struts-plugin.xml} or {@code struts.xml}.
+     */
+    STRUTS_XML,
+
+    /**
+     * {@code struts.properties} in current module.
+     */
+    STRUTS_PROPERTIES,
+
+    /**
+     * Struts filter {@code <init-param>} in {@code web.xml}.
+     */
+    WEB_XML
+  }
+
 }
\ No newline at end of file
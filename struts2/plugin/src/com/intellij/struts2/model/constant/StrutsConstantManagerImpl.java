@@ -22,16 +22,24 @@ import com.intellij.javaee.web.WebUtil;
 import com.intellij.javaee.web.facet.WebFacet;
 import com.intellij.lang.properties.IProperty;
 import com.intellij.lang.properties.PropertiesImplUtil;
+import com.intellij.lang.properties.psi.PropertiesFile;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.JarFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.InheritanceUtil;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.struts2.StrutsConstants;
@@ -45,14 +53,21 @@ import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.xml.ConvertContext;
 import com.intellij.util.xml.Converter;
 import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
+import com.intellij.util.xml.DomUtil;
 import com.intellij.util.xml.impl.ConvertContextFactory;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -63,6 +78,9 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
   @NonNls
   private static final String STRUTS_DEFAULT_PROPERTIES = "/org/apache/struts2/default.properties";
 
+  @NonNls
+  private static final String STRUTS_DEFAULT_PROPERTIES_FILENAME = "default.properties";
+
   @NonNls
   private static final String STRUTS_PROPERTIES_FILENAME = "struts.properties";
 
@@ -72,6 +90,12 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
            InheritanceUtil.isInheritor(filterClass, StrutsConstants.STRUTS_2_1_FILTER_CLASS);
   };
 
+  /**
+   * Effective constant values (layers 1.-3.) per StrutsModel.
+   */
+  private final Map<StrutsModel, CachedValue<Map<String, ConstantValue>>> myModelConstants =
+    ContainerUtil.createConcurrentWeakMap();
+
 
   @NotNull
   @Override
@@ -96,13 +120,25 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
       return null;
     }
 
-    final StrutsConstant strutsConstant = ContainerUtil.find(getConstants(module), strutsConstant1 -> Objects.equals(
-      strutsConstant1.getName(), strutsConstantKey.getKey()));
+    final StrutsConstant strutsConstant = getConstantsByName(module).get(strutsConstantKey.getKey());
 
     //noinspection unchecked
     return strutsConstant != null ? strutsConstant.getConverter() : null;
   }
 
+  /**
+   * Available constants depend on plugin JARs only, so they're cached until roots change.
+   */
+  private Map<String, StrutsConstant> getConstantsByName(@NotNull final Module module) {
+    return CachedValuesManager.getManager(module.getProject()).getCachedValue(module, () -> {
+      final Map<String, StrutsConstant> constantsByName = new HashMap<>();
+      for (final StrutsConstant strutsConstant : getConstants(module)) {
+        constantsByName.putIfAbsent(strutsConstant.getName(), strutsConstant);
+      }
+      return CachedValueProvider.Result.create(constantsByName, ProjectRootManager.getInstance(module.getProject()));
+    });
+  }
+
   @Override
   @Nullable
   public <T> T getConvertedValue(@NotNull final PsiElement context,
@@ -113,9 +149,10 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
       return null;
     }
 
-    final String stringValue = getStringValue(containingFile,
-                                              strutsModel,
-                                              strutsConstantKey.getKey());
+    final ConstantValue constantValue = getConstantValue(containingFile,
+                                                         strutsModel,
+                                                         strutsConstantKey.getKey());
+    final String stringValue = constantValue != null ? constantValue.myValue : null;
     if (stringValue == null) {
       return null;
     }
@@ -131,8 +168,22 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
     return converter.fromString(stringValue, convertContext);
   }
 
+  @Override
+  @Nullable
+  public ValueSource getValueSource(@NotNull final PsiElement context,
+                                    @NotNull final StrutsConstantKey<?> strutsConstantKey) {
+    final PsiFile containingFile = context.getContainingFile();
+    final StrutsModel strutsModel = getStrutsModel(containingFile);
+    if (strutsModel == null) {
+      return null;
+    }
+
+    final ConstantValue constantValue = getConstantValue(containingFile, strutsModel, strutsConstantKey.getKey());
+    return constantValue != null ? constantValue.mySource : null;
+  }
+
   /**
-   * Returns the plain String value for the given constant.
+   * Returns the effective value for the given constant.
    *
    * @param context     Current context.
    * @param strutsModel StrutsModel.
@@ -140,78 +191,155 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
    * @return {@code null} if no value could be resolved.
    */
   @Nullable
-  private static String getStringValue(@NotNull final PsiFile context,
-                                       @NotNull final StrutsModel strutsModel,
-                                       @NotNull @NonNls final String name) {
-    final Project project = context.getProject();
+  private ConstantValue getConstantValue(@NotNull final PsiFile context,
+                                         @NotNull final StrutsModel strutsModel,
+                                         @NotNull @NonNls final String name) {
+    // 4. web.xml overrides all other layers
+    final WebFacet webFacet = WebUtil.getWebFacet(context);
+    if (webFacet != null) {
+      final WebApp webApp = webFacet.getRoot();
+      final XmlFile webXml = webApp != null ? DomUtil.getFile(webApp) : null;
+      if (webXml != null) {
+        final ConstantValue webXmlValue = getWebXmlConstants(webXml).get(name);
+        if (webXmlValue != null) {
+          return webXmlValue;
+        }
+      }
+    }
+
     final Module module = ModuleUtilCore.findModuleForPsiElement(context);
     assert module != null : context;
 
-    // collect all properties with matching key
-    final List<IProperty> properties = PropertiesImplUtil.findPropertiesByKey(project, name);
+    final CachedValue<Map<String, ConstantValue>> modelConstants = myModelConstants.computeIfAbsent(
+      strutsModel,
+      model -> CachedValuesManager.getManager(module.getProject()).createCachedValue(
+        new ModelConstantsProvider(module, model), false));
+    return modelConstants.getValue().get(name);
+  }
 
-    String value = null;
+  /**
+   * Does not reference the model strongly, so entries of {@link #myModelConstants} can be collected.
+   */
+  private static final class ModelConstantsProvider implements CachedValueProvider<Map<String, ConstantValue>> {
+
+    private final Module myModule;
+    private final WeakReference<StrutsModel> myModel;
+
+    private ModelConstantsProvider(@NotNull final Module module, @NotNull final StrutsModel model) {
+      myModule = module;
+      myModel = new WeakReference<>(model);
+    }
+
+    @Override
+    public Result<Map<String, ConstantValue>> compute() {
+      final StrutsModel model = myModel.get();
+      if (model == null || myModule.isDisposed()) {
+        return Result.create(Collections.emptyMap(), ModificationTracker.EVER_CHANGED);
+      }
+      return computeModelConstants(myModule, model);
+    }
+  }
+
+  /**
+   * Builds the table of constants defined in default.properties, struts.xml files and struts.properties.
+   */
+  private static CachedValueProvider.Result<Map<String, ConstantValue>> computeModelConstants(
+    @NotNull final Module module,
+    @NotNull final StrutsModel strutsModel) {
+    final Project project = module.getProject();
+    final Map<String, ConstantValue> constants = new HashMap<>();
+    final List<Object> dependencies = new ArrayList<>();
+    dependencies.add(ProjectRootManager.getInstance(project));
+    dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
 
     // 1. default.properties from struts2-core.jar
-    final IProperty strutsDefaultProperty = ContainerUtil.find(properties, property -> {
-      final VirtualFile virtualFile = property.getPropertiesFile().getVirtualFile();
-      return virtualFile != null &&
-             virtualFile.getFileSystem() instanceof JarFileSystem &&
-             StringUtil.endsWith(virtualFile.getPath(), STRUTS_DEFAULT_PROPERTIES) &&
-             ModuleUtilCore.moduleContainsFile(module, virtualFile, true);
-    });
-    if (strutsDefaultProperty != null) {
-      value = strutsDefaultProperty.getValue();
+    final PsiFile[] defaultPropertiesFiles =
+      FilenameIndex.getFilesByName(project, STRUTS_DEFAULT_PROPERTIES_FILENAME, module.getModuleWithLibrariesScope());
+    final Map<String, ConstantValue> defaultProperties = new HashMap<>();
+    for (final PsiFile psiFile : defaultPropertiesFiles) {
+      final VirtualFile virtualFile = psiFile.getVirtualFile();
+      if (virtualFile != null &&
+          virtualFile.getFileSystem() instanceof JarFileSystem &&
+          StringUtil.endsWith(virtualFile.getPath(), STRUTS_DEFAULT_PROPERTIES)) {
+        collectProperties(defaultProperties, psiFile, ValueSource.DEFAULT_PROPERTIES);
+      }
     }
+    constants.putAll(defaultProperties);
 
     // 2. <constant> from StrutsModel
-    final Condition<Constant> constantNameCondition = constant -> Objects.equals(constant.getName().getStringValue(), name);
-
     final List<DomFileElement<StrutsRoot>> domFileElements = new ArrayList<>();
     collectStrutsXmls(domFileElements, strutsModel, "struts-default.xml", true);
     collectStrutsXmls(domFileElements, strutsModel, "struts-plugin.xml", true);
     collectStrutsXmls(domFileElements, strutsModel, "struts.xml", false);
     for (final DomFileElement<StrutsRoot> domFileElement : domFileElements) {
-      final Constant constant = ContainerUtil.find(domFileElement.getRootElement().getConstants(),
-                                                   constantNameCondition);
-      final String strutsXmlValue = constant != null ? constant.getValue().getStringValue() : null;
-      if (strutsXmlValue != null) {
-        value = strutsXmlValue;
+      final Map<String, ConstantValue> fileConstants = new HashMap<>();
+      for (final Constant constant : domFileElement.getRootElement().getConstants()) {
+        final String constantName = constant.getName().getStringValue();
+        final String strutsXmlValue = constant.getValue().getStringValue();
+        if (constantName != null && strutsXmlValue != null) {
+          fileConstants.putIfAbsent(constantName, new ConstantValue(strutsXmlValue, ValueSource.STRUTS_XML));
+        }
       }
+      constants.putAll(fileConstants);
     }
+    dependencies.addAll(strutsModel.getConfigFiles());
 
     // 3. struts.properties in current module
-    final IProperty strutsProperty = ContainerUtil.find(properties, property -> {
-      final VirtualFile virtualFile = property.getPropertiesFile().getVirtualFile();
-      return virtualFile != null &&
-             Objects.equals(virtualFile.getName(), STRUTS_PROPERTIES_FILENAME) &&
-             ModuleUtilCore.moduleContainsFile(module, virtualFile, false);
-    });
-    if (strutsProperty != null) {
-      value = strutsProperty.getValue();
+    final PsiFile[] strutsPropertiesFiles =
+      FilenameIndex.getFilesByName(project, STRUTS_PROPERTIES_FILENAME, module.getModuleContentScope());
+    // several files in one module: first path wins, independent of index order
+    Arrays.sort(strutsPropertiesFiles, Comparator.comparing(psiFile -> psiFile.getVirtualFile().getPath()));
+    final Map<String, ConstantValue> strutsProperties = new HashMap<>();
+    for (final PsiFile psiFile : strutsPropertiesFiles) {
+      collectProperties(strutsProperties, psiFile, ValueSource.STRUTS_PROPERTIES);
+      dependencies.add(psiFile);
     }
+    constants.putAll(strutsProperties);
 
-    // 4. web.xml
-    final WebFacet webFacet = WebUtil.getWebFacet(context);
-    if (webFacet == null) {
-      return value; // should not happen in real projects..
-    }
-    final WebApp webApp = webFacet.getRoot();
-    if (webApp == null) {
-      return value; // no web.xml
+    return CachedValueProvider.Result.create(constants, dependencies);
+  }
+
+  private static void collectProperties(@NotNull final Map<String, ConstantValue> values,
+                                        @NotNull final PsiFile psiFile,
+                                        @NotNull final ValueSource source) {
+    final PropertiesFile propertiesFile = PropertiesImplUtil.getPropertiesFile(psiFile);
+    if (propertiesFile == null) {
+      return;
     }
 
-    final Filter filter = ContainerUtil.find(webApp.getFilters(), WEB_XML_STRUTS_FILTER_CONDITION);
-    if (filter != null) {
-      final CommonParamValue initParam = ContainerUtil.find(filter.getInitParams(),
-                                                            (Condition<CommonParamValue>)paramValue -> Objects.equals(
-                                                        paramValue.getParamName().getStringValue(), name));
-      if (initParam != null) {
-        value = initParam.getParamValue().getStringValue();
+    for (final IProperty property : propertiesFile.getProperties()) {
+      final String key = property.getUnescapedKey();
+      final String value = property.getValue();
+      if (key != null && value != null) {
+        values.putIfAbsent(key, new ConstantValue(value, source));
       }
     }
+  }
+
+  /**
+   * Returns all init-params of the Struts filter in given {@code web.xml}.
+   */
+  private static Map<String, ConstantValue> getWebXmlConstants(@NotNull final XmlFile webXml) {
+    return CachedValuesManager.getCachedValue(webXml, () -> {
+      final Map<String, ConstantValue> constants = new HashMap<>();
+
+      final DomFileElement<WebApp> webAppElement =
+        DomManager.getDomManager(webXml.getProject()).getFileElement(webXml, WebApp.class);
+      final Filter filter = webAppElement != null ?
+                            ContainerUtil.find(webAppElement.getRootElement().getFilters(), WEB_XML_STRUTS_FILTER_CONDITION) :
+                            null;
+      if (filter != null) {
+        for (final CommonParamValue initParam : filter.getInitParams()) {
+          final String paramName = initParam.getParamName().getStringValue();
+          final String paramValue = initParam.getParamValue().getStringValue();
+          if (paramName != null) {
+            constants.putIfAbsent(paramName, new ConstantValue(paramValue, ValueSource.WEB_XML));
+          }
+        }
+      }
 
-    return value;
+      return CachedValueProvider.Result.create(constants, webXml, ProjectRootManager.getInstance(webXml.getProject()));
+    });
   }
 
   /**
@@ -273,4 +401,18 @@ public class StrutsConstantManagerImpl extends StrutsConstantManager {
              virtualFile.getFileSystem() instanceof JarFileSystem;
     };
   }
+
+  private static final class ConstantValue {
+
+    @Nullable
+    private final String myValue;
+
+    @NotNull
+    private final ValueSource mySource;
+
+    private ConstantValue(@Nullable final String value, @NotNull final ValueSource source) {
+      myValue = value;
+      mySource = source;
+    }
+  }
 }
@@ -3,9 +3,7 @@ package com.intellij.tapestry.core;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.tapestry.core.model.TapestryLibrary;
 import com.intellij.tapestry.core.model.presentation.PresentationLibraryElement;
-import com.intellij.tapestry.intellij.TapestryModuleSupportLoader;
 import com.intellij.tapestry.intellij.util.CachedUserDataCache;
 import gnu.trove.THashMap;
 import org.jetbrains.annotations.NonNls;
@@ -15,6 +13,8 @@ import java.util.Collection;
 import java.util.Map;
 
 /**
+ * A keyed view of the library elements shared by {@link LibraryElementsCache}.
+ *
  * @author Alexey Chmutov
  */
 abstract class ElementsCachedMap extends CachedUserDataCache<Map<String, PresentationLibraryElement>, Module> {
@@ -43,16 +43,12 @@ abstract class ElementsCachedMap extends CachedUserDataCache<Map<String, Present
   @Override
   protected Map<String, PresentationLibraryElement> computeValue(Module module) {
     Map<String, PresentationLibraryElement> map = new THashMap<>();
-    TapestryProject project = TapestryModuleSupportLoader.getTapestryProject(module);
-    assert project != null;
-    for (TapestryLibrary library : project.getLibraries()) {
-      if (myCacheComponents) computeKeyAndAddAll(map, library.getComponents().values(), library.getShortName());
-      if (myCacheAbstractComponents) computeKeyAndAddAll(map, library.getAbstractComponents().values(), library.getShortName());
-      if (myCachePages) computeKeyAndAddAll(map, library.getPages().values(), library.getShortName());
-      if (myCacheMixin) computeKeyAndAddAll(map, library.getMixins().values(), library.getShortName());
+    for (LibraryElementsCache.LibraryElements library : LibraryElementsCache.INSTANCE.get(module)) {
+      if (myCacheComponents) computeKeyAndAddAll(map, library.myComponents, library.myShortName);
+      if (myCacheAbstractComponents) computeKeyAndAddAll(map, library.myAbstractComponents, library.myShortName);
+      if (myCachePages) computeKeyAndAddAll(map, library.myPages, library.myShortName);
+      if (myCacheMixin) computeKeyAndAddAll(map, library.myMixins, library.myShortName);
     }
-    if (myCacheComponents) computeKeyAndAddAll(map, project.getBuiltinComponents(), null);
-    if (myCachePages) computeKeyAndAddAll(map, project.getBuiltinPages(), null);
     return map;
   }
 
@@ -0,0 +1,95 @@
+package com.intellij.tapestry.core;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.tapestry.core.model.TapestryLibrary;
+import com.intellij.tapestry.core.model.presentation.PresentationLibraryElement;
+import com.intellij.tapestry.intellij.TapestryModuleSupportLoader;
+import com.intellij.tapestry.intellij.util.CachedUserDataCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scans the pages, components, abstract components and mixins packages of all libraries of a module once
+ * and shares the result between all {@link ElementsCachedMap} views.
+ */
+public final class LibraryElementsCache extends CachedUserDataCache<List<LibraryElementsCache.LibraryElements>, Module> {
+  private static final Logger LOG = Logger.getInstance(LibraryElementsCache.class);
+
+  static final LibraryElementsCache INSTANCE = new LibraryElementsCache();
+
+  private static final AtomicInteger ourRebuildCount = new AtomicInteger();
+
+  private LibraryElementsCache() {
+    super("ourLibraryElements");
+  }
+
+  /**
+   * @return how many times library elements were scanned since start, for diagnostics and tests.
+   */
+  public static int getRebuildCount() {
+    return ourRebuildCount.get();
+  }
+
+  @Override
+  protected List<LibraryElements> computeValue(Module module) {
+    ourRebuildCount.incrementAndGet();
+    final long start = System.currentTimeMillis();
+
+    TapestryProject project = TapestryModuleSupportLoader.getTapestryProject(module);
+    assert project != null;
+    List<LibraryElements> result = new ArrayList<>();
+    for (TapestryLibrary library : project.getLibraries()) {
+      result.add(new LibraryElements(library.getShortName(),
+                                     library.getComponents().values(),
+                                     library.getAbstractComponents().values(),
+                                     library.getPages().values(),
+                                     library.getMixins().values()));
+    }
+    result.add(new LibraryElements(null, project.getBuiltinComponents(), Collections.emptyList(), project.getBuiltinPages(),
+                                   Collections.emptyList()));
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Library elements of " + module.getName() + " rebuilt in " + (System.currentTimeMillis() - start) + "ms" +
+                " (rebuild #" + ourRebuildCount.get() + ")");
+    }
+    return result;
+  }
+
+  @Override
+  protected Object[] getDependencies(Module module) {
+    return TapestryProject.JAVA_STRUCTURE_DEPENDENCY;
+  }
+
+  @Override
+  protected Project getProject(Module projectOwner) {
+    return projectOwner.getProject();
+  }
+
+  static final class LibraryElements {
+    @Nullable final String myShortName;
+    @NotNull final Collection<PresentationLibraryElement> myComponents;
+    @NotNull final Collection<PresentationLibraryElement> myAbstractComponents;
+    @NotNull final Collection<PresentationLibraryElement> myPages;
+    @NotNull final Collection<PresentationLibraryElement> myMixins;
+
+    LibraryElements(@Nullable String shortName,
+                    @NotNull Collection<PresentationLibraryElement> components,
+                    @NotNull Collection<PresentationLibraryElement> abstractComponents,
+                    @NotNull Collection<PresentationLibraryElement> pages,
+                    @NotNull Collection<PresentationLibraryElement> mixins) {
+      myShortName = shortName;
+      myComponents = components;
+      myAbstractComponents = abstractComponents;
+      myPages = pages;
+      myMixins = mixins;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package com.intellij.tapestry.core;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.THashMap;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Indexes {@code new LibraryMapping(prefix, package)} contributions to {@code ComponentClassResolver} in Java sources,
+ * key is the library prefix, value the list of mapped packages.
+ * <p/>
+ * Arguments are evaluated without resolve, i.e. only literals and constants declared in the same file are supported.
+ * Files with other arguments are stored under {@link #UNRESOLVED_KEY} and evaluated by {@link MappingDataCache} on query.
+ */
+public class LibraryMappingIndex extends FileBasedIndexExtension<String, List<String>> {
+  public static final ID<String, List<String>> NAME = ID.create("TapestryLibraryMappingIndex");
+
+  @NonNls private static final String UNRESOLVED_KEY = "<unresolved>";
+  @NonNls private static final String LIBRARY_MAPPING = "LibraryMapping";
+  @NonNls private static final String COMPONENT_CLASS_RESOLVER = "ComponentClassResolver";
+
+  @NotNull
+  @Override
+  public ID<String, List<String>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<String>, FileContent> getIndexer() {
+    return inputData -> {
+      final CharSequence text = inputData.getContentAsText();
+      if (!StringUtil.contains(text, COMPONENT_CLASS_RESOLVER) || !StringUtil.contains(text, LIBRARY_MAPPING)) {
+        return Collections.emptyMap();
+      }
+
+      final Map<String, List<String>> result = new THashMap<>();
+      final PsiFile file = inputData.getPsiFile();
+      file.accept(new JavaRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitNewExpression(PsiNewExpression expression) {
+          super.visitNewExpression(expression);
+
+          final PsiJavaCodeReferenceElement classReference = expression.getClassReference();
+          if (classReference == null || !LIBRARY_MAPPING.equals(classReference.getReferenceName())) return;
+          final PsiExpressionList argumentList = expression.getArgumentList();
+          final PsiExpression[] expressions = argumentList == null ? PsiExpression.EMPTY_ARRAY : argumentList.getExpressions();
+          if (expressions.length != 2) return;
+
+          final String prefix = calculateExprValue(file, expressions[0]);
+          final String packageName = calculateExprValue(file, expressions[1]);
+          if (prefix != null && packageName != null) {
+            addPackage(result, prefix, packageName);
+          }
+          else {
+            result.put(UNRESOLVED_KEY, Collections.emptyList());
+          }
+        }
+      });
+      return result;
+    };
+  }
+
+  /**
+   * Evaluates string literals and references to string constants initialized with a literal in the same file.
+   */
+  @Nullable
+  private static String calculateExprValue(PsiFile file, PsiExpression expression) {
+    if (expression instanceof PsiLiteralExpression) {
+      return StringUtil.unquoteString(expression.getText());
+    }
+    if (expression instanceof PsiReferenceExpression && !((PsiReferenceExpression)expression).isQualified() &&
+        file instanceof PsiClassOwner) {
+      final String name = ((PsiReferenceExpression)expression).getReferenceName();
+      if (name == null) return null;
+      for (PsiClass psiClass : ((PsiClassOwner)file).getClasses()) {
+        final PsiField field = psiClass.findFieldByName(name, false);
+        if (field != null && field.hasModifierProperty(PsiModifier.FINAL) &&
+            field.getInitializer() instanceof PsiLiteralExpression) {
+          return StringUtil.unquoteString(field.getInitializer().getText());
+        }
+      }
+    }
+    return null;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<String>> getValueExternalizer() {
+    return new DataExternalizer<List<String>>() {
+      @Override
+      public void save(@NotNull DataOutput out, List<String> value) throws IOException {
+        out.writeInt(value.size());
+        for (String packageName : value) {
+          IOUtil.writeUTF(out, packageName);
+        }
+      }
+
+      @Override
+      public List<String> read(@NotNull DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<String> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          result.add(IOUtil.readUTF(in));
+        }
+        return result;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 2;
+  }
+
+  /**
+   * Collects library mappings contributed by Java sources in the given scope.
+   *
+   * @param project      project.
+   * @param scope        search scope.
+   * @param mappingData  used to evaluate files whose mappings could not be computed at indexing time.
+   * @return library prefix to mapped packages.
+   */
+  @NotNull
+  public static Map<String, List<String>> getLibraryMappings(@NotNull Project project,
+                                                             @NotNull GlobalSearchScope scope,
+                                                             @NotNull MappingDataCache mappingData) {
+    final FileBasedIndex index = FileBasedIndex.getInstance();
+    final Map<String, List<String>> result = new THashMap<>();
+    final Set<VirtualFile> unresolvedFiles = new HashSet<>();
+    for (String prefix : index.getAllKeys(NAME, project)) {
+      index.processValues(NAME, prefix, null, (file, packages) -> {
+        if (UNRESOLVED_KEY.equals(prefix)) {
+          unresolvedFiles.add(file);
+        }
+        else {
+          for (String packageName : packages) {
+            addPackage(result, prefix, packageName);
+          }
+        }
+        return true;
+      }, scope);
+    }
+
+    final PsiManager psiManager = PsiManager.getInstance(project);
+    for (VirtualFile file : unresolvedFiles) {
+      final PsiFile psiFile = psiManager.findFile(file);
+      if (psiFile == null) continue;
+      for (Map.Entry<String, String> entry : mappingData.compute(psiFile).entrySet()) {
+        addPackage(result, entry.getKey(), entry.getValue());
+      }
+    }
+    return result;
+  }
+
+  static void addPackage(@NotNull Map<String, List<String>> mappings, @NotNull String prefix, @NotNull String packageName) {
+    final List<String> packages = mappings.computeIfAbsent(prefix, key -> new ArrayList<>(2));
+    if (!packages.contains(packageName)) packages.add(packageName);
+  }
+}
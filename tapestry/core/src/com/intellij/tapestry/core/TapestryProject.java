@@ -1,11 +1,17 @@
 package com.intellij.tapestry.core;
 
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.java.stubs.index.JavaAnnotationIndex;
 import com.intellij.psi.impl.java.stubs.index.JavaMethodNameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.tapestry.core.events.TapestryEventsManager;
 import com.intellij.tapestry.core.java.IJavaClassType;
@@ -65,6 +71,9 @@ public class TapestryProject {
 
   private final MappingDataCache mappingData = new MappingDataCache();
 
+  private static final Key<CachedValue<Map<String, List<String>>>> COMPILED_LIBRARY_MAPPING_KEY =
+    Key.create("tapestry.compiled.library.mapping");
+
 
   public TapestryProject(@NotNull Module module,
                          @NotNull IResourceFinder resourceFinder,
@@ -248,41 +257,70 @@ public class TapestryProject {
     return (Mixin)ourNameToMixinMap.get(myModule).get(StringUtil.toLowerCase(mixinName));
   }
 
+  /**
+   * Library mappings of sources come from {@link LibraryMappingIndex}, which is kept up to date by the platform,
+   * the ones of compiled libraries are computed once per roots change.
+   */
   @NotNull
   private Map<String, List<String>> findLibraryMapping() {
-    Map<String, List<String>> result = new THashMap<>();
-
-    GlobalSearchScope scope = GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(myModule);
-    for (PsiMethod psiMethod : JavaMethodNameIndex.getInstance().get(
-      "contributeComponentClassResolver",
-      myModule.getProject(),
-      scope
-    )) {
-      addFromMappingData(result, mappingData.compute(psiMethod.getContainingFile()));
+    final Map<String, List<String>> result =
+      LibraryMappingIndex.getLibraryMappings(myModule.getProject(), GlobalSearchScope.moduleWithDependenciesScope(myModule), mappingData);
+    for (Map.Entry<String, List<String>> entry : findCompiledLibraryMapping().entrySet()) {
+      for (String packageName : entry.getValue()) {
+        LibraryMappingIndex.addPackage(result, entry.getKey(), packageName);
+      }
     }
+    return result;
+  }
 
-    // method annotated with @Contribute(ComponentClassResolver.class)
-    Collection<PsiAnnotation> annotations = JavaAnnotationIndex.getInstance().get("Contribute", myModule.getProject(), scope);
-    for(PsiAnnotation annotation:annotations) {
-      PsiNameValuePair[] attributes = annotation.getParameterList().getAttributes();
-      if (attributes.length != 1) continue;
-      PsiAnnotationMemberValue value = attributes[0].getValue();
-      if (value instanceof PsiClassObjectAccessExpression && "ComponentClassResolver".equals(((PsiClassObjectAccessExpression)value).getOperand().getText())) {
-        addFromMappingData(result, mappingData.compute(annotation.getContainingFile()));
+  @NotNull
+  private Map<String, List<String>> findCompiledLibraryMapping() {
+    final Project project = myModule.getProject();
+    return CachedValuesManager.getManager(project).getCachedValue(myModule, COMPILED_LIBRARY_MAPPING_KEY, () -> {
+      Map<String, List<String>> result = new THashMap<>();
+
+      GlobalSearchScope scope = GlobalSearchScope.moduleWithDependenciesAndLibrariesScope(myModule)
+        .intersectWith(GlobalSearchScope.notScope(GlobalSearchScope.moduleWithDependenciesScope(myModule)));
+      for (PsiMethod psiMethod : JavaMethodNameIndex.getInstance().get("contributeComponentClassResolver", project, scope)) {
+        addFromMappingData(result, mappingData.compute(psiMethod.getContainingFile()));
       }
-    }
 
-    return result;
+      // method annotated with @Contribute(ComponentClassResolver.class)
+      Collection<PsiAnnotation> annotations = JavaAnnotationIndex.getInstance().get("Contribute", project, scope);
+      for(PsiAnnotation annotation:annotations) {
+        PsiNameValuePair[] attributes = annotation.getParameterList().getAttributes();
+        if (attributes.length != 1) continue;
+        PsiAnnotationMemberValue value = attributes[0].getValue();
+        if (value instanceof PsiClassObjectAccessExpression && "ComponentClassResolver".equals(((PsiClassObjectAccessExpression)value).getOperand().getText())) {
+          addFromMappingData(result, mappingData.compute(annotation.getContainingFile()));
+        }
+      }
+
+      return CachedValueProvider.Result.create(result, ProjectRootManager.getInstance(project));
+    }, false);
   }
 
   private static void addFromMappingData(Map<String, List<String>> result, Map<String, String> computedMap) {
-    for (String key : computedMap.keySet()) {
-      List<String> strings = result.get(key);
-      if (strings == null) result.put(key, strings = new ArrayList<>(2));
-      strings.add(computedMap.get(key));
+    for (Map.Entry<String, String> entry : computedMap.entrySet()) {
+      LibraryMappingIndex.addPackage(result, entry.getKey(), entry.getValue());
     }
   }
 
+  /**
+   * Finds all names a component can be referenced by from templates.
+   *
+   * @param component the component.
+   * @return the lower-cased component names, including library prefixes.
+   */
+  @NotNull
+  public Collection<String> getComponentNames(@NotNull TapestryComponent component) {
+    List<String> result = new ArrayList<>(2);
+    for (Map.Entry<String, PresentationLibraryElement> entry : ourNameToComponentMap.get(myModule).entrySet()) {
+      if (component.equals(entry.getValue())) result.add(entry.getKey());
+    }
+    return result;
+  }
+
   public String @NotNull [] getAvailableComponentNames() {
     final Set<String> names = ourNameToComponentMap.get(myModule).keySet();
     return ArrayUtilRt.toStringArray(names);
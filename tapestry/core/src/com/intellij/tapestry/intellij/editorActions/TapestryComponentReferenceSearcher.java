@@ -0,0 +1,100 @@
+package com.intellij.tapestry.intellij.editorActions;
+
+import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlAttribute;
+import com.intellij.psi.xml.XmlAttributeValue;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.tapestry.core.TapestryProject;
+import com.intellij.tapestry.core.model.presentation.TapestryComponent;
+import com.intellij.tapestry.intellij.TapestryModuleSupportLoader;
+import com.intellij.tapestry.intellij.core.java.IntellijJavaClassType;
+import com.intellij.tapestry.intellij.lang.TemplateComponentIndex;
+import com.intellij.tapestry.intellij.lang.descriptor.TapestryXmlExtension;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Finds component class usages in the templates {@link TemplateComponentIndex} knows to use the component,
+ * other templates are not parsed.
+ */
+public class TapestryComponentReferenceSearcher extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
+  public TapestryComponentReferenceSearcher() {
+    super(true);
+  }
+
+  @Override
+  public void processQuery(@NotNull ReferencesSearch.SearchParameters queryParameters, @NotNull Processor<? super PsiReference> consumer) {
+    final PsiElement refElement = queryParameters.getElementToSearch();
+    if (!(refElement instanceof PsiClass)) return;
+    final PsiClass psiClass = (PsiClass)refElement;
+    // components are top level classes, IntellijJavaClassType stands for the first class of a file
+    if (psiClass.getContainingClass() != null || psiClass.getQualifiedName() == null) return;
+    final Module module = ModuleUtilCore.findModuleForPsiElement(psiClass);
+    final TapestryProject tapestryProject = TapestryModuleSupportLoader.getTapestryProject(module);
+    if (tapestryProject == null) return;
+
+    final TapestryComponent component =
+      tapestryProject.findComponent(new IntellijJavaClassType(module, psiClass.getContainingFile()));
+    if (component == null || !Objects.equals(component.getElementClass().getFullyQualifiedName(), psiClass.getQualifiedName())) return;
+    final Collection<String> componentNames = tapestryProject.getComponentNames(component);
+    if (componentNames.isEmpty()) return;
+
+    final SearchScope effectiveScope = queryParameters.getEffectiveSearchScope();
+    final GlobalSearchScope indexScope = effectiveScope instanceof GlobalSearchScope
+                                         ? (GlobalSearchScope)effectiveScope
+                                         : GlobalSearchScope.allScope(psiClass.getProject());
+    final Set<VirtualFile> templates = TemplateComponentIndex.getTemplates(componentNames, indexScope);
+
+    final PsiManager psiManager = psiClass.getManager();
+    for (VirtualFile template : templates) {
+      if (!effectiveScope.contains(template)) continue;
+      final PsiFile file = psiManager.findFile(template);
+      if (file instanceof XmlFile && !processTemplate((XmlFile)file, psiClass, componentNames, consumer)) return;
+    }
+  }
+
+  private static boolean processTemplate(@NotNull XmlFile file,
+                                         @NotNull PsiClass psiClass,
+                                         @NotNull Collection<String> componentNames,
+                                         @NotNull Processor<? super PsiReference> consumer) {
+    return PsiTreeUtil.processElements(file, element -> {
+      if (!(element instanceof XmlTag)) return true;
+      final XmlTag tag = (XmlTag)element;
+      if (TapestryXmlExtension.isTapestryTemplateNamespace(tag.getNamespace())) {
+        if (componentNames.contains(StringUtil.toLowerCase(tag.getLocalName()).replace('.', '/'))) {
+          return processReferences(tag, psiClass, consumer);
+        }
+        return true;
+      }
+      final XmlAttribute typeAttribute = tag.getAttribute("type", TapestryXmlExtension.getTapestryNamespace(tag));
+      final XmlAttributeValue typeValue = typeAttribute != null ? typeAttribute.getValueElement() : null;
+      if (typeValue != null && componentNames.contains(StringUtil.toLowerCase(typeValue.getValue()))) {
+        return processReferences(typeValue, psiClass, consumer);
+      }
+      return true;
+    });
+  }
+
+  private static boolean processReferences(@NotNull PsiElement element,
+                                           @NotNull PsiClass psiClass,
+                                           @NotNull Processor<? super PsiReference> consumer) {
+    for (PsiReference reference : element.getReferences()) {
+      if (reference.isReferenceTo(psiClass) && !consumer.process(reference)) return false;
+    }
+    return true;
+  }
+}
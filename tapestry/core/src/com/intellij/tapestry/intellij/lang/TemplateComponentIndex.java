@@ -0,0 +1,207 @@
+package com.intellij.tapestry.intellij.lang;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.XmlRecursiveElementWalkingVisitor;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.xml.XmlAttribute;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.tapestry.core.TapestryConstants;
+import com.intellij.tapestry.intellij.lang.descriptor.TapestryXmlExtension;
+import com.intellij.tapestry.lang.TmlFileType;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import gnu.trove.THashMap;
+import gnu.trove.THashSet;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Indexes component usages in templates.
+ * <p/>
+ * Key is the lower-cased component type as used in the template ({@code t:type} value or embedded tag name),
+ * value holds the {@code t:id}s and parameter names used with this type in the file.
+ * Components referenced by {@code t:id} only are stored under {@link #UNTYPED_KEY}.
+ *
+ * @see #getTemplates(Collection, GlobalSearchScope)
+ */
+public class TemplateComponentIndex extends FileBasedIndexExtension<String, TemplateComponentIndex.ComponentUsage> {
+  public static final ID<String, ComponentUsage> NAME = ID.create("TapestryTemplateComponentIndex");
+
+  @NonNls public static final String UNTYPED_KEY = "";
+
+  @NonNls private static final String TYPE_ATTRIBUTE = "type";
+  @NonNls private static final String ID_ATTRIBUTE = "id";
+  @NonNls private static final String MIXINS_ATTRIBUTE = "mixins";
+
+  @NotNull
+  @Override
+  public ID<String, ComponentUsage> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, ComponentUsage, FileContent> getIndexer() {
+    return inputData -> {
+      final PsiFile file = inputData.getPsiFile();
+      if (!(file instanceof XmlFile)) return Collections.emptyMap();
+
+      final Map<String, ComponentUsage> result = new THashMap<>();
+      file.accept(new XmlRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitXmlTag(XmlTag tag) {
+          super.visitXmlTag(tag);
+
+          final String tapestryNamespace = TapestryXmlExtension.getTapestryNamespace(tag);
+          final String type;
+          if (TapestryXmlExtension.isTapestryTemplateNamespace(tag.getNamespace())) {
+            type = StringUtil.toLowerCase(tag.getLocalName()).replace('.', '/');
+          }
+          else {
+            final String typeValue = tag.getAttributeValue(TYPE_ATTRIBUTE, tapestryNamespace);
+            if (typeValue != null) {
+              type = StringUtil.toLowerCase(typeValue);
+            }
+            else if (tag.getAttribute(ID_ATTRIBUTE, tapestryNamespace) != null) {
+              type = UNTYPED_KEY;
+            }
+            else {
+              return;
+            }
+          }
+
+          final ComponentUsage usage = result.computeIfAbsent(type, key -> new ComponentUsage());
+          for (XmlAttribute attribute : tag.getAttributes()) {
+            if (attribute.isNamespaceDeclaration()) continue;
+            final String localName = attribute.getLocalName();
+            final boolean tapestryAttribute = tapestryNamespace.equals(attribute.getNamespace());
+            if (tapestryAttribute && ID_ATTRIBUTE.equals(localName)) {
+              final String id = attribute.getValue();
+              if (StringUtil.isNotEmpty(id)) usage.myIds.add(id);
+            }
+            else if (!tapestryAttribute || !TYPE_ATTRIBUTE.equals(localName) && !MIXINS_ATTRIBUTE.equals(localName)) {
+              usage.myParameters.add(localName);
+            }
+          }
+          for (XmlTag subTag : tag.getSubTags()) {
+            if (TapestryConstants.PARAMETERS_NAMESPACE.equals(subTag.getNamespace())) {
+              usage.myParameters.add(subTag.getLocalName());
+            }
+          }
+        }
+      });
+      return result;
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<ComponentUsage> getValueExternalizer() {
+    return new DataExternalizer<ComponentUsage>() {
+      @Override
+      public void save(@NotNull DataOutput out, ComponentUsage value) throws IOException {
+        writeStrings(out, value.myIds);
+        writeStrings(out, value.myParameters);
+      }
+
+      @Override
+      public ComponentUsage read(@NotNull DataInput in) throws IOException {
+        final ComponentUsage usage = new ComponentUsage();
+        readStrings(in, usage.myIds);
+        readStrings(in, usage.myParameters);
+        return usage;
+      }
+    };
+  }
+
+  private static void writeStrings(DataOutput out, Set<String> strings) throws IOException {
+    out.writeInt(strings.size());
+    for (String string : strings) {
+      IOUtil.writeUTF(out, string);
+    }
+  }
+
+  private static void readStrings(DataInput in, Set<String> strings) throws IOException {
+    final int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      strings.add(IOUtil.readUTF(in));
+    }
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(TmlFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  /**
+   * Finds templates using any of the given component types.
+   *
+   * @param componentNames component names, as returned by {@code TapestryProject.getComponentNames()}.
+   * @param scope          search scope.
+   * @return templates, not parsed.
+   */
+  @NotNull
+  public static Set<VirtualFile> getTemplates(@NotNull Collection<String> componentNames, @NotNull GlobalSearchScope scope) {
+    final Set<VirtualFile> result = new THashSet<>();
+    for (String componentName : componentNames) {
+      result.addAll(FileBasedIndex.getInstance().getContainingFiles(NAME, StringUtil.toLowerCase(componentName), scope));
+    }
+    return result;
+  }
+
+  public static final class ComponentUsage {
+    private final Set<String> myIds = new THashSet<>();
+    private final Set<String> myParameters = new THashSet<>();
+
+    @NotNull
+    public Set<String> getIds() {
+      return Collections.unmodifiableSet(myIds);
+    }
+
+    @NotNull
+    public Set<String> getParameters() {
+      return Collections.unmodifiableSet(myParameters);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final ComponentUsage usage = (ComponentUsage)o;
+      return myIds.equals(usage.myIds) && myParameters.equals(usage.myParameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * myIds.hashCode() + myParameters.hashCode();
+    }
+  }
+}
@@ -1,13 +1,26 @@
 package com.intellij.tapestry.tests;
 
 import com.intellij.lang.findUsages.LanguageFindUsages;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.MethodReferencesSearch;
 import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.xml.XmlAttributeValue;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.tapestry.core.TapestryConstants;
+import com.intellij.tapestry.intellij.lang.TemplateComponentIndex;
 import com.intellij.util.Query;
+import com.intellij.util.indexing.FileBasedIndex;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Alexey Chmutov
@@ -28,6 +41,62 @@ public class TapestryFindUsagesTest extends TapestryBaseTestCase {
     doTest("References to a method", 3);
   }
 
+  public void testComponentUsagesInTemplate() {
+    final VirtualFile template = myFixture.addFileToProject(PAGES_PACKAGE_PATH + "Usages.tml", template(
+      "<t:count t:id=\"first\" start=\"1\"><p:end>2</p:end></t:count>" +
+      "<span t:type=\"Count\" t:id=\"second\" t:mixins=\"foo\" t:end=\"3\"/>" +
+      "<span t:id=\"untyped\"/>")).getVirtualFile();
+
+    final Map<String, TemplateComponentIndex.ComponentUsage> usages =
+      FileBasedIndex.getInstance().getFileData(TemplateComponentIndex.NAME, template, myFixture.getProject());
+    assertSameElements(usages.keySet(), "count", TemplateComponentIndex.UNTYPED_KEY);
+    assertSameElements(usages.get("count").getIds(), "first", "second");
+    assertSameElements(usages.get("count").getParameters(), "start", "end");
+    assertSameElements(usages.get(TemplateComponentIndex.UNTYPED_KEY).getIds(), "untyped");
+  }
+
+  public void testComponentUsagesInManyTemplates() {
+    addComponentToProject("Count");
+    final int templateCount = 50;
+    final Set<VirtualFile> expectedTemplates = new HashSet<>();
+    for (int i = 0; i < templateCount; i++) {
+      final String body = i % 10 == 0 ? "<t:count start=\"1\"/>" : "<t:if test=\"true\">" + i + "</t:if>";
+      final VirtualFile file = myFixture.addFileToProject(PAGES_PACKAGE_PATH + "Page" + i + ".tml", template(body)).getVirtualFile();
+      if (i % 10 == 0) expectedTemplates.add(file);
+    }
+    final PsiClass countClass =
+      myFixture.findClass(TEST_APPLICATION_PACKAGE + "." + COMPONENTS + ".Count");
+    final GlobalSearchScope scope = GlobalSearchScope.projectScope(myFixture.getProject());
+
+    assertEquals(expectedTemplates, TemplateComponentIndex.getTemplates(Collections.singletonList("count"), scope));
+
+    final Collection<PsiReference> references = ReferencesSearch.search(countClass, scope, false).findAll();
+    final Set<VirtualFile> usageTemplates = new HashSet<>();
+    for (PsiReference reference : references) {
+      assertEquals("count", ((XmlTag)reference.getElement()).getLocalName());
+      usageTemplates.add(reference.getElement().getContainingFile().getVirtualFile());
+    }
+    assertEquals(expectedTemplates.size(), references.size());
+    assertEquals(expectedTemplates, usageTemplates);
+  }
+
+  public void testTypedComponentUsage() {
+    addComponentToProject("Count");
+    myFixture.addFileToProject(PAGES_PACKAGE_PATH + "Typed.tml", template("<span t:type=\"Count\" t:id=\"counter\"/>"));
+    final PsiClass countClass =
+      myFixture.findClass(TEST_APPLICATION_PACKAGE + "." + COMPONENTS + ".Count");
+
+    final Collection<PsiReference> references =
+      ReferencesSearch.search(countClass, GlobalSearchScope.projectScope(myFixture.getProject()), false).findAll();
+    assertEquals(1, references.size());
+    assertEquals("Count", ((XmlAttributeValue)references.iterator().next().getElement()).getValue());
+  }
+
+  private static String template(String body) {
+    return "<html xmlns:t=\"" + TapestryConstants.TEMPLATE_NAMESPACE + "\" xmlns:p=\"" + TapestryConstants.PARAMETERS_NAMESPACE +
+           "\">" + body + "</html>";
+  }
+
   private void doTest(final String message, final int refsExpected) {
     initByComponent();
     PsiReference[] refs = findUsagesOfElementAtCaret();
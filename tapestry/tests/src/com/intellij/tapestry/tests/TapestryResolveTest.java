@@ -3,20 +3,27 @@ package com.intellij.tapestry.tests;
 import com.intellij.javaee.ExternalResourceManagerEx;
 import com.intellij.psi.*;
 import com.intellij.psi.css.CssClass;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlTag;
+import com.intellij.tapestry.core.LibraryElementsCache;
+import com.intellij.tapestry.core.LibraryMappingIndex;
 import com.intellij.tapestry.core.MappingDataCache;
+import com.intellij.tapestry.core.TapestryProject;
 import com.intellij.tapestry.core.model.TapestryLibrary;
 import com.intellij.tapestry.intellij.TapestryModuleSupportLoader;
 import com.intellij.tapestry.psi.TapestryAccessorMethod;
 import com.intellij.tapestry.psi.TmlFile;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.xml.Html5SchemaProvider;
 import com.intellij.xml.util.XmlUtil;
 import org.intellij.plugins.relaxNG.compact.RncElementTypes;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -116,6 +123,59 @@ public class TapestryResolveTest extends TapestryBaseTestCase {
     assertNotNull(libraryOfInterest);
   }
 
+  public void testLibraryMappingIndex() {
+    myFixture.configureByFile("TmlMapping.java");
+    myFixture.configureByFile("TmlMapping3.java");
+    final Map<String, List<String>> mappings =
+      LibraryMappingIndex.getLibraryMappings(myFixture.getProject(), GlobalSearchScope.allScope(myFixture.getProject()), new MappingDataCache());
+    assertEquals(Collections.singletonList("com.testapp.components.other"), mappings.get("foo"));
+    assertEquals(Collections.singletonList("dk.nesluop.librarymapping.framework"), mappings.get("wf"));
+  }
+
+  public void testLibraryMappingPackagesDeduplicated() {
+    for (int i = 0; i < 2; i++) {
+      myFixture.addClass("package modules; public class Module" + i + " {\n" +
+                         "  public static void contributeComponentClassResolver() {\n" +
+                         "    new LibraryMapping(\"lib\", \"com.lib\");\n" +
+                         "  }\n" +
+                         "}");
+    }
+    final Map<String, List<String>> mappings =
+      LibraryMappingIndex.getLibraryMappings(myFixture.getProject(), GlobalSearchScope.allScope(myFixture.getProject()), new MappingDataCache());
+    assertEquals(Collections.singletonList("com.lib"), mappings.get("lib"));
+  }
+
+  public void testLibraryMappingOfModuleClasses() {
+    final int moduleCount = 20;
+    for (int i = 0; i < moduleCount; i++) {
+      myFixture.addClass("package modules; public class Module" + i + " {\n" +
+                         "  public static void contributeComponentClassResolver() {\n" +
+                         "    new LibraryMapping(\"lib" + i + "\", \"com.lib" + i + "\");\n" +
+                         "  }\n" +
+                         "}");
+    }
+    final TapestryProject tapestryProject = TapestryModuleSupportLoader.getTapestryProject(myModule);
+    assertNotNull(tapestryProject);
+
+    final Collection<TapestryLibrary> libraries = tapestryProject.getLibraries();
+    assertEquals(moduleCount, ContainerUtil.filter(libraries, library -> library.getShortName() != null &&
+                                                                          library.getShortName().startsWith("lib")).size());
+  }
+
+  public void testLibraryElementsScannedOnceForAllLookups() {
+    addComponentToProject("Count");
+    addMixinToProject("FooMixin");
+    addPageToProject("StartPage");
+    final TapestryProject tapestryProject = TapestryModuleSupportLoader.getTapestryProject(myModule);
+    assertNotNull(tapestryProject);
+
+    final int rebuildCount = LibraryElementsCache.getRebuildCount();
+    assertNotNull(tapestryProject.findComponent("Count"));
+    assertNotNull(tapestryProject.findMixin("FooMixin"));
+    assertNotNull(tapestryProject.findPage("StartPage"));
+    assertEquals(1, LibraryElementsCache.getRebuildCount() - rebuildCount);
+  }
+
   public void testTmlMixin() {
     addComponentToProject("Count");
     addMixinToProject("FooMixin");
@@ -16,6 +16,7 @@ var fs_1 = require("fs");
 var TsLintCommands;
 (function (TsLintCommands) {
     TsLintCommands.GetErrors = "GetErrors";
+    TsLintCommands.GetErrorsBatch = "GetErrorsBatch";
     TsLintCommands.FixErrors = "FixErrors";
 })(TsLintCommands || (TsLintCommands = {}));
 var Response = /** @class */ (function () {
@@ -33,6 +34,9 @@ var TSLintPlugin = /** @class */ (function () {
             case TsLintCommands.GetErrors: {
                 return this.getErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
@@ -64,6 +68,28 @@ var TSLintPlugin = /** @class */ (function () {
     TSLintPlugin.prototype.getErrors = function (toProcess) {
         return this.processLinting(toProcess, this.getOptions(false));
     };
+    /**
+     * Lints the files with one linter, the configuration is resolved for each file;
+     * the answer contains the failures of all files
+     */
+    TSLintPlugin.prototype.getErrorsBatch = function (toProcess) {
+        var _this = this;
+        var linter = this.linterApi.linter;
+        var major = this.linterApi.version.major || 0;
+        if (major >= 4) {
+            var tslint_2 = new linter(this.getOptions(false));
+            toProcess.files.forEach(function (file) {
+                tslint_2.lint(file.filePath, file.content, _this.getConfiguration(file.filePath, toProcess.configPath));
+            });
+            return tslint_2.getResult();
+        }
+        var failures = [];
+        toProcess.files.forEach(function (file) {
+            var result = _this.processLinting(__assign({}, file, { configPath: toProcess.configPath }), _this.getOptions(false));
+            failures = failures.concat(JSON.parse(result.output));
+        });
+        return { output: JSON.stringify(failures) };
+    };
     TSLintPlugin.prototype.fixErrors = function (toProcess) {
         //TODO. why here?
         var contents = fs_1.readFileSync(toProcess.filePath, "utf8");
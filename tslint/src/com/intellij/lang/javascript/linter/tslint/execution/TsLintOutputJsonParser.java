@@ -2,23 +2,36 @@
 package com.intellij.lang.javascript.linter.tslint.execution;
 
 
-import com.google.gson.*;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.intellij.lang.javascript.linter.tslint.TslintUtil;
 import com.intellij.lang.javascript.service.protocol.LocalFilePath;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.util.text.StringUtil;
-import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.text.SemVer;
-import com.intellij.webcore.util.JsonUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static com.intellij.lang.javascript.linter.tslint.highlight.TsLintFixInfo.createTsLintFixInfo;
 
+/**
+ * Reads the output of the TSLint json formatter.
+ * <p>
+ * Errors are decoded one by one from the reader, so a large output (a batch of files) doesn't have to be turned
+ * into a {@link JsonElement} tree first; only the {@value #FIX_PROPERTY} values are read as trees.
+ */
 public final class TsLintOutputJsonParser {
 
   private static final Logger LOG = TslintUtil.LOG;
@@ -28,105 +41,190 @@ public final class TsLintOutputJsonParser {
   private final String myPath;
   private final boolean myMyZeroBasedRowCol;
 
-  @NotNull
-  private final List<TsLinterError> myErrors;
   @NotNull
   private final Gson myGson;
 
-  public TsLintOutputJsonParser(@Nullable String path, final JsonElement root, boolean zeroBasedRowCol, @NotNull Gson gson) {
+  /**
+   * @param path path of errors without a file name, {@code null} to skip such errors
+   */
+  public TsLintOutputJsonParser(@Nullable String path, boolean zeroBasedRowCol, @NotNull Gson gson) {
     myPath = path;
     myMyZeroBasedRowCol = zeroBasedRowCol;
     myGson = gson;
+  }
 
-    if (root instanceof JsonNull || !root.isJsonArray()) {
-      logError("root element is not array");
-      myErrors = ContainerUtil.emptyList();
-    }
-    else {
-      final JsonArray array = root.getAsJsonArray();
-      final int size = array.size();
-      ArrayList<TsLinterError> errors = new ArrayList<>();
-      for (int i = 0; i < size; i++) {
-        final JsonElement element = array.get(i);
-        if (!element.isJsonObject()) {
+  /**
+   * @return {@code null} if the output is malformed or ends early
+   */
+  @Nullable
+  public List<TsLinterError> parse(@NotNull String output) {
+    List<TsLinterError> errors = new ArrayList<>();
+    return parse(new StringReader(output), errors::add) ? errors : null;
+  }
+
+  /**
+   * Passes errors to the consumer as they are read. Malformed errors are skipped,
+   * malformed output stops the parsing.
+   *
+   * @return whether the whole output was read; otherwise the errors passed so far are incomplete
+   */
+  public boolean parse(@NotNull Reader output, @NotNull Consumer<? super TsLinterError> consumer) {
+    JsonReader reader = new JsonReader(output);
+    try {
+      if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+        logError("root element is not array");
+        return false;
+      }
+      reader.beginArray();
+      while (reader.hasNext()) {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
           logError("element under root is not object");
+          reader.skipValue();
+          continue;
         }
-        else {
-          final JsonObject object = element.getAsJsonObject();
-          errors.addAll(processError(object));
+        TsLinterError error = readError(reader);
+        if (error != null) {
+          consumer.accept(error);
         }
       }
-      myErrors = errors;
+      reader.endArray();
+      return true;
+    }
+    catch (IOException | JsonParseException | IllegalStateException e) {
+      LOG.info("TSLint result parsing: problem parsing output\n" + e.getMessage(), e);
+      return false;
     }
   }
 
-  private List<TsLinterError> processError(JsonObject object) {
-    List<TsLinterError> result = new ArrayList<>();
-    final JsonElement name = object.get("name");
-    if (name == null) {
+  @Nullable
+  private TsLinterError readError(@NotNull JsonReader reader) throws IOException {
+    boolean hasName = false;
+    String filePath = null;
+    String failure = null;
+    Pair<Integer, Integer> start = null;
+    Pair<Integer, Integer> end = null;
+    String ruleName = null;
+    String severityStr = null;
+    JsonElement fix = null;
+
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String property = reader.nextName();
+      switch (property) {
+        case "name":
+          hasName = true;
+          if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+          }
+          else {
+            filePath = LocalFilePath.getPath(myGson.getAdapter(LocalFilePath.class).read(reader));
+          }
+          break;
+        case "failure":
+          failure = readString(reader);
+          break;
+        case "startPosition":
+          start = readLineColumn(reader);
+          break;
+        case "endPosition":
+          end = readLineColumn(reader);
+          break;
+        case "ruleName":
+          ruleName = readString(reader);
+          break;
+        case "ruleSeverity":
+          severityStr = readString(reader);
+          break;
+        case FIX_PROPERTY:
+          fix = JsonParser.parseReader(reader);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (!hasName) {
       logError("no name for error object");
-      return result;
+      return null;
     }
-    final JsonElement failure = object.get("failure");
-    if (failure == null || !(failure.isJsonPrimitive() && failure.getAsJsonPrimitive().isString())) {
+    if (failure == null) {
       logError("no failure for error object");
-      return result;
+      return null;
     }
-    final JsonElement startPosition = object.get("startPosition");
-    if (startPosition == null || !startPosition.isJsonObject()) {
+    if (start == null) {
       logError("no startPosition for error object");
-      return result;
+      return null;
     }
-    final JsonElement endPosition = object.get("endPosition");
-    if (endPosition == null || !endPosition.isJsonObject()) {
+    if (end == null) {
       logError("no endPosition for error object");
-      return result;
+      return null;
     }
-    final JsonElement ruleName = object.get("ruleName");
-    if (ruleName == null || !(ruleName.isJsonPrimitive() && ruleName.getAsJsonPrimitive().isString())) {
+    if (ruleName == null) {
       logError("no rule name for error object");
-      return result;
+      return null;
+    }
+    String path = StringUtil.isEmpty(filePath) ? myPath : filePath;
+    if (path == null) {
+      logError("no file for error object");
+      return null;
+    }
+    return new TsLinterError(path,
+                             start.getFirst(),
+                             start.getSecond(),
+                             end.getFirst(),
+                             end.getSecond(),
+                             failure, //NON-NLS
+                             ruleName,
+                             StringUtil.equalsIgnoreCase(severityStr, "warning"),
+                             createTsLintFixInfo(fix));
+  }
+
+  @Nullable
+  private static String readString(@NotNull JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.STRING) {
+      reader.skipValue();
+      return null;
     }
-    String severityStr = JsonUtil.getChildAsString(object, "ruleSeverity");
-    final Pair<Integer, Integer> start = parseLineColumn(startPosition.getAsJsonObject());
-    final Pair<Integer, Integer> end = parseLineColumn(endPosition.getAsJsonObject());
-    if (start == null || end == null) return result;
-
-    JsonElement element = object.get(FIX_PROPERTY);
-
-    LocalFilePath localfilePath = myGson.getAdapter(LocalFilePath.class).fromJsonTree(name);
-    String filePath = LocalFilePath.getPath(localfilePath);
-    result.add(new TsLinterError(StringUtil.isEmpty(filePath) ? myPath : filePath,
-                                 start.getFirst(),
-                                 start.getSecond(),
-                                 end.getFirst(),
-                                 end.getSecond(),
-                                 failure.getAsString(), //NON-NLS
-                                 ruleName.getAsString(),
-                                 StringUtil.equalsIgnoreCase(severityStr, "warning"),
-                                 createTsLintFixInfo(element)));
-
-    return result;
+    return reader.nextString();
   }
 
-  private Pair<Integer, Integer> parseLineColumn(JsonObject position) {
-    final JsonElement line = position.get("line");
-    if (line == null || !(line.isJsonPrimitive() && line.getAsJsonPrimitive().isNumber())) {
+  @Nullable
+  private Pair<Integer, Integer> readLineColumn(@NotNull JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      reader.skipValue();
+      return null;
+    }
+    Integer line = null;
+    Integer character = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String property = reader.nextName();
+      if ((property.equals("line") || property.equals("character")) && reader.peek() == JsonToken.NUMBER) {
+        int value = reader.nextInt();
+        if (property.equals("line")) {
+          line = value;
+        }
+        else {
+          character = value;
+        }
+      }
+      else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (line == null) {
       logError("no line for position");
       return null;
     }
-    final JsonElement character = position.get("character");
-    if (character == null || !(character.isJsonPrimitive() && character.getAsJsonPrimitive().isNumber())) {
+    if (character == null) {
       logError("no character for position");
       return null;
     }
-    if (myMyZeroBasedRowCol) return Pair.create(line.getAsJsonPrimitive().getAsInt(), character.getAsJsonPrimitive().getAsInt());
-    return Pair.create(line.getAsJsonPrimitive().getAsInt() + 1, character.getAsJsonPrimitive().getAsInt() + 1);
-  }
-
-  @NotNull
-  public List<TsLinterError> getErrors() {
-    return myErrors;
+    if (myMyZeroBasedRowCol) return Pair.create(line, character);
+    return Pair.create(line + 1, character + 1);
   }
 
   private static void logError(String s) {
@@ -15,6 +15,7 @@ import org.jetbrains.annotations.NotNull;
  * @author Irina.Chernushina on 6/4/2015.
  */
 public final class TsLintConfigFileChangeTracker extends JSLinterConfigChangeTracker {
+  private volatile long myConfigModificationCount;
 
   public TsLintConfigFileChangeTracker(@NotNull Project project) {
     super(project, JsonFileType.INSTANCE);
@@ -24,8 +25,23 @@ public final class TsLintConfigFileChangeTracker extends JSLinterConfigChangeTra
     return ServiceManager.getService(project, TsLintConfigFileChangeTracker.class);
   }
 
+  /**
+   * Incremented on each change of a TSLint config, so results of older configs can be told apart.
+   */
+  public long getConfigModificationCount() {
+    return myConfigModificationCount;
+  }
+
   @Override
   protected boolean isAnalyzerRestartNeeded(@NotNull Project project, @NotNull VirtualFile changedFile) {
+    boolean configChanged = isConfigFileChanged(project, changedFile);
+    if (configChanged) {
+      myConfigModificationCount++;
+    }
+    return configChanged;
+  }
+
+  private static boolean isConfigFileChanged(@NotNull Project project, @NotNull VirtualFile changedFile) {
     final TsLintConfiguration configuration = TsLintConfiguration.getInstance(project);
     final TsLintState state = configuration.getExtendedState().getState();
     if (state.isCustomConfigFileUsed() && state.getCustomConfigFilePath() != null) {
@@ -30,6 +30,7 @@ import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.colors.EditorColorsScheme;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
@@ -40,9 +41,7 @@ import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -111,11 +110,13 @@ public final class TsLintExternalAnnotator extends JSLinterWithInspectionExterna
   public JSLinterAnnotationResult annotate(@NotNull TsLinterInput collectedInfo) {
     return TslintLanguageServiceManager.getInstance(collectedInfo.getProject())
       .useService(collectedInfo.getVirtualFile(), collectedInfo.getState().getNodePackageRef(),
-                  service -> annotateWithService(collectedInfo, service));
+                  service -> annotateWithService(collectedInfo, service, isOnTheFly()));
   }
 
   @Nullable
-  private static JSLinterAnnotationResult annotateWithService(@NotNull TsLinterInput collectedInfo, @Nullable TsLintLanguageService service) {
+  private static JSLinterAnnotationResult annotateWithService(@NotNull TsLinterInput collectedInfo,
+                                                              @Nullable TsLintLanguageService service,
+                                                              boolean onTheFly) {
     VirtualFile config = collectedInfo.getConfig();
     final Project project = collectedInfo.getProject();
     final TsLintState linterState = collectedInfo.getState();
@@ -128,6 +129,12 @@ public final class TsLintExternalAnnotator extends JSLinterWithInspectionExterna
                                                  collectedInfo.getVirtualFile());
     if (interpreterAndPackageError != null) return JSLinterAnnotationResult.create(collectedInfo, interpreterAndPackageError, config);
 
+    if (!onTheFly && config != null &&
+        !service.hasResult(collectedInfo.getVirtualFile(), config, collectedInfo.getFileContent(), linterState)) {
+      // the batch inspection goes through a directory file by file, lint all its files with a few requests instead
+      service.highlightBatch(collectDirectoryContents(collectedInfo, config), config, linterState);
+    }
+
     final CompletableFuture<List<TsLinterError>> future = service.highlight(collectedInfo.getVirtualFile(),
                                                                             config, collectedInfo.getFileContent(), linterState);
     final List<TsLinterError> result;
@@ -148,6 +155,28 @@ public final class TsLintExternalAnnotator extends JSLinterWithInspectionExterna
     return JSLinterAnnotationResult.createLinterResult(collectedInfo, filtered, config);
   }
 
+  @NotNull
+  private static Map<VirtualFile, String> collectDirectoryContents(@NotNull TsLinterInput collectedInfo, @NotNull VirtualFile config) {
+    final VirtualFile file = collectedInfo.getVirtualFile();
+    final Map<VirtualFile, String> contents = new LinkedHashMap<>();
+    contents.put(file, StringUtil.notNullize(collectedInfo.getFileContent()));
+    final VirtualFile directory = file.getParent();
+    if (directory == null) return contents;
+
+    ReadAction.run(() -> {
+      final FileDocumentManager manager = FileDocumentManager.getInstance();
+      for (VirtualFile child : directory.getChildren()) {
+        if (child.isDirectory() || child.equals(file) || child.getFileType() != file.getFileType() ||
+            !config.equals(TslintUtil.getConfig(collectedInfo.getState(), collectedInfo.getProject(), child))) {
+          continue;
+        }
+        final Document document = manager.getCachedDocument(child);
+        contents.put(child, document != null ? document.getText() : LoadTextUtil.loadText(child).toString());
+      }
+    });
+    return contents;
+  }
+
   private static List<TsLinterError> filterResultByFile(@NotNull VirtualFile virtualFile, @NotNull List<TsLinterError> annotationErrors) {
     final String filePath = virtualFile.getPath();
     final String fileName = virtualFile.getName();
@@ -18,6 +18,7 @@ import com.intellij.lang.javascript.service.*;
 import com.intellij.lang.javascript.service.protocol.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -27,10 +28,11 @@ import com.intellij.util.text.SemVer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.StringReader;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
 
@@ -38,6 +40,9 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
   @NotNull private final static Logger LOG = RareLogger.wrap(Logger.getInstance(TsLintLanguageService.class), false);
   @NotNull private final VirtualFile myWorkingDirectory;
   @NotNull private final NodePackage myNodePackage;
+  private static final int BATCH_SIZE = 50;
+  private final TsLintResultCache myResultCache = new TsLintResultCache();
+  private final Map<TsLintResultCache.Key, CompletableFuture<List<TsLinterError>>> myBatchResults = new ConcurrentHashMap<>();
 
   public TsLintLanguageService(@NotNull Project project, @NotNull NodePackage nodePackage, @NotNull VirtualFile workingDirectory) {
     super(project);
@@ -55,8 +60,157 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
                                                                 @Nullable VirtualFile config,
                                                                 @Nullable String content,
                                                                 @NotNull TsLintState state) {
-    return createHighlightFuture(virtualFile, config, state,
-                                 (filePath, configPath) -> new GetErrorsCommand(filePath, configPath,StringUtil.notNullize(content)));
+    TsLintResultCache.Key cacheKey = createCacheKey(virtualFile, config, content, state);
+    if (cacheKey != null) {
+      CompletableFuture<List<TsLinterError>> batchResult = myBatchResults.get(cacheKey);
+      if (batchResult != null) {
+        return batchResult.thenApply(errors -> errors != null ? new ArrayList<>(errors) : null);
+      }
+      List<TsLinterError> cachedErrors = myResultCache.get(cacheKey);
+      if (cachedErrors != null) {
+        return CompletableFuture.completedFuture(cachedErrors);
+      }
+    }
+    CompletableFuture<List<TsLinterError>> future =
+      createHighlightFuture(virtualFile, config, state,
+                            (filePath, configPath) -> new GetErrorsCommand(filePath, configPath, StringUtil.notNullize(content)));
+    if (cacheKey != null && future != null) {
+      future = future.thenApply(errors -> {
+        myResultCache.put(cacheKey, errors);
+        return errors;
+      });
+    }
+    return future;
+  }
+
+  /**
+   * Lints the files with a request per {@value #BATCH_SIZE} files instead of a request per file.
+   * The TSLint process lints the files of a request with one linter, and the requests are
+   * queued at once, so answers come back while the next batches are linted. Each answer is decoded as it arrives and
+   * completes the futures of its files; {@link #highlight} calls for the same texts get these futures instead of sending
+   * requests of their own.
+   *
+   * @param contents texts of the files to lint, files with a cached or pending result are skipped
+   * @return futures of the results of the files sent for linting
+   */
+  @NotNull
+  public Map<VirtualFile, CompletableFuture<List<TsLinterError>>> highlightBatch(@NotNull Map<VirtualFile, String> contents,
+                                                                                 @NotNull VirtualFile config,
+                                                                                 @NotNull TsLintState state) {
+    String configFilePath = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(config);
+    final JSLanguageServiceQueue process = configFilePath != null && !contents.isEmpty() ? getProcess() : null;
+    if (process == null) {
+      return Collections.emptyMap();
+    }
+
+    Map<VirtualFile, CompletableFuture<List<TsLinterError>>> result = new LinkedHashMap<>();
+    List<BatchFile> batch = new ArrayList<>();
+    for (Map.Entry<VirtualFile, String> entry : contents.entrySet()) {
+      String path = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(entry.getKey());
+      TsLintResultCache.Key cacheKey = createCacheKey(entry.getKey(), config, entry.getValue(), state);
+      if (path == null || cacheKey == null || myResultCache.contains(cacheKey)) continue;
+
+      CompletableFuture<List<TsLinterError>> future = new CompletableFuture<>();
+      if (myBatchResults.putIfAbsent(cacheKey, future) != null) continue;
+      future.whenComplete((errors, throwable) -> {
+        // cache first, so highlight() finds the result either as pending or as cached
+        myResultCache.put(cacheKey, errors);
+        myBatchResults.remove(cacheKey, future);
+      });
+      result.put(entry.getKey(), future);
+      batch.add(new BatchFile(path, entry.getValue(), future));
+      if (batch.size() == BATCH_SIZE) {
+        sendBatch(process, batch, configFilePath);
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      sendBatch(process, batch, configFilePath);
+    }
+    return result;
+  }
+
+  /**
+   * @return whether {@link #highlight} for the text is answered from the cache or by a pending {@link #highlightBatch}
+   */
+  public boolean hasResult(@NotNull VirtualFile virtualFile,
+                           @Nullable VirtualFile config,
+                           @Nullable String content,
+                           @NotNull TsLintState state) {
+    TsLintResultCache.Key cacheKey = createCacheKey(virtualFile, config, content, state);
+    return cacheKey != null && (myBatchResults.containsKey(cacheKey) || myResultCache.contains(cacheKey));
+  }
+
+  @Nullable
+  private TsLintResultCache.Key createCacheKey(@NotNull VirtualFile virtualFile,
+                                               @Nullable VirtualFile config,
+                                               @Nullable String content,
+                                               @NotNull TsLintState state) {
+    String path = JSLanguageServiceUtil.normalizePathDoNotFollowSymlinks(virtualFile);
+    if (path == null || config == null) return null;
+    return myResultCache.createKey(myProject, path, StringUtil.notNullize(content), config, state.getRulesDirectory(), myNodePackage);
+  }
+
+  private void sendBatch(@NotNull JSLanguageServiceQueue process, @NotNull List<BatchFile> batch, @NotNull String configFilePath) {
+    List<String> paths = ContainerUtil.map(batch, file -> file.myPath);
+    GetErrorsBatchCommand command = new GetErrorsBatchCommand(
+      ContainerUtil.map(batch, file -> new GetErrorsBatchCommand.FileToLint(LocalFilePath.create(file.myPath), file.myContent)),
+      LocalFilePath.create(configFilePath));
+    Gson gson = JSLanguageServiceUtil.getGson(this);
+    long start = System.nanoTime();
+    CompletableFuture<Map<String, List<TsLinterError>>> future =
+      process.execute(command, (object, answer) -> parseBatchResults(answer, paths, gson));
+    if (future == null) {
+      batch.forEach(file -> file.myFuture.complete(null));
+      return;
+    }
+    future.whenComplete((errorsByPath, throwable) -> {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Linted " + batch.size() + " files in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+      }
+      for (BatchFile file : batch) {
+        if (throwable != null) {
+          file.myFuture.completeExceptionally(throwable);
+        }
+        else {
+          file.myFuture.complete(errorsByPath != null ? errorsByPath.get(FileUtil.toSystemIndependentName(file.myPath)) : null);
+        }
+      }
+    });
+  }
+
+  @Nullable
+  private static Map<String, List<TsLinterError>> parseBatchResults(@NotNull JSLanguageServiceAnswer answer,
+                                                                    @NotNull List<String> paths,
+                                                                    @NotNull Gson gson) {
+    final JsonObject element = answer.getElement();
+    final Map<String, List<TsLinterError>> result = new HashMap<>();
+    final JsonElement error = element.get("error");
+    if (error != null) {
+      List<TsLinterError> globalError = Collections.singletonList(TsLinterError.createGlobalError(error.getAsString())); //NON-NLS
+      paths.forEach(path -> result.put(FileUtil.toSystemIndependentName(path), globalError));
+      return result;
+    }
+    final String body = parseBody(element);
+    if (body == null) return null;
+    paths.forEach(path -> result.put(FileUtil.toSystemIndependentName(path), new ArrayList<>()));
+    final boolean isZeroBased = TsLintOutputJsonParser.isVersionZeroBased(SemVer.parseFromText(element.get("version").getAsString()));
+    boolean complete = new TsLintOutputJsonParser(null, isZeroBased, gson).parse(new StringReader(body), tsLinterError -> {
+      String path = tsLinterError.getAbsoluteFilePath();
+      List<TsLinterError> errors = path != null ? result.get(FileUtil.toSystemIndependentName(path)) : null;
+      if (errors != null) {
+        errors.add(tsLinterError);
+      }
+    });
+    // errors of truncated output can't be told apart from complete results, so none are reported or cached
+    return complete ? result : null;
+  }
+
+  /**
+   * @return the share of highlighting requests answered without the TSLint process
+   */
+  public double getCacheHitRate() {
+    return myResultCache.getHitRate();
   }
 
   @Nullable
@@ -101,22 +255,22 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
   }
 
   @Nullable
-  private static List<TsLinterError> parseResults(@NotNull JSLanguageServiceAnswer answer, @NotNull String path, @NotNull Gson gson) {
+  private static List<TsLinterError> parseResults(@NotNull JSLanguageServiceAnswer answer, @Nullable String path, @NotNull Gson gson) {
     final JsonObject element = answer.getElement();
     final JsonElement error = element.get("error");
     if (error != null) {
       return Collections.singletonList(TsLinterError.createGlobalError(error.getAsString())); //NON-NLS
     }
-    final JsonElement body = parseBody(element);
+    final String body = parseBody(element);
     if (body == null) return null;
     final String version = element.get("version").getAsString();
     final SemVer tsLintVersion = SemVer.parseFromText(version);
     final boolean isZeroBased = TsLintOutputJsonParser.isVersionZeroBased(tsLintVersion);
-    final TsLintOutputJsonParser parser = new TsLintOutputJsonParser(path, body, isZeroBased, gson);
-    return new ArrayList<>(parser.getErrors());
+    return new TsLintOutputJsonParser(path, isZeroBased, gson).parse(body);
   }
 
-  private static JsonElement parseBody(@NotNull JsonObject element) {
+  @Nullable
+  private static String parseBody(@NotNull JsonObject element) {
     final JsonElement body = element.get("body");
     if (body == null) {
       //we do not currently treat empty body as error in protocol
@@ -125,11 +279,7 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
       if (body.isJsonPrimitive() && body.getAsJsonPrimitive().isString()) {
         final String bodyContent = StringUtil.unquoteString(body.getAsJsonPrimitive().getAsString());
         if (!StringUtil.isEmptyOrSpaces(bodyContent)) {
-          try {
-            return JsonParser.parseString(bodyContent);
-          } catch (JsonParseException e) {
-            LOG.info(String.format("Problem parsing body: '%s'\n%s", body, e.getMessage()), e);
-          }
+          return bodyContent;
         }
       } else {
         LOG.info(String.format("Error body type, should be a string with json inside. Body:'%s'", body.getAsString()));
@@ -181,6 +331,51 @@ public final class TsLintLanguageService extends JSLanguageServiceBase {
     }
   }
 
+  private static final class GetErrorsBatchCommand implements JSLanguageServiceCommand, JSLanguageServiceSimpleCommand,
+                                                               JSLanguageServiceObject {
+    public List<FileToLint> files;
+    public LocalFilePath configPath;
+
+    private GetErrorsBatchCommand(List<FileToLint> files, LocalFilePath configPath) {
+      this.files = files;
+      this.configPath = configPath;
+    }
+
+    @NotNull
+    @Override
+    public JSLanguageServiceObject toSerializableObject() {
+      return this;
+    }
+
+    @NotNull
+    @Override
+    public String getCommand() {
+      return "GetErrorsBatch";
+    }
+
+    private static final class FileToLint {
+      public LocalFilePath filePath;
+      public String content;
+
+      private FileToLint(LocalFilePath filePath, String content) {
+        this.filePath = filePath;
+        this.content = content;
+      }
+    }
+  }
+
+  private static final class BatchFile {
+    private final String myPath;
+    private final String myContent;
+    private final CompletableFuture<List<TsLinterError>> myFuture;
+
+    private BatchFile(@NotNull String path, @NotNull String content, @NotNull CompletableFuture<List<TsLinterError>> future) {
+      myPath = path;
+      myContent = content;
+      myFuture = future;
+    }
+  }
+
   private static final class FixErrorsCommand extends BaseCommand{
     private FixErrorsCommand(LocalFilePath filePath, @Nullable LocalFilePath configPath) {
       super(filePath, configPath);
@@ -0,0 +1,150 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.linter.tslint.service;
+
+import com.intellij.javascript.nodejs.util.NodePackage;
+import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
+import com.intellij.lang.javascript.linter.tslint.highlight.TsLintConfigFileChangeTracker;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.io.DigestUtil;
+import com.intellij.util.text.SemVer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent results of {@link TsLintLanguageService#highlight}, so linting an unchanged text again
+ * (reopening a file, running the inspection) doesn't need a request to the TSLint process.
+ * <p>
+ * Results are keyed by the file path, a hash of the text, the config file with its modification stamp,
+ * the rules directory and the TSLint package version. Configs may extend other configs,
+ * so the key also includes {@link TsLintConfigFileChangeTracker#getConfigModificationCount()}.
+ */
+final class TsLintResultCache {
+  private static final Logger LOG = Logger.getInstance(TsLintResultCache.class);
+  private static final int MAX_SIZE = 500;
+
+  private final Map<Key, List<TsLinterError>> myResults = new LinkedHashMap<Key, List<TsLinterError>>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Key, List<TsLinterError>> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+  private final AtomicLong myHits = new AtomicLong();
+  private final AtomicLong myMisses = new AtomicLong();
+
+  @NotNull
+  Key createKey(@NotNull Project project,
+                @NotNull String filePath,
+                @NotNull String content,
+                @NotNull VirtualFile config,
+                @Nullable String rulesDirectory,
+                @NotNull NodePackage nodePackage) {
+    SemVer version = nodePackage.getVersion();
+    return new Key(filePath,
+                   StringUtil.toHexString(DigestUtil.sha256().digest(content.getBytes(StandardCharsets.UTF_8))),
+                   config.getPath(),
+                   config.getModificationStamp(),
+                   StringUtil.notNullize(rulesDirectory),
+                   nodePackage.getSystemDependentPath() + (version != null ? "@" + version.getRawVersion() : ""),
+                   TsLintConfigFileChangeTracker.getInstance(project).getConfigModificationCount());
+  }
+
+  @Nullable
+  List<TsLinterError> get(@NotNull Key key) {
+    List<TsLinterError> errors;
+    synchronized (myResults) {
+      errors = myResults.get(key);
+    }
+    (errors != null ? myHits : myMisses).incrementAndGet();
+    if (LOG.isDebugEnabled()) {
+      LOG.debug((errors != null ? "Hit " : "Miss ") + key.myFilePath + ", hit rate " + getHitRate());
+    }
+    return errors != null ? new ArrayList<>(errors) : null;
+  }
+
+  /**
+   * Checks for a result without updating the hit rate.
+   */
+  boolean contains(@NotNull Key key) {
+    synchronized (myResults) {
+      return myResults.containsKey(key);
+    }
+  }
+
+  void put(@NotNull Key key, @Nullable List<TsLinterError> errors) {
+    // global errors are problems of the process or the config, these are reported again until fixed
+    if (errors == null || errors.stream().anyMatch(TsLinterError::isGlobal)) return;
+    synchronized (myResults) {
+      myResults.put(key, new ArrayList<>(errors));
+    }
+  }
+
+  long getHitCount() {
+    return myHits.get();
+  }
+
+  long getMissCount() {
+    return myMisses.get();
+  }
+
+  /**
+   * @return the share of requests answered from the cache, 0 if there were no requests yet
+   */
+  double getHitRate() {
+    long hits = myHits.get();
+    long total = hits + myMisses.get();
+    return total == 0 ? 0 : (double)hits / total;
+  }
+
+  static final class Key {
+    private final String myFilePath;
+    private final String myContentHash;
+    private final String myConfigPath;
+    private final long myConfigModificationStamp;
+    private final String myRulesDirectory;
+    private final String myPackage;
+    private final long myConfigModificationCount;
+
+    private Key(@NotNull String filePath,
+                @NotNull String contentHash,
+                @NotNull String configPath,
+                long configModificationStamp,
+                @NotNull String rulesDirectory,
+                @NotNull String nodePackage,
+                long configModificationCount) {
+      myFilePath = filePath;
+      myContentHash = contentHash;
+      myConfigPath = configPath;
+      myConfigModificationStamp = configModificationStamp;
+      myRulesDirectory = rulesDirectory;
+      myPackage = nodePackage;
+      myConfigModificationCount = configModificationCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key)o;
+      return myConfigModificationStamp == key.myConfigModificationStamp &&
+             myConfigModificationCount == key.myConfigModificationCount &&
+             myFilePath.equals(key.myFilePath) &&
+             myContentHash.equals(key.myContentHash) &&
+             myConfigPath.equals(key.myConfigPath) &&
+             myRulesDirectory.equals(key.myRulesDirectory) &&
+             myPackage.equals(key.myPackage);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(myFilePath, myContentHash, myConfigPath, myConfigModificationStamp, myRulesDirectory, myPackage,
+                          myConfigModificationCount);
+    }
+  }
+}
@@ -5,6 +5,7 @@ import {readFileSync} from "fs"
 
 namespace TsLintCommands {
     export let GetErrors: string = "GetErrors";
+    export let GetErrorsBatch: string = "GetErrorsBatch";
     export let FixErrors: string = "FixErrors";
 }
 
@@ -36,6 +37,9 @@ export class TSLintPlugin implements LanguagePlugin {
             case TsLintCommands.GetErrors: {
                 return this.getErrors(parsedObject.arguments);
             }
+            case TsLintCommands.GetErrorsBatch: {
+                return this.getErrorsBatch(parsedObject.arguments);
+            }
             case TsLintCommands.FixErrors: {
                 return this.fixErrors(parsedObject.arguments);
             }
@@ -71,6 +75,29 @@ export class TSLintPlugin implements LanguagePlugin {
         return this.processLinting(toProcess, this.getOptions(false));
     }
 
+    /**
+     * Lints the files with one linter, the configuration is resolved for each file;
+     * the answer contains the failures of all files
+     */
+    private getErrorsBatch(toProcess: GetErrorsBatchArguments): { output: string } {
+        let linter = this.linterApi.linter;
+        let major = this.linterApi.version.major || 0;
+        if (major >= 4) {
+            let tslint = new linter(this.getOptions(false));
+            toProcess.files.forEach(file => {
+                tslint.lint(file.filePath, file.content, this.getConfiguration(file.filePath, toProcess.configPath));
+            });
+            return tslint.getResult();
+        }
+
+        let failures: any[] = [];
+        toProcess.files.forEach(file => {
+            let result = this.processLinting({...file, configPath: toProcess.configPath}, this.getOptions(false));
+            failures = failures.concat(JSON.parse(result.output));
+        });
+        return {output: JSON.stringify(failures)};
+    }
+
     private fixErrors(toProcess: FixErrorsArguments): LintResult {
         //TODO. why here?
         let contents = readFileSync(toProcess.filePath, "utf8");
@@ -56,5 +56,17 @@ interface GetErrorsArguments extends CommandArguments {
     readonly content: string;
 }
 
+interface GetErrorsBatchArguments {
+    /**
+     * Files to check with their contents
+     */
+    readonly files: { readonly filePath: string, readonly content: string }[];
+
+    /**
+     * Absolute config path, the same for all the files
+     */
+    readonly configPath: string;
+}
+
 interface FixErrorsArguments extends CommandArguments {
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.linter.tslint.execution;
+
+import com.intellij.lang.javascript.service.JSLanguageServiceQueue;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TsLintOutputJsonParserTest extends BasePlatformTestCase {
+  public void testErrors() {
+    List<TsLinterError> errors = parse("/src/default.ts", false, "[" +
+      error("/src/a.ts", 0, 4, "Missing semicolon", "semicolon", "error",
+            "[{\"innerStart\": 9, \"innerLength\": 0, \"innerText\": \";\"}]") + "," +
+      error("", 2, 0, "Forbidden 'var' keyword", "no-var-keyword", "warning", null) +
+      "]");
+
+    assertEquals(2, errors.size());
+    TsLinterError semicolon = errors.get(0);
+    assertEquals("/src/a.ts", semicolon.getAbsoluteFilePath());
+    assertEquals(1, semicolon.getLine());
+    assertEquals(5, semicolon.getColumn());
+    assertEquals(1, semicolon.getEndLine());
+    assertEquals(6, semicolon.getEndColumn());
+    assertEquals("Missing semicolon", semicolon.getDescription());
+    assertEquals("semicolon", semicolon.getCode());
+    assertTrue(semicolon.hasFix());
+
+    TsLinterError var = errors.get(1);
+    assertEquals("/src/default.ts", var.getAbsoluteFilePath());
+    assertFalse(var.hasFix());
+  }
+
+  public void testZeroBased() {
+    List<TsLinterError> errors = parse("/src/a.ts", true, "[" + error("/src/a.ts", 3, 7, "Missing semicolon", "semicolon", null, null) + "]");
+    assertEquals(1, errors.size());
+    assertEquals(3, errors.get(0).getLine());
+    assertEquals(7, errors.get(0).getColumn());
+  }
+
+  public void testMalformedErrorsSkipped() {
+    List<TsLinterError> errors = parse("/src/a.ts", false, "[" +
+      "{\"name\": \"/src/a.ts\", \"ruleName\": \"semicolon\"}," +
+      "42," +
+      "{\"name\": \"/src/a.ts\", \"failure\": \"No position\", \"startPosition\": {\"line\": 1}, " +
+      "\"endPosition\": {\"line\": 1, \"character\": 2}, \"ruleName\": \"semicolon\"}," +
+      error("/src/a.ts", 1, 1, "Missing semicolon", "semicolon", null, null) +
+      "]");
+    assertEquals(1, errors.size());
+    assertEquals("Missing semicolon", errors.get(0).getDescription());
+
+    assertNull(parse("/src/a.ts", false, "{\"failure\": \"not an array\"}"));
+  }
+
+  public void testTruncatedOutput() {
+    String output = "[" + error("/src/a.ts", 1, 1, "Read", "semicolon", null, null) + ", {\"name\"";
+    assertNull(parse("/src/a.ts", false, output));
+
+    List<TsLinterError> errors = new ArrayList<>();
+    assertFalse(new TsLintOutputJsonParser(null, false, JSLanguageServiceQueue.GSON).parse(new StringReader(output), errors::add));
+    assertEquals(1, errors.size());
+  }
+
+  public void testManyFiles() {
+    int fileCount = 20;
+    int errorsPerFile = 5;
+    StringBuilder output = new StringBuilder("[");
+    for (int i = 0; i < fileCount; i++) {
+      for (int j = 0; j < errorsPerFile; j++) {
+        if (output.length() > 1) output.append(',');
+        output.append(error("/project/src/file" + i + ".ts", j * 3, j, "Missing semicolon", "semicolon", "error",
+                            "{\"innerStart\": " + j * 40 + ", \"innerLength\": 0, \"innerText\": \";\"}"));
+      }
+    }
+
+    Map<String, Integer> errorsByFile = new HashMap<>();
+    assertTrue(new TsLintOutputJsonParser(null, false, JSLanguageServiceQueue.GSON)
+                 .parse(new StringReader(output.append(']').toString()),
+                        error -> errorsByFile.merge(error.getAbsoluteFilePath(), 1, Integer::sum)));
+    assertEquals(fileCount, errorsByFile.size());
+    assertEquals(Integer.valueOf(errorsPerFile), errorsByFile.get("/project/src/file19.ts"));
+  }
+
+  private static List<TsLinterError> parse(String path, boolean zeroBased, String output) {
+    return new TsLintOutputJsonParser(path, zeroBased, JSLanguageServiceQueue.GSON).parse(output);
+  }
+
+  private static String error(String name, int line, int character, String failure, String ruleName, String severity, String fix) {
+    return "{\"name\": \"" + name + "\", \"failure\": \"" + failure + "\", " +
+           "\"startPosition\": {\"line\": " + line + ", \"character\": " + character + ", \"position\": 0}, " +
+           "\"endPosition\": {\"line\": " + line + ", \"character\": " + (character + 1) + ", \"position\": 1}, " +
+           "\"ruleName\": \"" + ruleName + "\"" +
+           (severity != null ? ", \"ruleSeverity\": \"" + severity + "\"" : "") +
+           (fix != null ? ", \"fix\": " + fix : "") + "}";
+  }
+}
@@ -0,0 +1,48 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.intellij.lang.javascript.linter.tslint.service;
+
+import com.intellij.javascript.nodejs.util.NodePackage;
+import com.intellij.lang.javascript.linter.tslint.execution.TsLinterError;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TsLintResultCacheTest extends BasePlatformTestCase {
+  private final NodePackage myPackage = new NodePackage("/node_modules/tslint");
+
+  public void testCachedErrors() throws Exception {
+    VirtualFile config = myFixture.addFileToProject("tslint.json", "{}").getVirtualFile();
+    TsLintResultCache cache = new TsLintResultCache();
+    List<TsLinterError> errors =
+      Collections.singletonList(new TsLinterError("/src/a.ts", 1, 1, 1, 5, "Missing semicolon", "semicolon", false, null));
+
+    TsLintResultCache.Key key = createKey(cache, "let a = 1", config);
+    assertNull(cache.get(key));
+    cache.put(key, errors);
+    assertEquals(errors, cache.get(createKey(cache, "let a = 1", config)));
+    assertNull(cache.get(createKey(cache, "let a = 2", config)));
+
+    WriteAction.runAndWait(() -> VfsUtil.saveText(config, "{\"rules\": {}}"));
+    assertNull(cache.get(createKey(cache, "let a = 1", config)));
+
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(0.25, cache.getHitRate(), 0.001);
+  }
+
+  public void testGlobalErrorsNotCached() {
+    VirtualFile config = myFixture.addFileToProject("tslint.json", "{}").getVirtualFile();
+    TsLintResultCache cache = new TsLintResultCache();
+    TsLintResultCache.Key key = createKey(cache, "let a = 1", config);
+    cache.put(key, Collections.singletonList(TsLinterError.createGlobalError("Cannot find configuration")));
+    assertNull(cache.get(key));
+  }
+
+  private TsLintResultCache.Key createKey(TsLintResultCache cache, String content, VirtualFile config) {
+    return cache.createKey(getProject(), "/src/a.ts", content, config, null, myPackage);
+  }
+}